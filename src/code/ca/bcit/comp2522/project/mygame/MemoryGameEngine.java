@@ -1,5 +1,7 @@
 package ca.bcit.comp2522.project.mygame;
 
+import ca.bcit.comp2522.project.wordgame.ScoreSink;
+
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -446,14 +448,21 @@ public class MemoryGameEngine implements MemoryGameRule
               totalWinStreaks
       );
 
+      // The shared log keeps memory game records apart from the word game's
       try
       {
-         MyScore.appendScoreToFile(score, SCORE_FILE);
-         System.out.println("Score successfully saved.");
+         if(ScoreSink.record(ScoreSink.SHARED_LOG_PATH, score))
+         {
+            System.out.println("Score successfully saved.");
+         }
+         else
+         {
+            System.out.println("Score log is in use by another game; your score was saved and will be added to it shortly.");
+         }
       }
-      catch(final IOException e)
+      catch(final IOException | IllegalArgumentException e)
       {
-         System.out.println("Error writing score to file: " + e.getMessage());
+         System.out.println("Error writing score to log: " + e.getMessage());
       }
 
       isGameEnded = true; // Mark the game as ended
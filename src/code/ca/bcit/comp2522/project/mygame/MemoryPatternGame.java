@@ -1,6 +1,9 @@
 package ca.bcit.comp2522.project.mygame;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
+
+import ca.bcit.comp2522.project.util.RandomProvider;
 
 /**
  * This class implements the {@link GameLevel} interface for the easy level of the memory pattern game.
@@ -13,6 +16,33 @@ import java.util.*;
  */
 public class MemoryPatternGame implements GameLevel
 {
+   private final RandomGenerator rand;
+
+   /**
+    * Constructs a new {@code MemoryPatternGame} with its own random generator.
+    */
+   public MemoryPatternGame()
+   {
+      this(RandomProvider.shared().split());
+   }
+
+   /**
+    * Constructs a new {@code MemoryPatternGame} drawing its patterns from the given generator,
+    * so a seeded generator replays the same patterns.
+    *
+    * @param rand the generator the patterns are drawn from
+    * @throws IllegalArgumentException if the generator is null
+    */
+   public MemoryPatternGame(final RandomGenerator rand)
+   {
+      if(rand == null)
+      {
+         throw new IllegalArgumentException("Random generator must not be null!");
+      }
+
+      this.rand = rand;
+   }
+
    /**
     * Generates a pattern of squares to be memorized by the player. This method is called each round
     * and generates a pattern based on the current round and board size.
@@ -72,14 +102,12 @@ public class MemoryPatternGame implements GameLevel
                                              final int levelMultiplier)
    {
       final List<Square> newPattern;
-      final Random rand;
       final int left;
       final int noMove;
       final int right;
       Square currentSquare;
 
       newPattern = new ArrayList<>();
-      rand = new Random();
       left = -1;
       noMove = 0;
       right = 1;
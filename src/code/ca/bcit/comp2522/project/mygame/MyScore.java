@@ -1,16 +1,18 @@
 package ca.bcit.comp2522.project.mygame;
 
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import ca.bcit.comp2522.project.util.ScoreTextScanner;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
@@ -44,8 +46,9 @@ import java.util.stream.Stream;
  * @author Linh Hoang
  * @version 1.1
  */
-public class MyScore
+public class MyScore implements GameScore
 {
+   private final LocalDateTime dateTime;
    private final String        dateTimePlayed;
    private final int           gameRoundNum;
    private final int           highestScore;
@@ -70,12 +73,11 @@ public class MyScore
    {
       validateDateTime(dateTimePlayed);
 
-      final DateTimeFormatter formatter;
       final String            formattedDateTime;
 
-      formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-      formattedDateTime = dateTimePlayed.format(formatter);
+      formattedDateTime = dateTimePlayed.format(ScoreTextScanner.DATE_TIME_FORMAT);
 
+      this.dateTime = dateTimePlayed.truncatedTo(ChronoUnit.SECONDS);
       this.dateTimePlayed = formattedDateTime;
       this.gameRoundNum = gameRoundNum;
       this.highestScore = highestScore;
@@ -93,11 +95,34 @@ public class MyScore
       return dateTimePlayed;
    }
 
+   /**
+    * Returns the date and time when the game was played, to the second.
+    *
+    * @return the date and time when the game was played.
+    */
+   @Override
+   public LocalDateTime getDateTime()
+   {
+      return dateTime;
+   }
+
+   /**
+    * Returns the memory game namespace.
+    *
+    * @return {@link ScoreNamespace#MEMORY_GAME}.
+    */
+   @Override
+   public ScoreNamespace getNamespace()
+   {
+      return ScoreNamespace.MEMORY_GAME;
+   }
+
    /**
     * Returns the total number of game rounds played.
     *
     * @return the number of game rounds played.
     */
+   @Override
    public int getNumGamesPlayed()
    {
       return gameRoundNum;
@@ -108,6 +133,7 @@ public class MyScore
     *
     * @return the highest score achieved.
     */
+   @Override
    public int getNumCorrectFirstAttempt()
    {
       return highestScore;
@@ -118,6 +144,7 @@ public class MyScore
     *
     * @return the longest winning streak.
     */
+   @Override
    public int getNumCorrectSecondAttempt()
    {
       return highestWinStreak;
@@ -128,6 +155,7 @@ public class MyScore
     *
     * @return the number of wins after two attempts.
     */
+   @Override
    public int getNumIncorrectTwoAttempts()
    {
       return winStreakNum;
@@ -261,7 +289,6 @@ public class MyScore
          for(int i = 0; i < size; i++)
          {
             final MyScore score;
-            final String dateTimeStr;
             final String dataStr;
 
             dataStr = fileContent.get(i);
@@ -269,29 +296,34 @@ public class MyScore
 
             if(dataStr.contains("Date and Time:"))
             {
-               dateTimeStr = dateTimeParser(dataStr);
-               dateTimePlayed = convertStrToLocalDateTime(dateTimeStr);
+               dateTimePlayed = ScoreTextScanner.parseDateTime(dataStr);
+
+               if(dateTimePlayed == null)
+               {
+                  throw new IllegalArgumentException("Invalid string format!");
+               }
+
                j++;
             }
             else if(dataStr.contains("Rounds Played:"))
             {
                j++;
-               gameRoundNum = parseDigitFromString(dataStr);
+               gameRoundNum = ScoreTextScanner.parseInt(dataStr);
             }
             else if(dataStr.contains("Highest Score:"))
             {
                j++;
-               numCorrectFirstGuess = parseDigitFromString(dataStr);
+               numCorrectFirstGuess = ScoreTextScanner.parseInt(dataStr);
             }
             else if(dataStr.contains("Highest Win Streaks:"))
             {
                j++;
-               numCorrectSecondGuess = parseDigitFromString(dataStr);
+               numCorrectSecondGuess = ScoreTextScanner.parseInt(dataStr);
             }
             else if(dataStr.contains("Number of Win Streaks:"))
             {
                j++;
-               winStreakNum = parseDigitFromString(dataStr);
+               winStreakNum = ScoreTextScanner.parseInt(dataStr);
             }
             else {
                throw new IllegalArgumentException("Invalid string format!");
@@ -311,30 +343,6 @@ public class MyScore
       }
    }
 
-   /**
-    * Parses the first sequence of digits from the given string.
-    *
-    * @param str the string to parse
-    * @return the first integer found in the string, or -1 if no digits are found
-    */
-   private static int parseDigitFromString(final String str)
-   {
-      final Pattern pattern;
-      final Matcher matcher;
-      int result;
-
-      pattern = Pattern.compile("\\d+");
-      matcher = pattern.matcher(str);
-      result = - 1;
-
-      if(matcher.find())
-      {
-         result = Integer.parseInt(matcher.group());
-      }
-
-      return result;
-   }
-
    /**
     * Parses a date-time string and formats it into the pattern "yyyy-MM-dd HH:mm:ss".
     *
@@ -343,45 +351,11 @@ public class MyScore
     */
    public static String dateTimeParser(final String dateTimeStr)
    {
-      final Pattern pattern;
-      final Matcher matcher;
-      String dateTimeResult;
-
-
-      pattern = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
-      matcher = pattern.matcher(dateTimeStr);
-      dateTimeResult = "";
-
-      if(matcher.find())
-      {
-         final String dateTimeMatch;
-         final LocalDateTime dateTime;
-         final DateTimeFormatter formatter;
-
-         dateTimeMatch = matcher.group();
-         formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-         dateTime = LocalDateTime.parse(dateTimeMatch, formatter);
-         dateTimeResult = dateTime.format(formatter);
-      }
-
-      return dateTimeResult;
-   }
-
-   /**
-    * Converts a date-time string into a LocalDateTime object.
-    *
-    * @param dateTimeStr the date-time string to convert
-    * @return a LocalDateTime object representing the parsed date-time
-    */
-   private static LocalDateTime convertStrToLocalDateTime(final String dateTimeStr)
-   {
-      final LocalDateTime result;
-      final DateTimeFormatter formatter;
+      final LocalDateTime dateTime;
 
-      formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-      result = LocalDateTime.parse(dateTimeStr, formatter);
+      dateTime = ScoreTextScanner.parseDateTime(dateTimeStr);
 
-      return result;
+      return dateTime == null ? "" : dateTime.format(ScoreTextScanner.DATE_TIME_FORMAT);
    }
 
    /**
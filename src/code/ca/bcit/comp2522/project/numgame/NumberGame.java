@@ -1,7 +1,7 @@
 package ca.bcit.comp2522.project.numgame;
 
 import java.util.Arrays;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -12,6 +12,8 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import ca.bcit.comp2522.project.util.RandomProvider;
+
 /**
  * This class represents the NumberGame, a game that involves placing numbers on a grid in an ascending order.
  * The player aims to place a random number on the grid until they either win by filling all grid cells or lose by
@@ -41,6 +43,7 @@ public class NumberGame extends GameGUI
 
    private final Label label;
    private final Integer[] board;
+   private final RandomGenerator random;
    private int randomNumber;
    private int moves;
    private int totalGamesPlayed;
@@ -53,8 +56,26 @@ public class NumberGame extends GameGUI
     */
    public NumberGame()
    {
+      this(RandomProvider.shared().split());
+   }
+
+   /**
+    * Constructs a new NumberGameGUI instance drawing its numbers from the given generator,
+    * so a seeded generator replays the same numbers.
+    *
+    * @param random the generator the numbers are drawn from.
+    * @throws IllegalArgumentException if the generator is null.
+    */
+   public NumberGame(final RandomGenerator random)
+   {
+      if(random == null)
+      {
+         throw new IllegalArgumentException("Random generator must not be null!");
+      }
+
       this.label = new Label();
       this.board = new Integer[ROWS * COLS];
+      this.random = random;
       this.randomNumber = generateRandomNumber();
 
       this.moves                     = DEFAULT_VALUE;
@@ -175,13 +196,7 @@ public class NumberGame extends GameGUI
    @Override
    public int generateRandomNumber()
    {
-      final Random rand;
-      final int randomNum;
-
-      rand = new Random();
-      randomNum = rand.nextInt(LOWER_BOUND_RAND_VAL, UPPER_BOUND_RAND_VAL);
-
-      return randomNum;
+      return random.nextInt(LOWER_BOUND_RAND_VAL, UPPER_BOUND_RAND_VAL);
    }
 
    /**
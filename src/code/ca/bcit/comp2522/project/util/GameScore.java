@@ -0,0 +1,56 @@
+package ca.bcit.comp2522.project.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code GameScore} interface is the shape shared by the scores of every
+ * game: when the game was played and four counters, whose meaning depends on
+ * the game's {@link ScoreNamespace}. It is what a shared score log stores.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public interface GameScore
+{
+   /**
+    * Returns the game this score belongs to.
+    *
+    * @return the namespace of the score
+    */
+   ScoreNamespace getNamespace();
+
+   /**
+    * Returns the date and time the game was played, to the second.
+    *
+    * @return the date and time the game was played
+    */
+   LocalDateTime getDateTime();
+
+   /**
+    * Returns the number of games or rounds played.
+    *
+    * @return the first counter
+    */
+   int getNumGamesPlayed();
+
+   /**
+    * Returns the second counter of the score.
+    *
+    * @return the second counter
+    */
+   int getNumCorrectFirstAttempt();
+
+   /**
+    * Returns the third counter of the score.
+    *
+    * @return the third counter
+    */
+   int getNumCorrectSecondAttempt();
+
+   /**
+    * Returns the fourth counter of the score.
+    *
+    * @return the fourth counter
+    */
+   int getNumIncorrectTwoAttempts();
+}
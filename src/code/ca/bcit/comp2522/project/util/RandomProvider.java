@@ -0,0 +1,93 @@
+package ca.bcit.comp2522.project.util;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code RandomProvider} class hands out random generators to the games.
+ * Every generator is split from one root {@link SplittableRandom}, so
+ * generators never share state: nothing contends on an atomic seed the way
+ * a shared {@link java.util.Random} does, and no generator is allocated per
+ * call.
+ *
+ * <p>{@link #get()} returns a generator owned by the calling thread, for code
+ * that draws numbers in place. {@link #split()} returns a new generator to be
+ * owned by one object, such as a game or a session, which must not share it
+ * between threads. A provider built with a seed hands out the same sequence
+ * of generators every run, so a run that splits generators in a fixed order
+ * is reproducible.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class RandomProvider
+{
+   private static final RandomProvider SHARED = new RandomProvider();
+
+   private final SplittableRandom root;
+   private final ThreadLocal<RandomGenerator> perThread;
+
+   /**
+    * Constructs an unseeded {@code RandomProvider}.
+    */
+   public RandomProvider()
+   {
+      this(new SplittableRandom());
+   }
+
+   /**
+    * Constructs a seeded {@code RandomProvider}.
+    *
+    * @param seed the seed of the root generator
+    */
+   public RandomProvider(final long seed)
+   {
+      this(new SplittableRandom(seed));
+   }
+
+   /*
+    * Constructs a provider over a root generator.
+    *
+    * @param root the generator every other generator is split from
+    */
+   private RandomProvider(final SplittableRandom root)
+   {
+      this.root = root;
+      this.perThread = ThreadLocal.withInitial(this::split);
+   }
+
+   /**
+    * Returns the unseeded provider shared by the whole application.
+    *
+    * @return the shared provider
+    */
+   public static RandomProvider shared()
+   {
+      return SHARED;
+   }
+
+   /**
+    * Returns the generator of the calling thread. It must not be handed to
+    * another thread.
+    *
+    * @return the calling thread's generator
+    */
+   public RandomGenerator get()
+   {
+      return perThread.get();
+   }
+
+   /**
+    * Returns a new generator, independent of every other generator of this
+    * provider.
+    *
+    * @return a new generator
+    */
+   public RandomGenerator split()
+   {
+      synchronized(root)
+      {
+         return root.split();
+      }
+   }
+}
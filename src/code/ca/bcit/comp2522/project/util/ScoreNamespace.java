@@ -0,0 +1,57 @@
+package ca.bcit.comp2522.project.util;
+
+/**
+ * The {@code ScoreNamespace} enum names the game a stored score belongs to.
+ * Scores of every game can share one score log; each record keeps the id of
+ * its namespace, and a reader only decodes the records of its own game.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public enum ScoreNamespace
+{
+   WORD_GAME(0),
+   MEMORY_GAME(1);
+
+   private final int id;
+
+   /*
+    * Constructs a namespace with the id stored in its records.
+    *
+    * @param id the stored id
+    */
+   ScoreNamespace(final int id)
+   {
+      this.id = id;
+   }
+
+   /**
+    * Returns the id stored in the records of this namespace.
+    *
+    * @return the stored id
+    */
+   public int getId()
+   {
+      return id;
+   }
+
+   /**
+    * Returns the namespace stored with an id.
+    *
+    * @param id the stored id
+    * @return the namespace
+    * @throws IllegalArgumentException if no namespace has the id
+    */
+   public static ScoreNamespace fromId(final int id)
+   {
+      for(final ScoreNamespace namespace : values())
+      {
+         if(namespace.id == id)
+         {
+            return namespace;
+         }
+      }
+
+      throw new IllegalArgumentException("Unknown score namespace " + id);
+   }
+}
@@ -0,0 +1,227 @@
+package ca.bcit.comp2522.project.util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@code ScoreTextScanner} class reads the values of the text score format
+ * shared by the word game and the memory game, where every line is a label
+ * followed by a number or by a {@code yyyy-MM-dd HH:mm:ss} date and time.
+ *
+ * <p>Values are parsed straight from the characters of a line, between two
+ * positions, without regular expressions or intermediate strings, so a line
+ * can be scanned inside a larger buffer without being copied out first.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class ScoreTextScanner
+{
+   /**
+    * The format of the date and time of a score.
+    */
+   public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+   /**
+    * The value returned when a line holds no number.
+    */
+   public static final int NO_NUMBER = -1;
+
+   private static final int    DATE_TIME_LENGTH = 19;
+   private static final String DATE_TIME_SHAPE  = "dddd-dd-dd dd:dd:dd";
+
+   /*
+    * Prevents instantiation of the utility class.
+    */
+   private ScoreTextScanner()
+   {
+   }
+
+   /**
+    * Parses the first sequence of digits of a line.
+    *
+    * @param line the line to scan
+    * @return the number, or {@link #NO_NUMBER} if the line holds no digit
+    * @throws NumberFormatException if the number does not fit in an int
+    */
+   public static int parseInt(final CharSequence line)
+   {
+      return parseInt(line, 0, line.length());
+   }
+
+   /**
+    * Parses the first sequence of digits between two positions of a text.
+    *
+    * @param text the text to scan
+    * @param start the first position scanned
+    * @param end the position after the last one scanned
+    * @return the number, or {@link #NO_NUMBER} if the range holds no digit
+    * @throws NumberFormatException if the number does not fit in an int
+    */
+   public static int parseInt(final CharSequence text, final int start, final int end)
+   {
+      int i;
+      long value;
+
+      i = start;
+
+      while(i < end && !isDigit(text.charAt(i)))
+      {
+         i++;
+      }
+
+      if(i == end)
+      {
+         return NO_NUMBER;
+      }
+
+      value = 0;
+
+      while(i < end && isDigit(text.charAt(i)))
+      {
+         value = value * 10 + (text.charAt(i) - '0');
+
+         if(value > Integer.MAX_VALUE)
+         {
+            throw new NumberFormatException("Number too large: " + text.subSequence(start, end));
+         }
+
+         i++;
+      }
+
+      return (int) value;
+   }
+
+   /**
+    * Parses the first date and time of a line.
+    *
+    * @param line the line to scan
+    * @return the date and time, or null if the line holds none
+    * @throws java.time.DateTimeException if the date and time is out of range
+    */
+   public static LocalDateTime parseDateTime(final CharSequence line)
+   {
+      return parseDateTime(line, 0, line.length());
+   }
+
+   /**
+    * Parses the first date and time between two positions of a text.
+    *
+    * @param text the text to scan
+    * @param start the first position scanned
+    * @param end the position after the last one scanned
+    * @return the date and time, or null if the range holds none
+    * @throws java.time.DateTimeException if the date and time is out of range
+    */
+   public static LocalDateTime parseDateTime(final CharSequence text, final int start, final int end)
+   {
+      for(int i = start; i + DATE_TIME_LENGTH <= end; i++)
+      {
+         if(isDateTimeAt(text, i))
+         {
+            return LocalDateTime.of(digits(text, i, 4),
+                                    digits(text, i + 5, 2),
+                                    digits(text, i + 8, 2),
+                                    digits(text, i + 11, 2),
+                                    digits(text, i + 14, 2),
+                                    digits(text, i + 17, 2));
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Checks whether a label occurs between two positions of a text.
+    *
+    * @param text the text to scan
+    * @param start the first position scanned
+    * @param end the position after the last one scanned
+    * @param label the label to look for
+    * @return true if the label occurs in the range
+    */
+   public static boolean contains(final CharSequence text, final int start, final int end, final String label)
+   {
+      final int last;
+
+      last = end - label.length();
+
+      for(int i = start; i <= last; i++)
+      {
+         int matched;
+
+         matched = 0;
+
+         while(matched < label.length() && text.charAt(i + matched) == label.charAt(matched))
+         {
+            matched++;
+         }
+
+         if(matched == label.length())
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /*
+    * Checks whether the characters at a position have the shape of a date and time.
+    *
+    * @param text the text to check
+    * @param position the first position
+    * @return true if the shape matches
+    */
+   private static boolean isDateTimeAt(final CharSequence text, final int position)
+   {
+      for(int i = 0; i < DATE_TIME_LENGTH; i++)
+      {
+         final char expected;
+         final char actual;
+
+         expected = DATE_TIME_SHAPE.charAt(i);
+         actual = text.charAt(position + i);
+
+         if(expected == 'd' ? !isDigit(actual) : actual != expected)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /*
+    * Reads a fixed number of digits as a number.
+    *
+    * @param text the text to read
+    * @param position the first digit
+    * @param count the number of digits
+    * @return the number
+    */
+   private static int digits(final CharSequence text, final int position, final int count)
+   {
+      int value;
+
+      value = 0;
+
+      for(int i = position; i < position + count; i++)
+      {
+         value = value * 10 + (text.charAt(i) - '0');
+      }
+
+      return value;
+   }
+
+   /*
+    * Checks whether a character is an ASCII digit.
+    *
+    * @param c the character
+    * @return true if the character is between '0' and '9'
+    */
+   private static boolean isDigit(final char c)
+   {
+      return c >= '0' && c <= '9';
+   }
+}
@@ -6,7 +6,12 @@ package ca.bcit.comp2522.project.wordgame;
  * the name of the country, the capital city, and a list of facts about the country.
  * <p>
  *    This class ensures that the name and capital city are validated to ensure
- *    they are not empty or blank. The facts are stored in a fixed-length array.
+ *    they are not empty or blank. A country usually has {@link #DEFAULT_LENGTH}
+ *    facts, but any number of facts is supported.
+ * </p>
+ * <p>
+ *    A {@code Country} is a lightweight view of one record in a {@link CountryStore};
+ *    its strings live in the store's shared arena and are decoded on access.
  * </p>
  *
  * @author Linh Hoang
@@ -16,9 +21,8 @@ public class Country
 {
    public static final int DEFAULT_LENGTH = 3;
 
-   private final String name;
-   private final String capitalCityName;
-   private final String[] facts;
+   private final CountryStore store;
+   private final int index;
 
    /**
     * Constructs a new {@code Country} object with the specified name, capital city,
@@ -40,17 +44,47 @@ public class Country
                   final String fact1,
                   final String fact2,
                   final String fact3)
+   {
+      this(name, capitalCityName, new String[] {fact1, fact2, fact3});
+   }
+
+   /**
+    * Constructs a new {@code Country} object with the specified name, capital city,
+    * and any number of facts associated with the country.
+    *
+    * @param name The name of the country.
+    * @param capitalCityName The name of the capital city of the country.
+    * @param facts The facts about the country.
+    * @throws IllegalArgumentException If the name or capital city name is null or blank,
+    *                                  or if the facts array is null.
+    */
+   public Country(final String name,
+                  final String capitalCityName,
+                  final String[] facts)
    {
       validateName(name);
       validateName(capitalCityName);
 
-      this.name = name;
-      this.capitalCityName = capitalCityName;
-      facts = new String[DEFAULT_LENGTH];
+      if(facts == null)
+      {
+         throw new IllegalArgumentException("Facts must not be null!");
+      }
+
+      store = new CountryStore();
+      index = store.add(name, capitalCityName, facts);
+      store.compact();
+   }
 
-      facts[0] = fact1;    // TEMPORARY
-      facts[1] = fact2;
-      facts[2] = fact3;
+   /*
+    * Constructs a view of a record in a shared store.
+    *
+    * @param store the store holding the country
+    * @param index the record index of the country in the store
+    */
+   Country(final CountryStore store, final int index)
+   {
+      this.store = store;
+      this.index = index;
    }
 
    /**
@@ -60,7 +94,7 @@ public class Country
     */
    public String getName()
    {
-      return name;
+      return store.name(index);
    }
 
    /**
@@ -70,7 +104,7 @@ public class Country
     */
    public String getCapitalCityName()
    {
-      return capitalCityName;
+      return store.capital(index);
    }
 
    /**
@@ -80,9 +114,65 @@ public class Country
     */
    public String[] getFacts()
    {
+      final String[] facts;
+
+      facts = new String[store.factCount(index)];
+
+      for(int i = 0; i < facts.length; i++)
+      {
+         facts[i] = store.fact(index, i);
+      }
+
       return facts;
    }
 
+   /**
+    * Returns the number of facts associated with the country.
+    *
+    * @return The number of facts.
+    */
+   public int getFactCount()
+   {
+      return store.factCount(index);
+   }
+
+   /**
+    * Returns one fact about the country without copying the others.
+    *
+    * @param fact The index of the fact.
+    * @return The fact.
+    * @throws IndexOutOfBoundsException If there is no fact at the given index.
+    */
+   public String getFact(final int fact)
+   {
+      if(fact < 0 || fact >= getFactCount())
+      {
+         throw new IndexOutOfBoundsException("No fact at index " + fact);
+      }
+
+      return store.fact(index, fact);
+   }
+
+   /*
+    * Returns the record index of this country in its store.
+    *
+    * @return the record index
+    */
+   int getIndex()
+   {
+      return index;
+   }
+
+   /*
+    * Returns the store holding this country.
+    *
+    * @return the store
+    */
+   CountryStore getStore()
+   {
+      return store;
+   }
+
    /**
     * Returns a string representation of the country, including the name, capital city,
     * and the facts associated with the country.
@@ -95,10 +185,10 @@ public class Country
 
       sb = new StringBuilder();
 
-      sb.append(name).append(System.lineSeparator());
-      sb.append(capitalCityName).append(System.lineSeparator());
+      sb.append(getName()).append(System.lineSeparator());
+      sb.append(getCapitalCityName()).append(System.lineSeparator());
 
-      for(final String fact : facts)
+      for(final String fact : getFacts())
       {
          sb.append(fact).append(System.lineSeparator());
       }
@@ -112,7 +202,7 @@ public class Country
     * @param name The name to validate.
     * @throws IllegalArgumentException If the name is null or blank.
     */
-   private static void validateName(final String name)
+   static void validateName(final String name)
    {
       if(name == null || name.isBlank())
       {
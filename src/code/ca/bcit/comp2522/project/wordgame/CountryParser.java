@@ -0,0 +1,181 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CountryParser} class is a single-pass parser for country files.
+ * Lines are fed to it one at a time and every completed {@link Country} is
+ * handed to a consumer as soon as its record ends, so at most one record is
+ * held in memory outside the {@link CountryStore} the countries are added to.
+ * Every country of a parser shares that one store; the owner of the store
+ * compacts it once parsing is done.
+ *
+ * <p>A record starts with a {@code Name:Capital} header line and is followed
+ * by any number of fact lines, which may themselves contain colons. The record
+ * ends at the next blank line or when {@link #finish()} is called. Lines that
+ * appear where a header is expected but are not headers are skipped, so a
+ * missing or extra fact line never shifts the following records.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class CountryParser
+{
+   private static final char SEPARATOR = ':';
+
+   private final CountryStore store;
+   private final Consumer<Country> consumer;
+   private final List<String> facts;
+   private String countryName;
+   private String capital;
+   private boolean inRecord;
+
+   /**
+    * Constructs a new {@code CountryParser} that emits countries to the given consumer.
+    *
+    * @param consumer the consumer receiving each parsed country
+    * @throws IllegalArgumentException if the consumer is null
+    */
+   public CountryParser(final Consumer<Country> consumer)
+   {
+      this(new CountryStore(), consumer);
+   }
+
+   /*
+    * Constructs a parser that adds countries to a shared store and emits
+    * views of them to the given consumer.
+    *
+    * @param store the store the countries are added to
+    * @param consumer the consumer receiving each parsed country
+    * @throws IllegalArgumentException if the store or the consumer is null
+    */
+   CountryParser(final CountryStore store, final Consumer<Country> consumer)
+   {
+      if(store == null || consumer == null)
+      {
+         throw new IllegalArgumentException("Store and consumer must not be null!");
+      }
+
+      this.store = store;
+      this.consumer = consumer;
+      this.facts = new ArrayList<>();
+      this.countryName = null;
+      this.capital = null;
+      this.inRecord = false;
+   }
+
+   /**
+    * Parses every line of a file, emitting countries to the consumer as their
+    * records are completed. The countries share one store, compacted once the
+    * file is parsed.
+    *
+    * @param path the file to parse
+    * @param consumer the consumer receiving each parsed country
+    * @throws IOException if the file cannot be read
+    */
+   public static void parse(final Path path, final Consumer<Country> consumer) throws IOException
+   {
+      final CountryStore store;
+
+      store = new CountryStore();
+      parse(path, store, consumer);
+      store.compact();
+   }
+
+   /*
+    * Parses every line of a file into a shared store, emitting countries to the
+    * consumer as their records are completed. The store is left open, so the
+    * caller can add more files to it before compacting it.
+    *
+    * @param path the file to parse
+    * @param store the store the countries are added to
+    * @param consumer the consumer receiving each parsed country
+    * @throws IOException if the file cannot be read
+    */
+   static void parse(final Path path, final CountryStore store, final Consumer<Country> consumer) throws IOException
+   {
+      final CountryParser parser;
+
+      parser = new CountryParser(store, consumer);
+
+      try(final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+      {
+         String line;
+
+         while((line = reader.readLine()) != null)
+         {
+            parser.accept(line);
+         }
+      }
+
+      parser.finish();
+   }
+
+   /**
+    * Feeds the next line to the parser.
+    *
+    * @param line the line to parse
+    */
+   public void accept(final String line)
+   {
+      final String trimmed;
+      final int separator;
+
+      if(line == null || line.isBlank())
+      {
+         finish();
+         return;
+      }
+
+      trimmed = line.trim();
+
+      if(inRecord)
+      {
+         facts.add(trimmed);
+         return;
+      }
+
+      separator = trimmed.indexOf(SEPARATOR);
+
+      if(separator >= 0)
+      {
+         countryName = trimmed.substring(0, separator).trim();
+         capital = trimmed.substring(separator + 1).trim();
+         inRecord = true;
+      }
+   }
+
+   /**
+    * Completes the current record, if any, and emits it to the consumer.
+    * Records with a blank name or capital are reported and dropped.
+    */
+   public void finish()
+   {
+      if(!inRecord)
+      {
+         return;
+      }
+
+      try
+      {
+         Country.validateName(countryName);
+         Country.validateName(capital);
+         consumer.accept(new Country(store, store.add(countryName, capital, facts.toArray(new String[0]))));
+      } catch(final IllegalArgumentException e)
+      {
+         System.out.println("Skipping invalid country record " + countryName + ", " + e.getMessage());
+      }
+
+      countryName = null;
+      capital = null;
+      inRecord = false;
+      facts.clear();
+   }
+}
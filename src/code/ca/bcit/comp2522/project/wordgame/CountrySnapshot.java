@@ -0,0 +1,404 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code CountrySnapshot} class reads and writes a compact binary image of
+ * a parsed set of {@link Country} objects, so that {@link World} can start from
+ * a single memory-mapped file instead of re-parsing every text file. Its
+ * tables have the same shape as those of a {@link CountryStore}, so reading
+ * a snapshot is a bulk copy rather than a parse.
+ *
+ * <p>The snapshot layout is, in big-endian order:
+ * <ul>
+ *   <li>a header of seven ints: magic, version, country count, string count,
+ *       field count, string data length and the fingerprint of the source
+ *       files it was built from;</li>
+ *   <li>the record offsets ({@code countryCount + 1} ints) into the field table;</li>
+ *   <li>the field table, one string id per field: name, capital, then facts;</li>
+ *   <li>the string offsets ({@code stringCount + 1} ints) into the string data;</li>
+ *   <li>the UTF-8 string data, with every distinct string stored once.</li>
+ * </ul>
+ *
+ * <p>The source fingerprint covers the relative path, size and modification
+ * time of every file under the source directory, so adding, deleting, renaming
+ * or restoring an older copy of a file all make the snapshot stale. Every
+ * offset table is checked when the snapshot is read, so a damaged snapshot is
+ * rejected instead of producing countries that point outside their data.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class CountrySnapshot
+{
+   private static final int MAGIC       = 0x57524C44;  // "WRLD"
+   private static final int VERSION     = 2;
+   private static final int HEADER_INTS = 7;
+   private static final int MIN_FIELDS  = 2;  // name and capital
+
+   private CountrySnapshot()
+   {
+   }
+
+   /**
+    * Checks whether the snapshot has to be rebuilt, which is the case when it
+    * does not exist or cannot be read, or when the files under the source
+    * directory are not the ones it was built from.
+    *
+    * @param snapshotPath the path of the snapshot
+    * @param srcPath the directory containing the country files
+    * @return {@code true} if the snapshot is missing or out of date
+    */
+   public static boolean isStale(final Path snapshotPath, final Path srcPath)
+   {
+      if(Files.notExists(snapshotPath))
+      {
+         return true;
+      }
+
+      if(Files.notExists(srcPath))
+      {
+         return false;
+      }
+
+      try(final FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer header;
+
+         header = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES);
+
+         return channel.read(header, 0) < header.capacity() ||
+                header.getInt(0) != MAGIC ||
+                header.getInt(Integer.BYTES) != VERSION ||
+                header.getInt(6 * Integer.BYTES) != fingerprint(srcPath);
+      } catch(final IOException e)
+      {
+         return true;
+      }
+   }
+
+   /**
+    * Returns the fingerprint of the files under a source directory: a
+    * checksum of the relative path, size and modification time of each.
+    *
+    * @param srcPath the directory containing the country files
+    * @return the fingerprint of the directory
+    * @throws IOException if the directory cannot be listed or a file's attributes cannot be read
+    */
+   public static int fingerprint(final Path srcPath) throws IOException
+   {
+      final CRC32C crc;
+      final ByteBuffer numbers;
+      final List<Path> files;
+
+      crc = new CRC32C();
+      numbers = ByteBuffer.allocate(2 * Long.BYTES);
+
+      try(final Stream<Path> filePath = Files.walk(srcPath))
+      {
+         files = filePath.filter(Files::isRegularFile)
+                         .sorted()
+                         .toList();
+      }
+
+      for(final Path path : files)
+      {
+         crc.update(srcPath.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+         numbers.clear();
+         numbers.putLong(Files.size(path));
+         numbers.putLong(Files.getLastModifiedTime(path).toMillis());
+         numbers.flip();
+         crc.update(numbers);
+      }
+
+      return (int) crc.getValue();
+   }
+
+   /**
+    * Writes the given countries to a snapshot file. The snapshot is written to
+    * a temporary file first and then moved into place, so a reader never sees
+    * a partially written snapshot.
+    *
+    * @param snapshotPath the path of the snapshot
+    * @param sourceFingerprint the {@link #fingerprint} of the source files, taken before they were parsed
+    * @param countryList the countries to store
+    * @throws IOException if the snapshot cannot be written
+    */
+   public static void write(final Path snapshotPath,
+                            final int sourceFingerprint,
+                            final List<Country> countryList) throws IOException
+   {
+      final Map<String, Integer> stringIds;
+      final List<byte[]> strings;
+      final int[] recordOffsets;
+      final List<Integer> fields;
+      final Path tempPath;
+      int dataLength;
+
+      stringIds = new HashMap<>();
+      strings = new ArrayList<>();
+      recordOffsets = new int[countryList.size() + 1];
+      fields = new ArrayList<>();
+      dataLength = 0;
+
+      for(int i = 0; i < countryList.size(); i++)
+      {
+         final Country country;
+
+         country = countryList.get(i);
+         recordOffsets[i] = fields.size();
+
+         dataLength += addField(country.getName(), stringIds, strings, fields);
+         dataLength += addField(country.getCapitalCityName(), stringIds, strings, fields);
+
+         for(final String fact : country.getFacts())
+         {
+            dataLength += addField(fact, stringIds, strings, fields);
+         }
+      }
+
+      recordOffsets[countryList.size()] = fields.size();
+
+      if(snapshotPath.getParent() != null)
+      {
+         Files.createDirectories(snapshotPath.getParent());
+      }
+
+      tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+
+      try(final DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(tempPath))))
+      {
+         int offset;
+
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(countryList.size());
+         out.writeInt(strings.size());
+         out.writeInt(fields.size());
+         out.writeInt(dataLength);
+         out.writeInt(sourceFingerprint);
+
+         for(final int recordOffset : recordOffsets)
+         {
+            out.writeInt(recordOffset);
+         }
+
+         for(final int field : fields)
+         {
+            out.writeInt(field);
+         }
+
+         offset = 0;
+
+         for(final byte[] string : strings)
+         {
+            out.writeInt(offset);
+            offset += string.length;
+         }
+
+         out.writeInt(offset);
+
+         for(final byte[] string : strings)
+         {
+            out.write(string);
+         }
+      }
+
+      Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Reads every country stored in a snapshot file.
+    *
+    * @param snapshotPath the path of the snapshot
+    * @return the countries in the order they were written
+    * @throws IOException if the snapshot cannot be read
+    * @throws IllegalArgumentException if the file is not a valid snapshot
+    */
+   public static List<Country> read(final Path snapshotPath) throws IOException
+   {
+      return World.createViews(readStore(snapshotPath));
+   }
+
+   /**
+    * Reads a snapshot file into a {@link CountryStore}. The file is memory-mapped
+    * and its tables are bulk-copied into the store as they are, so no string is
+    * decoded until it is used.
+    *
+    * @param snapshotPath the path of the snapshot
+    * @return a frozen store holding every country of the snapshot
+    * @throws IOException if the snapshot cannot be read
+    * @throws IllegalArgumentException if the file is not a valid snapshot
+    */
+   static CountryStore readStore(final Path snapshotPath) throws IOException
+   {
+      try(final FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer buffer;
+         final int countryCount;
+         final int stringCount;
+         final int fieldCount;
+         final int dataLength;
+         final int[] recordOffsets;
+         final int[] fields;
+         final int[] stringOffsets;
+         final byte[] data;
+         final int dataStart;
+
+         buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+         if(buffer.limit() < HEADER_INTS * Integer.BYTES ||
+            buffer.getInt(0) != MAGIC ||
+            buffer.getInt(Integer.BYTES) != VERSION)
+         {
+            throw new IllegalArgumentException("Invalid country snapshot!");
+         }
+
+         countryCount = buffer.getInt(2 * Integer.BYTES);
+         stringCount = buffer.getInt(3 * Integer.BYTES);
+         fieldCount = buffer.getInt(4 * Integer.BYTES);
+         dataLength = buffer.getInt(5 * Integer.BYTES);
+
+         if(countryCount < 0 || stringCount < 0 || fieldCount < 0 || dataLength < 0 ||
+            (HEADER_INTS + 2L + countryCount + fieldCount + stringCount) * Integer.BYTES +
+            dataLength != buffer.limit())
+         {
+            throw new IllegalArgumentException("Invalid country snapshot!");
+         }
+
+         recordOffsets = new int[countryCount + 1];
+         fields = new int[fieldCount];
+         stringOffsets = new int[stringCount + 1];
+         data = new byte[dataLength];
+         dataStart = (HEADER_INTS + countryCount + 1 + fieldCount + stringCount + 1) * Integer.BYTES;
+
+         buffer.position(HEADER_INTS * Integer.BYTES);
+         buffer.asIntBuffer().get(recordOffsets);
+         buffer.position(buffer.position() + recordOffsets.length * Integer.BYTES);
+         buffer.asIntBuffer().get(fields);
+         buffer.position(buffer.position() + fields.length * Integer.BYTES);
+         buffer.asIntBuffer().get(stringOffsets);
+         buffer.get(dataStart, data);
+
+         checkOffsets(recordOffsets, fieldCount, MIN_FIELDS);
+         checkOffsets(stringOffsets, dataLength, 0);
+
+         for(final int field : fields)
+         {
+            if(field < 0 || field >= stringCount)
+            {
+               throw new IllegalArgumentException("Invalid country snapshot: string id out of range!");
+            }
+         }
+
+         return new CountryStore(data, stringOffsets, fields, recordOffsets);
+      }
+   }
+
+   /*
+    * Adds a string to the field table, registering it in the string table the
+    * first time it is seen.
+    *
+    * @param value the string to add
+    * @param stringIds the ids of the strings seen so far
+    * @param strings the UTF-8 bytes of the strings seen so far
+    * @param fields the field table
+    * @return the number of data bytes added to the string table
+    */
+   private static int addField(final String value,
+                               final Map<String, Integer> stringIds,
+                               final List<byte[]> strings,
+                               final List<Integer> fields)
+   {
+      final String str;
+      final Integer id;
+
+      str = value == null ? "" : value;
+      id = stringIds.get(str);
+
+      if(id != null)
+      {
+         fields.add(id);
+         return 0;
+      }
+
+      final byte[] bytes;
+
+      bytes = str.getBytes(StandardCharsets.UTF_8);
+      stringIds.put(str, strings.size());
+      fields.add(strings.size());
+      strings.add(bytes);
+
+      return bytes.length;
+   }
+
+   /*
+    * Checks that an offset table starts at zero, ends at the length of the
+    * table it points into, and never steps by less than the given amount.
+    *
+    * @param offsets the offset table
+    * @param end the length of the table the offsets point into
+    * @param minStep the smallest gap between two consecutive offsets
+    */
+   private static void checkOffsets(final int[] offsets, final int end, final int minStep)
+   {
+      if(offsets[0] != 0 || offsets[offsets.length - 1] != end)
+      {
+         throw new IllegalArgumentException("Invalid country snapshot: offset table does not span its data!");
+      }
+
+      for(int i = 1; i < offsets.length; i++)
+      {
+         if((long) offsets[i] - offsets[i - 1] < minStep)
+         {
+            throw new IllegalArgumentException("Invalid country snapshot: offsets out of order!");
+         }
+      }
+   }
+
+   /**
+    * Builds the snapshot ahead of time, so the first game start is as fast as
+    * the following ones.
+    *
+    * @param args optional source directory and snapshot path
+    */
+   public static void main(final String[] args)
+   {
+      final Path srcPath;
+      final Path snapshotPath;
+
+      srcPath = args.length > 0 ? Paths.get(args[0]) : Paths.get("src", "resources");
+      snapshotPath = args.length > 1 ? Paths.get(args[1]) : Paths.get("src", "output", "world.snapshot");
+
+      try
+      {
+         final int sourceFingerprint;
+         final List<Country> countryList;
+
+         sourceFingerprint = fingerprint(srcPath);
+         countryList = World.createViews(World.loadTextFiles(srcPath));
+         write(snapshotPath, sourceFingerprint, countryList);
+         System.out.println("Wrote " + countryList.size() + " countries to " + snapshotPath);
+      } catch(final IOException e)
+      {
+         System.out.println("Error writing snapshot " + snapshotPath.getFileName() + ", " + e.getMessage());
+      }
+   }
+}
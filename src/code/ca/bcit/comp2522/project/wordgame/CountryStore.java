@@ -0,0 +1,266 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code CountryStore} class packs the names, capitals and facts of many
+ * countries into a single UTF-8 byte arena. Every distinct string is stored
+ * once and addressed by an integer id, and every country is a run of string
+ * ids in a shared field table, so a {@link Country} only needs a reference to
+ * its store and its record index.
+ *
+ * <p>A store is filled with {@link #add(String, String, String[])} and then
+ * frozen with {@link #compact()}, which trims the arrays and drops the lookup
+ * table used to deduplicate strings. A frozen store is immutable and can be
+ * read from any number of threads.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+final class CountryStore
+{
+   static final int NAME_FIELD    = 0;
+   static final int CAPITAL_FIELD = 1;
+   static final int FIRST_FACT    = 2;
+
+   private static final int INITIAL_CAPACITY = 16;
+
+   private byte[] data;
+   private int dataLength;
+   private int[] stringOffsets;
+   private int stringCount;
+   private int[] fields;
+   private int fieldCount;
+   private int[] recordOffsets;
+   private int recordCount;
+   private Map<String, Integer> stringIds;
+
+   /**
+    * Constructs an empty store ready to be filled.
+    */
+   CountryStore()
+   {
+      data = new byte[INITIAL_CAPACITY];
+      stringOffsets = new int[INITIAL_CAPACITY + 1];
+      fields = new int[INITIAL_CAPACITY];
+      recordOffsets = new int[INITIAL_CAPACITY + 1];
+      stringIds = new HashMap<>();
+   }
+
+   /**
+    * Constructs a frozen store over tables that were already built, such as the
+    * ones read from a {@link CountrySnapshot}.
+    *
+    * @param data the UTF-8 string data
+    * @param stringOffsets the start of each string in the data, plus the end
+    * @param fields the string id of every field
+    * @param recordOffsets the first field of each record, plus the end
+    */
+   CountryStore(final byte[] data,
+                final int[] stringOffsets,
+                final int[] fields,
+                final int[] recordOffsets)
+   {
+      this.data = data;
+      this.dataLength = data.length;
+      this.stringOffsets = stringOffsets;
+      this.stringCount = stringOffsets.length - 1;
+      this.fields = fields;
+      this.fieldCount = fields.length;
+      this.recordOffsets = recordOffsets;
+      this.recordCount = recordOffsets.length - 1;
+      this.stringIds = null;
+   }
+
+   /**
+    * Appends a country to the store.
+    *
+    * @param name the name of the country
+    * @param capitalCityName the name of the capital city
+    * @param facts the facts about the country
+    * @return the record index of the country
+    * @throws IllegalStateException if the store has been compacted
+    */
+   int add(final String name, final String capitalCityName, final String[] facts)
+   {
+      if(stringIds == null)
+      {
+         throw new IllegalStateException("Store is already compacted!");
+      }
+
+      if(recordCount + 1 >= recordOffsets.length)
+      {
+         recordOffsets = Arrays.copyOf(recordOffsets, recordOffsets.length * 2);
+      }
+
+      recordOffsets[recordCount] = fieldCount;
+
+      addField(name);
+      addField(capitalCityName);
+
+      for(final String fact : facts)
+      {
+         addField(fact);
+      }
+
+      recordOffsets[recordCount + 1] = fieldCount;
+
+      return recordCount++;
+   }
+
+   /**
+    * Freezes the store: trims every table to its size and releases the lookup
+    * table used to deduplicate strings.
+    */
+   void compact()
+   {
+      data = Arrays.copyOf(data, dataLength);
+      stringOffsets = Arrays.copyOf(stringOffsets, stringCount + 1);
+      fields = Arrays.copyOf(fields, fieldCount);
+      recordOffsets = Arrays.copyOf(recordOffsets, recordCount + 1);
+      stringIds = null;
+   }
+
+   /**
+    * Returns the number of countries in the store.
+    *
+    * @return the number of records
+    */
+   int size()
+   {
+      return recordCount;
+   }
+
+   /**
+    * Returns the name of a country.
+    *
+    * @param index the record index
+    * @return the name of the country
+    */
+   String name(final int index)
+   {
+      return field(index, NAME_FIELD);
+   }
+
+   /**
+    * Returns the capital city of a country.
+    *
+    * @param index the record index
+    * @return the name of the capital city
+    */
+   String capital(final int index)
+   {
+      return field(index, CAPITAL_FIELD);
+   }
+
+   /**
+    * Returns the number of facts of a country.
+    *
+    * @param index the record index
+    * @return the number of facts
+    */
+   int factCount(final int index)
+   {
+      return recordOffsets[index + 1] - recordOffsets[index] - FIRST_FACT;
+   }
+
+   /**
+    * Returns one fact of a country.
+    *
+    * @param index the record index
+    * @param fact the index of the fact
+    * @return the fact
+    */
+   String fact(final int index, final int fact)
+   {
+      return field(index, FIRST_FACT + fact);
+   }
+
+   /**
+    * Returns the string id of a field of a country.
+    *
+    * @param index the record index
+    * @param field the field within the record
+    * @return the string id
+    */
+   int stringId(final int index, final int field)
+   {
+      return fields[recordOffsets[index] + field];
+   }
+
+   /**
+    * Decodes a string of the arena.
+    *
+    * @param id the string id
+    * @return the decoded string
+    */
+   String string(final int id)
+   {
+      final int start;
+
+      start = stringOffsets[id];
+
+      return new String(data, start, stringOffsets[id + 1] - start, StandardCharsets.UTF_8);
+   }
+
+   /*
+    * Decodes a field of a country.
+    *
+    * @param index the record index
+    * @param field the field within the record
+    * @return the decoded field
+    */
+   private String field(final int index, final int field)
+   {
+      return string(stringId(index, field));
+   }
+
+   /*
+    * Appends a field, adding its string to the arena if it has not been seen.
+    *
+    * @param value the field value, where null is stored as an empty string
+    */
+   private void addField(final String value)
+   {
+      final String str;
+      Integer id;
+
+      str = value == null ? "" : value;
+      id = stringIds.get(str);
+
+      if(id == null)
+      {
+         final byte[] bytes;
+
+         bytes = str.getBytes(StandardCharsets.UTF_8);
+
+         if(dataLength + bytes.length > data.length)
+         {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + bytes.length));
+         }
+
+         if(stringCount + 1 >= stringOffsets.length)
+         {
+            stringOffsets = Arrays.copyOf(stringOffsets, stringOffsets.length * 2);
+         }
+
+         System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+         stringOffsets[stringCount] = dataLength;
+         dataLength += bytes.length;
+         stringOffsets[stringCount + 1] = dataLength;
+
+         id = stringCount++;
+         stringIds.put(str, id);
+      }
+
+      if(fieldCount == fields.length)
+      {
+         fields = Arrays.copyOf(fields, fields.length * 2);
+      }
+
+      fields[fieldCount++] = id;
+   }
+}
@@ -0,0 +1,415 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code FuzzyMatcher} class accepts answers that are close to, but not
+ * exactly, a country or capital name, such as "Phillipines" or "Bogota". Names
+ * are normalized (accents removed, case folded, punctuation collapsed) and
+ * compared with a bounded Damerau-Levenshtein distance.
+ *
+ * <p>To avoid comparing an answer with every name, a trigram index over all
+ * normalized names is built once from a {@link World}. Only names found in the
+ * rarest posting lists of the answer's trigrams, which any name within the
+ * tolerance must appear in, are compared.
+ * An answer is accepted when the expected country is among the closest
+ * matches, so "Niger" is not accepted for "Nigeria" just because it is close.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class FuzzyMatcher
+{
+   public static final int DEFAULT_MAX_DISTANCE = 2;
+
+   private static final int     NAME_KIND          = 0;
+   private static final int     CAPITAL_KIND       = 1;
+   private static final int     KINDS              = 2;
+   private static final int     GRAM_SIZE          = 3;
+   private static final int     MAX_GRAMS_PER_EDIT = 4;
+   private static final int     CHARS_PER_EDIT     = 4;
+   private static final int     CHAR_BITS          = 16;
+   private static final char    PADDING            = '\0';
+   private static final int[]   NO_POSTINGS        = new int[0];
+   private static final Pattern MARKS              = Pattern.compile("\\p{M}+");
+   private static final Pattern SEPARATORS         = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+   private final int maxDistance;
+   private final String[][] normalized;
+   private final List<Set<String>> exactNames;
+   private final List<Map<Long, int[]>> trigramIndex;
+   private final ThreadLocal<boolean[]> scratchVisited;
+   private final ThreadLocal<int[]> scratchTouched;
+
+   /**
+    * Constructs a matcher over every country and capital name of the given
+    * world, with the default tolerance.
+    *
+    * @param world the world to index
+    */
+   public FuzzyMatcher(final World world)
+   {
+      this(world, DEFAULT_MAX_DISTANCE);
+   }
+
+   /**
+    * Constructs a matcher over every country and capital name of the given world.
+    *
+    * @param world the world to index
+    * @param maxDistance the maximum number of edits accepted in an answer
+    * @throws IllegalArgumentException if the world is null or maxDistance is negative
+    */
+   public FuzzyMatcher(final World world, final int maxDistance)
+   {
+      if(world == null)
+      {
+         throw new IllegalArgumentException("World must not be null!");
+      }
+
+      if(maxDistance < 0)
+      {
+         throw new IllegalArgumentException("Maximum distance must not be negative!");
+      }
+
+      final int size;
+
+      size = world.size();
+
+      this.maxDistance = maxDistance;
+      this.normalized = new String[KINDS][size];
+      this.exactNames = new ArrayList<>(KINDS);
+      this.trigramIndex = new ArrayList<>(KINDS);
+      this.scratchVisited = ThreadLocal.withInitial(() -> new boolean[size]);
+      this.scratchTouched = ThreadLocal.withInitial(() -> new int[size]);
+
+      for(int i = 0; i < size; i++)
+      {
+         normalized[NAME_KIND][i] = normalize(world.getCountry(i).getName());
+         normalized[CAPITAL_KIND][i] = normalize(world.getCountry(i).getCapitalCityName());
+      }
+
+      for(int kind = 0; kind < KINDS; kind++)
+      {
+         exactNames.add(new HashSet<>(Arrays.asList(normalized[kind])));
+         trigramIndex.add(buildIndex(normalized[kind]));
+      }
+   }
+
+   /**
+    * Checks whether an answer names the given country, allowing small typos.
+    *
+    * @param country the expected country
+    * @param answer the player's answer
+    * @return {@code true} if the country is among the closest names within tolerance
+    */
+   public boolean matchesName(final Country country, final String answer)
+   {
+      return matches(NAME_KIND, country, answer);
+   }
+
+   /**
+    * Checks whether an answer names the capital city of the given country,
+    * allowing small typos.
+    *
+    * @param country the expected country
+    * @param answer the player's answer
+    * @return {@code true} if the capital is among the closest names within tolerance
+    */
+   public boolean matchesCapital(final Country country, final String answer)
+   {
+      return matches(CAPITAL_KIND, country, answer);
+   }
+
+   /**
+    * Normalizes a name for comparison: accents are removed, the text is
+    * lower-cased, and every run of characters that are not letters or digits
+    * becomes a single space.
+    *
+    * @param str the string to normalize
+    * @return the normalized string
+    */
+   public static String normalize(final String str)
+   {
+      final String decomposed;
+      final String folded;
+
+      decomposed = Normalizer.normalize(str, Normalizer.Form.NFD);
+      folded = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+
+      return SEPARATORS.matcher(folded).replaceAll(" ").trim();
+   }
+
+   /**
+    * Computes the Damerau-Levenshtein distance (optimal string alignment) of two
+    * strings, giving up as soon as it is known to exceed the bound.
+    *
+    * @param a the first string
+    * @param b the second string
+    * @param bound the largest distance of interest
+    * @return the distance, or {@code bound + 1} if it is larger than the bound
+    */
+   public static int distance(final String a, final String b, final int bound)
+   {
+      final int lengthA;
+      final int lengthB;
+      int[] previousRow;
+      int[] row;
+      int[] nextRow;
+
+      lengthA = a.length();
+      lengthB = b.length();
+
+      if(Math.abs(lengthA - lengthB) > bound)
+      {
+         return bound + 1;
+      }
+
+      previousRow = new int[lengthB + 1];
+      row = new int[lengthB + 1];
+      nextRow = new int[lengthB + 1];
+
+      for(int j = 0; j <= lengthB; j++)
+      {
+         row[j] = j;
+      }
+
+      for(int i = 1; i <= lengthA; i++)
+      {
+         final int[] recycled;
+         int rowMin;
+
+         nextRow[0] = i;
+         rowMin = i;
+
+         for(int j = 1; j <= lengthB; j++)
+         {
+            final int cost;
+            int value;
+
+            cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+            value = Math.min(Math.min(row[j] + 1, nextRow[j - 1] + 1), row[j - 1] + cost);
+
+            if(i > 1 && j > 1 &&
+               a.charAt(i - 1) == b.charAt(j - 2) &&
+               a.charAt(i - 2) == b.charAt(j - 1))
+            {
+               value = Math.min(value, previousRow[j - 2] + 1);
+            }
+
+            nextRow[j] = value;
+            rowMin = Math.min(rowMin, value);
+         }
+
+         if(rowMin > bound)
+         {
+            return bound + 1;
+         }
+
+         recycled = previousRow;
+         previousRow = row;
+         row = nextRow;
+         nextRow = recycled;
+      }
+
+      return Math.min(row[lengthB], bound + 1);
+   }
+
+   /*
+    * Checks whether the expected country is among the closest names of a kind.
+    *
+    * @param kind the kind of name, country or capital
+    * @param country the expected country
+    * @param answer the player's answer
+    * @return true if the expected name is a closest match within tolerance
+    */
+   private boolean matches(final int kind, final Country country, final String answer)
+   {
+      final String query;
+      final String expected;
+      final int bound;
+      final int expectedDistance;
+
+      if(country == null || answer == null || country.getIndex() >= normalized[kind].length)
+      {
+         return false;
+      }
+
+      query = normalize(answer);
+      expected = normalized[kind][country.getIndex()];
+
+      if(query.equals(expected))
+      {
+         return true;
+      }
+
+      bound = Math.min(maxDistance, expected.length() / CHARS_PER_EDIT);
+      expectedDistance = distance(query, expected, bound);
+
+      if(expectedDistance > bound)
+      {
+         return false;
+      }
+
+      // Reject the answer if another name of the same kind is strictly closer
+      return closestDistance(kind, query, expectedDistance - 1) >= expectedDistance;
+   }
+
+   /*
+    * Finds the smallest distance between the query and any indexed name of a
+    * kind. A name within the bound shares all but at most four trigrams per
+    * edit with the query, so it must appear in at least one of the rarest
+    * (grams - threshold + 1) posting lists; only those names are compared.
+    *
+    * @param kind the kind of name, country or capital
+    * @param query the normalized query
+    * @param bound the largest distance of interest
+    * @return the smallest distance found, or bound + 1 if none is within the bound
+    */
+   private int closestDistance(final int kind, final String query, final int bound)
+   {
+      final Set<Long> grams;
+      final int threshold;
+      final int[][] postings;
+      final boolean[] visited;
+      final int[] touched;
+      int touchedCount;
+      int best;
+      int listIndex;
+
+      if(bound < 0)
+      {
+         return bound + 1;
+      }
+
+      if(bound == 0)
+      {
+         return exactNames.get(kind).contains(query) ? 0 : 1;
+      }
+
+      grams = trigrams(query);
+      threshold = grams.size() - MAX_GRAMS_PER_EDIT * bound;
+      best = bound + 1;
+
+      if(threshold <= 0)
+      {
+         // Too short to filter by trigrams, compare with every name
+         for(final String candidate : normalized[kind])
+         {
+            best = Math.min(best, distance(query, candidate, best));
+         }
+
+         return best;
+      }
+
+      postings = new int[grams.size()][];
+      listIndex = 0;
+
+      for(final Long gram : grams)
+      {
+         postings[listIndex++] = trigramIndex.get(kind).getOrDefault(gram, NO_POSTINGS);
+      }
+
+      Arrays.sort(postings, Comparator.comparingInt(list -> list.length));
+
+      visited = scratchVisited.get();
+      touched = scratchTouched.get();
+      touchedCount = 0;
+
+      for(int i = 0; i < grams.size() - threshold + 1; i++)
+      {
+         for(final int entry : postings[i])
+         {
+            if(!visited[entry])
+            {
+               visited[entry] = true;
+               touched[touchedCount++] = entry;
+               best = Math.min(best, distance(query, normalized[kind][entry], best));
+            }
+         }
+      }
+
+      for(int i = 0; i < touchedCount; i++)
+      {
+         visited[touched[i]] = false;
+      }
+
+      return best;
+   }
+
+   /*
+    * Builds the trigram index of one kind of name.
+    *
+    * @param names the normalized names, indexed by country
+    * @return the index from trigram to the countries containing it
+    */
+   private static Map<Long, int[]> buildIndex(final String[] names)
+   {
+      final Map<Long, List<Integer>> postings;
+      final Map<Long, int[]> index;
+
+      postings = new HashMap<>();
+      index = new HashMap<>();
+
+      for(int i = 0; i < names.length; i++)
+      {
+         for(final Long gram : trigrams(names[i]))
+         {
+            postings.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+         }
+      }
+
+      postings.forEach((gram, entries) -> index.put(gram, entries.stream()
+                                                                 .mapToInt(Integer::intValue)
+                                                                 .toArray()));
+
+      return index;
+   }
+
+   /*
+    * Returns the distinct trigrams of a string padded at both ends, each packed
+    * into a long.
+    *
+    * @param str the normalized string
+    * @return the distinct packed trigrams
+    */
+   private static Set<Long> trigrams(final String str)
+   {
+      final Set<Long> grams;
+      final int paddedLength;
+
+      grams = new LinkedHashSet<>();
+      paddedLength = str.length() + 2 * (GRAM_SIZE - 1);
+
+      for(int i = 0; i + GRAM_SIZE <= paddedLength; i++)
+      {
+         long gram;
+
+         gram = 0;
+
+         for(int j = i; j < i + GRAM_SIZE; j++)
+         {
+            final int position;
+            final char c;
+
+            position = j - (GRAM_SIZE - 1);
+            c = position >= 0 && position < str.length() ? str.charAt(position) : PADDING;
+            gram = (gram << CHAR_BITS) | c;
+         }
+
+         grams.add(gram);
+      }
+
+      return grams;
+   }
+}
@@ -0,0 +1,233 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * The {@code LazyWorld} class is an on-demand variant of {@link World}. The
+ * country files are sharded by the first letter of their file name; at startup
+ * only an index of those shard files is built, and a shard is parsed the first
+ * time a country starting with its letter is requested.
+ *
+ * <p>At most {@code maxResidentShards} shards are kept in memory. When another
+ * shard has to be loaded, the least recently used one is evicted and will be
+ * parsed again if it is needed later.
+ *
+ * <p>A shard is parsed outside the lock of the resident shards, so lookups in
+ * resident shards never wait for a cold one; callers asking for a shard that
+ * is being loaded wait for that one load instead of starting their own.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class LazyWorld
+{
+   public static final int DEFAULT_RESIDENT_SHARDS = 8;
+
+   private static final float LOAD_FACTOR = 0.75f;
+
+   private final Map<Character, List<Path>> shardIndex;
+   private final Map<Character, CompletableFuture<Map<String, Country>>> residentShards;
+   private final int maxResidentShards;
+
+   /**
+    * Constructs a {@code LazyWorld} over the "src/resources" directory with the
+    * default number of resident shards.
+    */
+   public LazyWorld()
+   {
+      this(Paths.get("src", "resources"), DEFAULT_RESIDENT_SHARDS);
+   }
+
+   /**
+    * Constructs a {@code LazyWorld} by indexing the shard files under the given
+    * directory. No country is parsed until it is requested.
+    *
+    * @param srcPath the directory containing the country files
+    * @param maxResidentShards the maximum number of shards kept in memory
+    * @throws IllegalArgumentException if maxResidentShards is lower than 1
+    */
+   public LazyWorld(final Path srcPath, final int maxResidentShards)
+   {
+      if(maxResidentShards < 1)
+      {
+         throw new IllegalArgumentException("At least one shard must stay resident!");
+      }
+
+      this.maxResidentShards = maxResidentShards;
+      this.shardIndex = new TreeMap<>();
+      this.residentShards = new LinkedHashMap<>(maxResidentShards, LOAD_FACTOR, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(final Map.Entry<Character, CompletableFuture<Map<String, Country>>> eldest)
+         {
+            return size() > LazyWorld.this.maxResidentShards;
+         }
+      };
+
+      try(final Stream<Path> filePath = Files.walk(srcPath))
+      {
+         filePath.filter(Files::isRegularFile)
+                 .sorted()
+                 .forEach(path -> shardIndex.computeIfAbsent(shardKey(path.getFileName().toString()),
+                                                             key -> new ArrayList<>())
+                                            .add(path));
+      } catch(final IOException e)
+      {
+         System.out.println("File not found! " + e.getMessage());
+      }
+   }
+
+   /**
+    * Looks up a country by name, loading its shard if it is not resident.
+    *
+    * @param name the name of the country
+    * @return the country, or {@code empty} if no such country exists
+    */
+   public Optional<Country> getCountry(final String name)
+   {
+      if(name == null || name.isBlank())
+      {
+         return Optional.empty();
+      }
+
+      return Optional.ofNullable(getShard(shardKey(name.trim())).get(name.trim()));
+   }
+
+   /**
+    * Returns every country of the shard for the given letter, loading the
+    * shard if it is not resident. A letter without a shard has no countries,
+    * and takes no room among the resident shards.
+    *
+    * @param letter the first letter of the shard
+    * @return the countries of the shard, keyed by name
+    */
+   public Map<String, Country> getShard(final char letter)
+   {
+      final List<Path> files;
+      final char key;
+      final CompletableFuture<Map<String, Country>> shard;
+      final boolean isLoader;
+
+      key = Character.toLowerCase(letter);
+      files = shardIndex.get(key);
+
+      if(files == null)
+      {
+         return Map.of();
+      }
+
+      synchronized(residentShards)
+      {
+         final CompletableFuture<Map<String, Country>> resident;
+
+         resident = residentShards.get(key);
+         isLoader = resident == null;
+         shard = isLoader ? new CompletableFuture<>() : resident;
+
+         if(isLoader)
+         {
+            residentShards.put(key, shard);
+         }
+      }
+
+      if(isLoader)
+      {
+         try
+         {
+            shard.complete(loadShard(files));
+         } catch(final RuntimeException e)
+         {
+            // Forget the failed load, so the next lookup tries again
+            synchronized(residentShards)
+            {
+               residentShards.remove(key, shard);
+            }
+
+            shard.completeExceptionally(e);
+            throw e;
+         }
+      }
+
+      return shard.join();
+   }
+
+   /**
+    * Returns the letters of every indexed shard.
+    *
+    * @return the shard letters in ascending order
+    */
+   public Set<Character> getShardLetters()
+   {
+      return Collections.unmodifiableSet(shardIndex.keySet());
+   }
+
+   /**
+    * Returns how many shards are currently held in memory.
+    *
+    * @return the number of resident shards
+    */
+   public int getResidentShardCount()
+   {
+      synchronized(residentShards)
+      {
+         return residentShards.size();
+      }
+   }
+
+   /*
+    * Parses the files of a shard into an unmodifiable map keyed by country name.
+    * The countries of the shard share one store, compacted before the map is
+    * returned.
+    *
+    * @param files the files of the shard
+    * @return the countries of the shard
+    */
+   private static Map<String, Country> loadShard(final List<Path> files)
+   {
+      final Map<String, Country> shard;
+      final CountryStore store;
+
+      shard = new HashMap<>();
+      store = new CountryStore();
+
+      for(final Path path : files)
+      {
+         try
+         {
+            CountryParser.parse(path, store, country -> shard.put(country.getName(), country));
+         } catch(final IOException e)
+         {
+            System.out.println("Error reading file " + path.getFileName() + ", " + e.getMessage());
+         }
+      }
+
+      store.compact();
+
+      return Collections.unmodifiableMap(shard);
+   }
+
+   /*
+    * Returns the shard key of a file or country name, its lower-cased first letter.
+    *
+    * @param name the file or country name
+    * @return the shard key
+    */
+   private static char shardKey(final String name)
+   {
+      return Character.toLowerCase(name.charAt(0));
+   }
+}
@@ -0,0 +1,224 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code Question} class represents one round of the word game: a country,
+ * the type of question asked about it, and for fact questions the fact shown.
+ * It builds the prompt shown to the player and checks answers, so the
+ * interactive game and the batch grader ask and grade questions the same way.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class Question
+{
+   public static final int NO_FACT = -1;
+
+   private final Country country;
+   private final int option;
+   private final int factIndex;
+   private final String prompt;
+
+   /**
+    * Constructs a new {@code Question}.
+    *
+    * @param country the country the question is about
+    * @param option the type of question, one of the {@link WordGame} options
+    * @param factIndex the fact shown for a fact question, or {@link #NO_FACT}
+    * @throws IllegalArgumentException if the country is null, the option is unknown,
+    *                                  or the fact index does not match the option
+    */
+   public Question(final Country country, final int option, final int factIndex)
+   {
+      this(country, option, factIndex, null);
+   }
+
+   /*
+    * Constructs a question whose prompt was already built, such as one served
+    * from a {@link QuestionBank}.
+    *
+    * @param country the country the question is about
+    * @param option the type of question
+    * @param factIndex the fact shown for a fact question, or NO_FACT
+    * @param prompt the prebuilt prompt, or null to build it on demand
+    */
+   Question(final Country country, final int option, final int factIndex, final String prompt)
+   {
+      if(country == null)
+      {
+         throw new IllegalArgumentException("Country must not be null!");
+      }
+
+      if(option < WordGame.OPTION_A || option > WordGame.OPTION_C)
+      {
+         throw new IllegalArgumentException("Invalid option! " + option);
+      }
+
+      if(option == WordGame.OPTION_C && (factIndex < 0 || factIndex >= country.getFactCount()))
+      {
+         throw new IllegalArgumentException("Invalid fact index! " + factIndex);
+      }
+
+      this.country = country;
+      this.option = option;
+      this.factIndex = option == WordGame.OPTION_C ? factIndex : NO_FACT;
+      this.prompt = prompt;
+   }
+
+   /**
+    * Picks a random question: a random option, a random country and, for a fact
+    * question, a random fact.
+    *
+    * @param world the world to pick the country from
+    * @param random the random generator to draw from
+    * @return a random question
+    */
+   public static Question random(final World world, final RandomGenerator random)
+   {
+      final int option;
+
+      option = random.nextInt(WordGame.OPTION_A, WordGame.OPTION_C + 1);
+
+      return withOption(world.randomCountry(random), option, random);
+   }
+
+   /**
+    * Picks a random question about the given country: a random option and, for
+    * a fact question, a random fact.
+    *
+    * @param country the country to ask about
+    * @param random the random generator to draw from
+    * @return a random question about the country
+    */
+   public static Question about(final Country country, final RandomGenerator random)
+   {
+      return withOption(country, random.nextInt(WordGame.OPTION_A, WordGame.OPTION_C + 1), random);
+   }
+
+   /**
+    * Rebuilds the question identified by a seed. The same seed always yields the
+    * same question for the same world, which lets recorded sessions be replayed.
+    *
+    * @param world the world to pick the country from
+    * @param seed the seed of the question
+    * @return the question for the seed
+    */
+   public static Question fromSeed(final World world, final long seed)
+   {
+      return random(world, new SplittableRandom(seed));
+   }
+
+   /**
+    * Returns the country the question is about.
+    *
+    * @return the country
+    */
+   public Country getCountry()
+   {
+      return country;
+   }
+
+   /**
+    * Returns the fact shown by a fact question.
+    *
+    * @return the index of the fact, or {@link #NO_FACT} for other questions
+    */
+   public int getFactIndex()
+   {
+      return factIndex;
+   }
+
+   /**
+    * Returns the type of question.
+    *
+    * @return one of the {@link WordGame} options
+    */
+   public int getOption()
+   {
+      return option;
+   }
+
+   /**
+    * Returns the prompt shown to the player.
+    *
+    * @return the question text
+    */
+   public String getPrompt()
+   {
+      if(prompt != null)
+      {
+         return prompt;
+      }
+
+      return switch(option)
+      {
+         case WordGame.OPTION_A -> "Which country has this capital city? " + country.getCapitalCityName();
+         case WordGame.OPTION_B -> "What is the name of this country's capital city? " + country.getName();
+         default -> "Here is a fact about this country: " + country.getFact(factIndex) +
+                    System.lineSeparator() + "What country is this?";
+      };
+   }
+
+   /**
+    * Returns the correct answer to the question.
+    *
+    * @return the country name, or the capital city for a capital question
+    */
+   public String getAnswer()
+   {
+      return option == WordGame.OPTION_B ? country.getCapitalCityName() : country.getName();
+   }
+
+   /**
+    * Checks an answer. An exact, case-insensitive match against the forms folded
+    * by the world at load time is tried first without allocating; otherwise the
+    * fuzzy matcher accepts answers with small typos or missing accents.
+    *
+    * @param world the world the country belongs to
+    * @param matcher the fuzzy matcher used when the answer is not an exact match
+    * @param answer the player's answer
+    * @return {@code true} if the answer is correct, {@code false} otherwise
+    */
+   public boolean isCorrect(final World world, final FuzzyMatcher matcher, final String answer)
+   {
+      if(answer == null)
+      {
+         return false;
+      }
+
+      if(option == WordGame.OPTION_B)
+      {
+         return world.isCapital(country.getIndex(), answer) ||
+                matcher.matchesCapital(country, answer);
+      }
+
+      return world.isName(country.getIndex(), answer) ||
+             matcher.matchesName(country, answer);
+   }
+
+   /*
+    * Builds a question of the given option, picking a random fact for a fact
+    * question. A fact question about a country without facts becomes a capital
+    * question, since both expect the country name.
+    *
+    * @param country the country to ask about
+    * @param option the type of question
+    * @param random the random generator to draw from
+    * @return the question
+    */
+   private static Question withOption(final Country country, final int option, final RandomGenerator random)
+   {
+      final int factCount;
+
+      factCount = country.getFactCount();
+
+      if(option == WordGame.OPTION_C && factCount > 0)
+      {
+         return new Question(country, option, random.nextInt(factCount));
+      }
+
+      return new Question(country, option == WordGame.OPTION_C ? WordGame.OPTION_A : option, NO_FACT);
+   }
+}
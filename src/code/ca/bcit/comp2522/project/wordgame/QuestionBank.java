@@ -0,0 +1,499 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code QuestionBank} class holds every question of a {@link World} with
+ * its prompt already built: a capital question, a country question and one
+ * fact question per fact, for every country. Serving a question is then an
+ * array read instead of decoding the country's strings and concatenating them.
+ *
+ * <p>The questions of a country are stored together, in the order capital
+ * question, country question, then one question per fact, so the id of any
+ * question is the country's first id plus a slot. The bank is built in
+ * parallel, one country per task, and can be persisted and read back.
+ *
+ * <p>The file layout is, in big-endian order:
+ * <ul>
+ *   <li>a header of six ints: magic, version, country count, question count,
+ *       prompt data length and a CRC-32C fingerprint of the country data the
+ *       bank was built from;</li>
+ *   <li>the first question id of every country, plus the question count;</li>
+ *   <li>the prompt offsets ({@code questionCount + 1} ints) into the prompt data;</li>
+ *   <li>the UTF-8 prompt data.</li>
+ * </ul>
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class QuestionBank
+{
+   private static final int MAGIC        = 0x5142414E;  // "QBAN"
+   private static final int VERSION      = 2;
+   private static final int HEADER_INTS  = 6;
+   private static final int CAPITAL_SLOT = 0;
+   private static final int COUNTRY_SLOT = 1;
+   private static final int FIRST_FACT   = 2;
+
+   private final World world;
+   private final int[] firstQuestion;
+   private final String[] prompts;
+
+   /*
+    * Constructs a bank over tables that were already built.
+    *
+    * @param world the world the questions are about
+    * @param firstQuestion the first question id of every country, plus the question count
+    * @param prompts the prompt of every question
+    */
+   private QuestionBank(final World world, final int[] firstQuestion, final String[] prompts)
+   {
+      this.world = world;
+      this.firstQuestion = firstQuestion;
+      this.prompts = prompts;
+   }
+
+   /**
+    * Builds the question bank of a world, building the prompts of different
+    * countries in parallel.
+    *
+    * @param world the world the questions are about
+    * @return the question bank
+    * @throws IllegalArgumentException if the world is null
+    */
+   public static QuestionBank build(final World world)
+   {
+      if(world == null)
+      {
+         throw new IllegalArgumentException("World must not be null!");
+      }
+
+      final int[] firstQuestion;
+      final String[] prompts;
+
+      firstQuestion = layout(world);
+      prompts = new String[firstQuestion[world.size()]];
+
+      IntStream.range(0, world.size()).parallel().forEach(index ->
+      {
+         final Country country;
+         final int first;
+
+         country = world.getCountry(index);
+         first = firstQuestion[index];
+
+         prompts[first + CAPITAL_SLOT] = new Question(country, WordGame.OPTION_A, Question.NO_FACT).getPrompt();
+         prompts[first + COUNTRY_SLOT] = new Question(country, WordGame.OPTION_B, Question.NO_FACT).getPrompt();
+
+         for(int fact = 0; fact < country.getFactCount(); fact++)
+         {
+            prompts[first + FIRST_FACT + fact] = new Question(country, WordGame.OPTION_C, fact).getPrompt();
+         }
+      });
+
+      return new QuestionBank(world, firstQuestion, prompts);
+   }
+
+   /**
+    * Reads a persisted bank for a world. The world must have the same countries,
+    * with the same names, capitals and facts, as the world the bank was built from.
+    *
+    * @param world the world the questions are about
+    * @param bankPath the path of the persisted bank
+    * @return the question bank
+    * @throws IOException if the file cannot be read
+    * @throws IllegalArgumentException if the file is not a valid bank for the world
+    */
+   public static QuestionBank read(final World world, final Path bankPath) throws IOException
+   {
+      try(final FileChannel channel = FileChannel.open(bankPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer buffer;
+         final int countryCount;
+         final int questionCount;
+         final int dataLength;
+         final int[] firstQuestion;
+         final int[] promptOffsets;
+         final byte[] data;
+         final String[] prompts;
+
+         buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+         if(buffer.limit() < HEADER_INTS * Integer.BYTES ||
+            buffer.getInt(0) != MAGIC ||
+            buffer.getInt(Integer.BYTES) != VERSION)
+         {
+            throw new IllegalArgumentException("Invalid question bank!");
+         }
+
+         countryCount = buffer.getInt(2 * Integer.BYTES);
+         questionCount = buffer.getInt(3 * Integer.BYTES);
+         dataLength = buffer.getInt(4 * Integer.BYTES);
+
+         if(countryCount < 0 || questionCount < 0 || dataLength < 0 ||
+            (HEADER_INTS + 2L + countryCount + questionCount) * Integer.BYTES + dataLength != buffer.limit())
+         {
+            throw new IllegalArgumentException("Invalid question bank!");
+         }
+
+         firstQuestion = new int[countryCount + 1];
+         promptOffsets = new int[questionCount + 1];
+         data = new byte[dataLength];
+
+         buffer.position(HEADER_INTS * Integer.BYTES);
+         buffer.asIntBuffer().get(firstQuestion);
+         buffer.position(buffer.position() + firstQuestion.length * Integer.BYTES);
+         buffer.asIntBuffer().get(promptOffsets);
+         buffer.position(buffer.position() + promptOffsets.length * Integer.BYTES);
+         buffer.get(data);
+
+         if(!Arrays.equals(firstQuestion, layout(world)) || buffer.getInt(5 * Integer.BYTES) != fingerprint(world))
+         {
+            throw new IllegalArgumentException("Question bank does not match the world!");
+         }
+
+         checkOffsets(promptOffsets, dataLength);
+         prompts = new String[questionCount];
+
+         for(int i = 0; i < questionCount; i++)
+         {
+            prompts[i] = new String(data,
+                                    promptOffsets[i],
+                                    promptOffsets[i + 1] - promptOffsets[i],
+                                    StandardCharsets.UTF_8);
+         }
+
+         return new QuestionBank(world, firstQuestion, prompts);
+      }
+   }
+
+   /*
+    * Checks that an offset table starts at zero, never runs backwards and ends
+    * at the end of the data it indexes.
+    *
+    * @param offsets the offset table
+    * @param end the length of the data
+    */
+   private static void checkOffsets(final int[] offsets, final int end)
+   {
+      if(offsets[0] != 0 || offsets[offsets.length - 1] != end)
+      {
+         throw new IllegalArgumentException("Invalid question bank: prompt offsets do not span the prompt data!");
+      }
+
+      for(int i = 1; i < offsets.length; i++)
+      {
+         if(offsets[i] < offsets[i - 1])
+         {
+            throw new IllegalArgumentException("Invalid question bank: prompt offsets out of order!");
+         }
+      }
+   }
+
+   /**
+    * Reads a persisted bank for a world, or builds and persists a new one when
+    * the file is missing or does not match the world.
+    *
+    * @param world the world the questions are about
+    * @param bankPath the path of the persisted bank
+    * @return the question bank
+    */
+   public static QuestionBank readOrBuild(final World world, final Path bankPath)
+   {
+      final QuestionBank bank;
+
+      if(Files.exists(bankPath))
+      {
+         try
+         {
+            return read(world, bankPath);
+         } catch(final IOException | IllegalArgumentException e)
+         {
+            System.out.println("Rebuilding question bank " + bankPath.getFileName() + ", " + e.getMessage());
+         }
+      }
+
+      bank = build(world);
+
+      try
+      {
+         bank.write(bankPath);
+      } catch(final IOException e)
+      {
+         System.out.println("Error writing question bank " + bankPath.getFileName() + ", " + e.getMessage());
+      }
+
+      return bank;
+   }
+
+   /**
+    * Writes the bank to a file. The bank is written to a temporary file first
+    * and then moved into place, so a reader never sees a partially written bank.
+    *
+    * @param bankPath the path of the bank
+    * @throws IOException if the bank cannot be written
+    */
+   public void write(final Path bankPath) throws IOException
+   {
+      final byte[][] encoded;
+      final Path tempPath;
+      int dataLength;
+
+      encoded = new byte[prompts.length][];
+      dataLength = 0;
+
+      for(int i = 0; i < prompts.length; i++)
+      {
+         encoded[i] = prompts[i].getBytes(StandardCharsets.UTF_8);
+         dataLength += encoded[i].length;
+      }
+
+      if(bankPath.getParent() != null)
+      {
+         Files.createDirectories(bankPath.getParent());
+      }
+
+      tempPath = bankPath.resolveSibling(bankPath.getFileName() + ".tmp");
+
+      try(final DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(tempPath))))
+      {
+         int offset;
+
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(firstQuestion.length - 1);
+         out.writeInt(prompts.length);
+         out.writeInt(dataLength);
+         out.writeInt(fingerprint(world));
+
+         for(final int first : firstQuestion)
+         {
+            out.writeInt(first);
+         }
+
+         offset = 0;
+
+         for(final byte[] prompt : encoded)
+         {
+            out.writeInt(offset);
+            offset += prompt.length;
+         }
+
+         out.writeInt(offset);
+
+         for(final byte[] prompt : encoded)
+         {
+            out.write(prompt);
+         }
+      }
+
+      Files.move(tempPath, bankPath, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Returns the number of questions in the bank.
+    *
+    * @return the number of questions
+    */
+   public int size()
+   {
+      return prompts.length;
+   }
+
+   /**
+    * Returns the id of a question.
+    *
+    * @param countryIndex the index of the country
+    * @param option the type of question
+    * @param factIndex the fact shown by a fact question, ignored otherwise
+    * @return the question id
+    */
+   public int questionId(final int countryIndex, final int option, final int factIndex)
+   {
+      return firstQuestion[countryIndex] + switch(option)
+      {
+         case WordGame.OPTION_A -> CAPITAL_SLOT;
+         case WordGame.OPTION_B -> COUNTRY_SLOT;
+         default -> FIRST_FACT + factIndex;
+      };
+   }
+
+   /**
+    * Returns the prebuilt prompt of a question.
+    *
+    * @param id the question id
+    * @return the prompt
+    */
+   public String prompt(final int id)
+   {
+      return prompts[id];
+   }
+
+   /**
+    * Picks a random question with the same odds as {@link Question#random(World, RandomGenerator)},
+    * carrying its prebuilt prompt.
+    *
+    * @param random the random generator to draw from
+    * @return a random question
+    */
+   public Question random(final RandomGenerator random)
+   {
+      final int option;
+
+      option = random.nextInt(WordGame.OPTION_A, WordGame.OPTION_C + 1);
+
+      return withOption(world.randomCountry(random), option, random);
+   }
+
+   /**
+    * Picks a random question about the given country with the same odds as
+    * {@link Question#about(Country, RandomGenerator)}, carrying its prebuilt prompt.
+    *
+    * @param country the country to ask about
+    * @param random the random generator to draw from
+    * @return a random question about the country
+    */
+   public Question about(final Country country, final RandomGenerator random)
+   {
+      return withOption(country, random.nextInt(WordGame.OPTION_A, WordGame.OPTION_C + 1), random);
+   }
+
+   /*
+    * Builds a question of the given option with its prebuilt prompt, picking a
+    * random fact for a fact question. A fact question about a country without
+    * facts becomes a capital question.
+    *
+    * @param country the country to ask about
+    * @param option the type of question
+    * @param random the random generator to draw from
+    * @return the question
+    */
+   private Question withOption(final Country country, final int option, final RandomGenerator random)
+   {
+      final int index;
+      final int factCount;
+
+      index = country.getIndex();
+      factCount = firstQuestion[index + 1] - firstQuestion[index] - FIRST_FACT;
+
+      if(option == WordGame.OPTION_C && factCount > 0)
+      {
+         final int fact;
+
+         fact = random.nextInt(factCount);
+
+         return new Question(country, option, fact, prompts[firstQuestion[index] + FIRST_FACT + fact]);
+      }
+
+      if(option == WordGame.OPTION_B)
+      {
+         return new Question(country, option, Question.NO_FACT, prompts[firstQuestion[index] + COUNTRY_SLOT]);
+      }
+
+      return new Question(country, WordGame.OPTION_A, Question.NO_FACT, prompts[firstQuestion[index] + CAPITAL_SLOT]);
+   }
+
+   /*
+    * Computes the first question id of every country of a world.
+    *
+    * @param world the world
+    * @return the first question id of every country, plus the question count
+    */
+   private static int[] layout(final World world)
+   {
+      final int[] firstQuestion;
+
+      firstQuestion = new int[world.size() + 1];
+
+      for(int i = 0; i < world.size(); i++)
+      {
+         firstQuestion[i + 1] = firstQuestion[i] + FIRST_FACT + world.getCountry(i).getFactCount();
+      }
+
+      return firstQuestion;
+   }
+
+   /*
+    * Computes a fingerprint of the country data of a world: a checksum over the
+    * name, capital and facts of every country, in order, so a bank built from
+    * edited country files is never served for the new ones.
+    *
+    * @param world the world
+    * @return the fingerprint
+    */
+   private static int fingerprint(final World world)
+   {
+      final CRC32C crc;
+
+      crc = new CRC32C();
+
+      for(int i = 0; i < world.size(); i++)
+      {
+         final Country country;
+
+         country = world.getCountry(i);
+         update(crc, country.getName());
+         update(crc, country.getCapitalCityName());
+
+         for(int fact = 0; fact < country.getFactCount(); fact++)
+         {
+            update(crc, country.getFact(fact));
+         }
+      }
+
+      return (int) crc.getValue();
+   }
+
+   /*
+    * Adds a string and a separator to a checksum, so moving text between
+    * fields changes the fingerprint.
+    *
+    * @param crc the checksum
+    * @param text the string
+    */
+   private static void update(final CRC32C crc, final String text)
+   {
+      crc.update(text.getBytes(StandardCharsets.UTF_8));
+      crc.update(0);
+   }
+
+   /**
+    * Builds the question bank of the default world ahead of time and persists it.
+    *
+    * @param args optionally the path of the bank
+    */
+   public static void main(final String[] args)
+   {
+      final World world;
+      final Path bankPath;
+      final QuestionBank bank;
+
+      world = new World();
+      bankPath = args.length > 0 ? Paths.get(args[0]) : Paths.get("src", "output", "questions.bank");
+      bank = build(world);
+
+      try
+      {
+         bank.write(bankPath);
+         System.out.println("Wrote " + bank.size() + " questions to " + bankPath);
+      } catch(final IOException e)
+      {
+         System.out.println("Error writing question bank " + bankPath.getFileName() + ", " + e.getMessage());
+      }
+   }
+}
@@ -0,0 +1,290 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code QuestionScheduler} class decides which country one player is asked
+ * about next, using spaced repetition. Every country has a due tick and a
+ * level; the clock ticks once per question. A country answered wrong drops to
+ * level zero and comes back after {@link #REVIEW_GAP} questions, and one
+ * answered right on the second attempt comes back after {@link #SHAKY_GAP}.
+ * A country answered right on the first attempt moves up a level and is not
+ * due again until every country has had its turn, and twice as long for each
+ * level after that.
+ *
+ * <p>Countries are kept in an indexed binary min-heap ordered by due tick, held
+ * in primitive arrays of about thirteen bytes per country, so the next question
+ * and every reschedule cost O(log n) even for a million-country {@link World}.
+ * Unseen countries start due in a random order, and the same country is never
+ * served twice in a row while another one exists.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class QuestionScheduler
+{
+   public static final int REVIEW_GAP = 3;
+   public static final int SHAKY_GAP  = 4 * REVIEW_GAP;
+
+   private static final int MAX_LEVEL    = 20;
+   private static final int MAX_INTERVAL = Integer.MAX_VALUE / 2;
+   private static final int NONE = -1;
+
+   private final int[] heap;
+   private final int[] position;
+   private final int[] due;
+   private final byte[] level;
+   private int tick;
+   private int last;
+
+   /**
+    * Constructs a scheduler over the countries {@code 0} to {@code size - 1},
+    * first serving them in a random order.
+    *
+    * @param size the number of countries
+    * @param random the random generator shuffling the first round
+    * @throws IllegalArgumentException if size is lower than 1 or random is null
+    */
+   public QuestionScheduler(final int size, final RandomGenerator random)
+   {
+      if(size < 1)
+      {
+         throw new IllegalArgumentException("At least one country is required!");
+      }
+
+      if(random == null)
+      {
+         throw new IllegalArgumentException("Random generator must not be null!");
+      }
+
+      this.heap = new int[size];
+      this.position = new int[size];
+      this.due = new int[size];
+      this.level = new byte[size];
+      this.tick = 0;
+      this.last = NONE;
+
+      for(int i = 0; i < size; i++)
+      {
+         heap[i] = i;
+      }
+
+      // Shuffle, then make slot i due at tick i: a sorted array is already a heap
+      for(int i = size - 1; i > 0; i--)
+      {
+         final int j;
+         final int swapped;
+
+         j = random.nextInt(i + 1);
+         swapped = heap[i];
+         heap[i] = heap[j];
+         heap[j] = swapped;
+      }
+
+      for(int i = 0; i < size; i++)
+      {
+         position[heap[i]] = i;
+         due[heap[i]] = i;
+      }
+   }
+
+   /**
+    * Returns the next country to ask about and advances the clock. Until its
+    * answer is recorded, the country is held back for {@link #REVIEW_GAP}
+    * questions.
+    *
+    * @return the index of the country
+    */
+   public int next()
+   {
+      int candidate;
+
+      tick++;
+      candidate = heap[0];
+
+      if(candidate == last && heap.length > 1)
+      {
+         candidate = heap.length > 2 && due[heap[2]] < due[heap[1]] ? heap[2] : heap[1];
+      }
+
+      last = candidate;
+      reschedule(candidate, tick + REVIEW_GAP);
+
+      return candidate;
+   }
+
+   /**
+    * Records the final outcome of a question and reschedules its country.
+    * {@link WordGameSession.AnswerResult#TRY_AGAIN} is not final and is ignored.
+    *
+    * @param index the index of the country
+    * @param result the outcome of the question
+    */
+   public void record(final int index, final WordGameSession.AnswerResult result)
+   {
+      switch(result)
+      {
+         case CORRECT_FIRST_ATTEMPT ->
+         {
+            level[index] = (byte) Math.min(MAX_LEVEL, level[index] + 1);
+            reschedule(index, tick + masteredInterval(level[index]));
+         }
+         case CORRECT_SECOND_ATTEMPT -> reschedule(index, tick + SHAKY_GAP);
+         case INCORRECT ->
+         {
+            level[index] = 0;
+            reschedule(index, tick + REVIEW_GAP);
+         }
+         default ->
+         {
+            // A first wrong answer is not final
+         }
+      }
+   }
+
+   /**
+    * Returns the number of countries scheduled.
+    *
+    * @return the number of countries
+    */
+   public int size()
+   {
+      return heap.length;
+   }
+
+   /**
+    * Returns the tick at which a country is next due.
+    *
+    * @param index the index of the country
+    * @return the due tick
+    */
+   public int getDue(final int index)
+   {
+      return due[index];
+   }
+
+   /**
+    * Returns the current level of a country.
+    *
+    * @param index the index of the country
+    * @return the level, zero for unseen or missed countries
+    */
+   public int getLevel(final int index)
+   {
+      return level[index];
+   }
+
+   /*
+    * Returns how long a country answered right on the first attempt waits: one
+    * pass over every country at level one, doubling with each level.
+    *
+    * @param countryLevel the level of the country, at least one
+    * @return the interval in ticks
+    */
+   private int masteredInterval(final int countryLevel)
+   {
+      return (int) Math.min(MAX_INTERVAL, (long) heap.length << (countryLevel - 1));
+   }
+
+   /*
+    * Changes the due tick of a country and restores the heap order.
+    *
+    * @param index the index of the country
+    * @param newDue the new due tick
+    */
+   private void reschedule(final int index, final int newDue)
+   {
+      final int oldDue;
+
+      oldDue = due[index];
+      due[index] = newDue;
+
+      if(newDue < oldDue)
+      {
+         siftUp(position[index]);
+      } else
+      {
+         siftDown(position[index]);
+      }
+   }
+
+   /*
+    * Moves the entry at a slot towards the root until its parent is due earlier.
+    *
+    * @param slot the heap slot
+    */
+   private void siftUp(int slot)
+   {
+      final int index;
+
+      index = heap[slot];
+
+      while(slot > 0)
+      {
+         final int parent;
+
+         parent = (slot - 1) >>> 1;
+
+         if(due[heap[parent]] <= due[index])
+         {
+            break;
+         }
+
+         place(heap[parent], slot);
+         slot = parent;
+      }
+
+      place(index, slot);
+   }
+
+   /*
+    * Moves the entry at a slot towards the leaves until both children are due later.
+    *
+    * @param slot the heap slot
+    */
+   private void siftDown(int slot)
+   {
+      final int index;
+
+      index = heap[slot];
+
+      while(true)
+      {
+         int child;
+
+         child = 2 * slot + 1;
+
+         if(child >= heap.length)
+         {
+            break;
+         }
+
+         if(child + 1 < heap.length && due[heap[child + 1]] < due[heap[child]])
+         {
+            child++;
+         }
+
+         if(due[index] <= due[heap[child]])
+         {
+            break;
+         }
+
+         place(heap[child], slot);
+         slot = child;
+      }
+
+      place(index, slot);
+   }
+
+   /*
+    * Puts a country in a heap slot and records its position.
+    *
+    * @param index the index of the country
+    * @param slot the heap slot
+    */
+   private void place(final int index, final int slot)
+   {
+      heap[slot] = index;
+      position[index] = slot;
+   }
+}
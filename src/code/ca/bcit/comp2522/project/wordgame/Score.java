@@ -1,16 +1,19 @@
 package ca.bcit.comp2522.project.wordgame;
 
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import ca.bcit.comp2522.project.util.ScoreTextScanner;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
@@ -44,8 +47,9 @@ import java.util.stream.Stream;
  * @author Linh Hoang
  * @version 1.0
  */
-public class Score
+public class Score implements GameScore
 {
+   private final LocalDateTime dateTime;
    private final String        dateTimePlayed;
    private final int           numGamesPlayed;
    private final int           numCorrectFirstAttempt;
@@ -74,12 +78,11 @@ public class Score
       validateStats(numCorrectSecondAttempt);
       validateStats(numIncorrectTwoAttempts);
 
-      final DateTimeFormatter formatter;
       final String            formattedDateTime;
 
-      formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-      formattedDateTime = dateTimePlayed.format(formatter);
+      formattedDateTime = dateTimePlayed.format(ScoreTextScanner.DATE_TIME_FORMAT);
 
+      this.dateTime = dateTimePlayed.truncatedTo(ChronoUnit.SECONDS);
       this.dateTimePlayed = formattedDateTime;
       this.numGamesPlayed = numGamesPlayed;
       this.numCorrectFirstAttempt = numCorrectFirstAttempt;
@@ -97,11 +100,34 @@ public class Score
       return dateTimePlayed;
    }
 
+   /**
+    * Gets the date and time when the game was played, to the second.
+    *
+    * @return the date and time the game was played
+    */
+   @Override
+   public LocalDateTime getDateTime()
+   {
+      return dateTime;
+   }
+
+   /**
+    * Gets the word game namespace.
+    *
+    * @return {@link ScoreNamespace#WORD_GAME}
+    */
+   @Override
+   public ScoreNamespace getNamespace()
+   {
+      return ScoreNamespace.WORD_GAME;
+   }
+
    /**
     * Gets the number of games played.
     *
     * @return the number of games played
     */
+   @Override
    public int getNumGamesPlayed()
    {
       return numGamesPlayed;
@@ -112,6 +138,7 @@ public class Score
     *
     * @return the number of correct answers on the first attempt
     */
+   @Override
    public int getNumCorrectFirstAttempt()
    {
       return numCorrectFirstAttempt;
@@ -122,6 +149,7 @@ public class Score
     *
     * @return the number of correct answers on the second attempt
     */
+   @Override
    public int getNumCorrectSecondAttempt()
    {
       return numCorrectSecondAttempt;
@@ -132,6 +160,7 @@ public class Score
     *
     * @return the number of incorrect answers after two attempts
     */
+   @Override
    public int getNumIncorrectTwoAttempts()
    {
       return numIncorrectTwoAttempts;
@@ -198,11 +227,9 @@ public class Score
    public static List<Score> readScoresFromFile(final String fileName) throws IOException
    {
       final List<Score> scoreList;
-      final List<String> fileContent;
       final Path filePath;
 
       scoreList = new ArrayList<>();
-      fileContent = new ArrayList<>();
       filePath = createOutputFile(fileName);
 
       if(Files.notExists(filePath))
@@ -211,26 +238,29 @@ public class Score
          return scoreList;
       }
 
-      try(final Stream<String> lines = Files.lines(filePath))
+      try(final Stream<Score> scores = streamScoresFromFile(filePath))
       {
-         final List<String> parsedFileContent;
-
-         parsedFileContent = lines.filter(line -> line != null)
-                                    .filter(line -> !line.isBlank())
-                                    .toList();
-
-         if(parsedFileContent != null)
-         {
-            fileContent.addAll(parsedFileContent);
-         }
-      } catch(final IOException e)
+         scores.forEach(scoreList::add);
+      } catch(final IOException | UncheckedIOException e)
       {
          System.out.println("Error reading from file " + filePath.getFileName() + ", " + e.getMessage());
       }
 
-      addScoreToList(scoreList, fileContent);
       return scoreList;
+   }
 
+   /**
+    * Streams the scores of a file in order, parsing each record as it is
+    * reached, so memory use does not grow with the file and a stream that is
+    * cut short stops reading. The stream must be closed.
+    *
+    * @param filePath the score file
+    * @return the scores of the file
+    * @throws IOException if the file cannot be opened
+    */
+   public static Stream<Score> streamScoresFromFile(final Path filePath) throws IOException
+   {
+      return ScoreReader.stream(filePath);
    }
 
    /**
@@ -265,7 +295,6 @@ public class Score
          for(int i = 0; i < size; i++)
          {
             final Score score;
-            final String dateTimeStr;
             final String dataStr;
 
             dataStr = fileContent.get(i);
@@ -273,25 +302,30 @@ public class Score
 
             if(dataStr.contains("Date and Time:"))
             {
-               dateTimeStr = dateTimeParser(dataStr);
-               dateTimePlayed = convertStrToLocalDateTime(dateTimeStr);
+               dateTimePlayed = ScoreTextScanner.parseDateTime(dataStr);
+
+               if(dateTimePlayed == null)
+               {
+                  throw new IllegalArgumentException("Invalid string format!");
+               }
+
                j++;
             } else if(dataStr.contains("Games Played:"))
             {
                j++;
-               numGamesPlayed = parseDigitFromString(dataStr);
+               numGamesPlayed = ScoreTextScanner.parseInt(dataStr);
             } else if(dataStr.contains("Correct First Attempts:"))
             {
                j++;
-               numCorrectFirstGuess = parseDigitFromString(dataStr);
+               numCorrectFirstGuess = ScoreTextScanner.parseInt(dataStr);
             } else if(dataStr.contains("Correct Second Attempts:"))
             {
                j++;
-               numCorrectSecondGuess = parseDigitFromString(dataStr);
+               numCorrectSecondGuess = ScoreTextScanner.parseInt(dataStr);
             } else if(dataStr.contains("Incorrect Attempts:"))
             {
                j++;
-               numIncorrectTwoAttempts = parseDigitFromString(dataStr);
+               numIncorrectTwoAttempts = ScoreTextScanner.parseInt(dataStr);
             } else if(dataStr.contains("Score:"))
             {
                j++;
@@ -314,30 +348,6 @@ public class Score
       }
    }
 
-   /**
-    * Parses the first sequence of digits from the given string.
-    *
-    * @param str the string to parse
-    * @return the first integer found in the string, or -1 if no digits are found
-    */
-   private static int parseDigitFromString(final String str)
-   {
-      final Pattern pattern;
-      final Matcher matcher;
-      int result;
-
-      pattern = Pattern.compile("\\d+");
-      matcher = pattern.matcher(str);
-      result = - 1;
-
-      if(matcher.find())
-      {
-         result = Integer.parseInt(matcher.group());
-      }
-
-      return result;
-   }
-
    /**
     * Parses a date-time string and formats it into the pattern "yyyy-MM-dd HH:mm:ss".
     *
@@ -346,45 +356,11 @@ public class Score
     */
    public static String dateTimeParser(final String dateTimeStr)
    {
-      final Pattern pattern;
-      final Matcher matcher;
-      String dateTimeResult;
-
-
-      pattern = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
-      matcher = pattern.matcher(dateTimeStr);
-      dateTimeResult = "";
-
-      if(matcher.find())
-      {
-         final String dateTimeMatch;
-         final LocalDateTime dateTime;
-         final DateTimeFormatter formatter;
-
-         dateTimeMatch = matcher.group();
-         formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-         dateTime = LocalDateTime.parse(dateTimeMatch, formatter);
-         dateTimeResult = dateTime.format(formatter);
-      }
-
-      return dateTimeResult;
-   }
-
-   /**
-    * Converts a date-time string into a LocalDateTime object.
-    *
-    * @param dateTimeStr the date-time string to convert
-    * @return a LocalDateTime object representing the parsed date-time
-    */
-   private static LocalDateTime convertStrToLocalDateTime(final String dateTimeStr)
-   {
-      final LocalDateTime result;
-      final DateTimeFormatter formatter;
+      final LocalDateTime dateTime;
 
-      formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-      result = LocalDateTime.parse(dateTimeStr, formatter);
+      dateTime = ScoreTextScanner.parseDateTime(dateTimeStr);
 
-      return result;
+      return dateTime == null ? "" : dateTime.format(ScoreTextScanner.DATE_TIME_FORMAT);
    }
 
    /**
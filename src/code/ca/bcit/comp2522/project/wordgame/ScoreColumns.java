@@ -0,0 +1,775 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZInputStream;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The {@code ScoreColumns} class holds a score history of any game as columns:
+ * one primitive array per field instead of one object per score. Analytics
+ * loops over a column touch only the bytes they add up and run without
+ * branches, so the JIT can vectorize them.
+ *
+ * <p>A column file keeps each column in its own block, found through a
+ * directory after the header, so a reader loads only the columns it asks for.
+ * Times are stored as zigzag varint deltas from the previous score, which
+ * takes one or two bytes for scores played close together; the other columns
+ * are fixed-width arrays. Each block can be compressed with XZ.
+ *
+ * <p>The file layout is, in big-endian order, a {@value #HEADER_SIZE}-byte
+ * header (magic, version, flags and column count as ints, then the row count
+ * as a long), a directory of {@value #ENTRY_SIZE}-byte entries (column,
+ * offset and length of the block), then the blocks.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class ScoreColumns
+{
+   public static final String FILE_SUFFIX = ".cols";
+   public static final int    HEADER_SIZE = 24;
+   public static final int    ENTRY_SIZE  = 20;
+
+   /**
+    * The fields of a score, each stored as one column.
+    */
+   public enum Column
+   {
+      NAMESPACE,
+      DATE_TIME,
+      GAMES_PLAYED,
+      CORRECT_FIRST,
+      CORRECT_SECOND,
+      INCORRECT
+   }
+
+   private static final int MAGIC            = 0x53434F4C;  // "SCOL"
+   private static final int VERSION          = 1;
+   private static final int XZ_FLAG          = 1;
+   private static final int INITIAL_CAPACITY = 1024;
+   private static final int MAX_VARINT_SIZE  = 10;
+
+   private final int size;
+   private final Set<Column> columns;
+   private final byte[] namespaces;
+   private final long[] epochSeconds;
+   private final int[] gamesPlayed;
+   private final int[] correctFirst;
+   private final int[] correctSecond;
+   private final int[] incorrect;
+
+   /*
+    * Constructs a history from its columns; a column not loaded is null.
+    */
+   private ScoreColumns(final int size,
+                        final byte[] namespaces,
+                        final long[] epochSeconds,
+                        final int[] gamesPlayed,
+                        final int[] correctFirst,
+                        final int[] correctSecond,
+                        final int[] incorrect)
+   {
+      final Set<Column> loaded;
+
+      loaded = EnumSet.noneOf(Column.class);
+
+      this.size = size;
+      this.namespaces = namespaces;
+      this.epochSeconds = epochSeconds;
+      this.gamesPlayed = gamesPlayed;
+      this.correctFirst = correctFirst;
+      this.correctSecond = correctSecond;
+      this.incorrect = incorrect;
+
+      for(final Column column : Column.values())
+      {
+         if(arrayOf(column) != null)
+         {
+            loaded.add(column);
+         }
+      }
+
+      this.columns = Collections.unmodifiableSet(loaded);
+   }
+
+   /**
+    * Collects scores into columns.
+    *
+    * @param scores the scores, of any game
+    * @return the history, with every column
+    * @throws IllegalArgumentException if the iterator or a score is null
+    */
+   public static ScoreColumns of(final Iterator<? extends GameScore> scores)
+   {
+      byte[] namespaces;
+      long[] epochSeconds;
+      int[] gamesPlayed;
+      int[] correctFirst;
+      int[] correctSecond;
+      int[] incorrect;
+      int size;
+
+      if(scores == null)
+      {
+         throw new IllegalArgumentException("Scores must not be null!");
+      }
+
+      namespaces = new byte[INITIAL_CAPACITY];
+      epochSeconds = new long[INITIAL_CAPACITY];
+      gamesPlayed = new int[INITIAL_CAPACITY];
+      correctFirst = new int[INITIAL_CAPACITY];
+      correctSecond = new int[INITIAL_CAPACITY];
+      incorrect = new int[INITIAL_CAPACITY];
+      size = 0;
+
+      while(scores.hasNext())
+      {
+         final GameScore score;
+
+         score = scores.next();
+
+         if(score == null)
+         {
+            throw new IllegalArgumentException("Score must not be null!");
+         }
+
+         if(size == namespaces.length)
+         {
+            final int capacity;
+
+            capacity = size * 2;
+            namespaces = Arrays.copyOf(namespaces, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            gamesPlayed = Arrays.copyOf(gamesPlayed, capacity);
+            correctFirst = Arrays.copyOf(correctFirst, capacity);
+            correctSecond = Arrays.copyOf(correctSecond, capacity);
+            incorrect = Arrays.copyOf(incorrect, capacity);
+         }
+
+         namespaces[size] = (byte) score.getNamespace().getId();
+         epochSeconds[size] = score.getDateTime().toEpochSecond(ZoneOffset.UTC);
+         gamesPlayed[size] = score.getNumGamesPlayed();
+         correctFirst[size] = score.getNumCorrectFirstAttempt();
+         correctSecond[size] = score.getNumCorrectSecondAttempt();
+         incorrect[size] = score.getNumIncorrectTwoAttempts();
+         size++;
+      }
+
+      return new ScoreColumns(size,
+                              Arrays.copyOf(namespaces, size),
+                              Arrays.copyOf(epochSeconds, size),
+                              Arrays.copyOf(gamesPlayed, size),
+                              Arrays.copyOf(correctFirst, size),
+                              Arrays.copyOf(correctSecond, size),
+                              Arrays.copyOf(incorrect, size));
+   }
+
+   /**
+    * Collects every record of a score log into columns.
+    *
+    * @param log the score log
+    * @return the history, with every column
+    * @throws IOException if the log cannot be read
+    * @throws IllegalArgumentException if the log is null
+    */
+   public static ScoreColumns of(final ScoreLog log) throws IOException
+   {
+      if(log == null)
+      {
+         throw new IllegalArgumentException("Log must not be null!");
+      }
+
+      try
+      {
+         return of(new Iterator<GameScore>()
+         {
+            private long next = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+               return next < log.size();
+            }
+
+            @Override
+            public GameScore next()
+            {
+               try
+               {
+                  return log.readAny(next++);
+               } catch(final IOException e)
+               {
+                  throw new UncheckedIOException(e);
+               }
+            }
+         });
+      } catch(final UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * Reads some columns of a column file, skipping the blocks of the others.
+    *
+    * @param columnPath the column file
+    * @param wanted the columns to load
+    * @return the history, with the wanted columns
+    * @throws IOException if the file cannot be read
+    * @throws IllegalArgumentException if the set of columns is null or the file is not a column file
+    */
+   public static ScoreColumns read(final Path columnPath, final Set<Column> wanted) throws IOException
+   {
+      if(wanted == null)
+      {
+         throw new IllegalArgumentException("Columns must not be null!");
+      }
+
+      try(final FileChannel channel = FileChannel.open(columnPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer header;
+         final ByteBuffer directory;
+         final boolean isCompressed;
+         final int size;
+         final Object[] arrays;
+
+         header = readFully(channel, 0, HEADER_SIZE);
+
+         if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION ||
+            header.getInt(12) != Column.values().length || header.getLong(16) > Integer.MAX_VALUE)
+         {
+            throw new IllegalArgumentException("Invalid column file " + columnPath.getFileName());
+         }
+
+         isCompressed = (header.getInt(8) & XZ_FLAG) != 0;
+         size = (int) header.getLong(16);
+         directory = readFully(channel, HEADER_SIZE, Column.values().length * ENTRY_SIZE);
+         arrays = new Object[Column.values().length];
+
+         for(int i = 0; i < Column.values().length; i++)
+         {
+            final Column column;
+            byte[] block;
+
+            column = Column.values()[directory.getInt(i * ENTRY_SIZE)];
+
+            if(!wanted.contains(column))
+            {
+               continue;
+            }
+
+            block = readFully(channel,
+                              directory.getLong(i * ENTRY_SIZE + 4),
+                              (int) directory.getLong(i * ENTRY_SIZE + 12)).array();
+
+            if(isCompressed)
+            {
+               try(final XZInputStream in = new XZInputStream(new ByteArrayInputStream(block)))
+               {
+                  block = in.readAllBytes();
+               }
+            }
+
+            arrays[column.ordinal()] = decode(column, block, size);
+         }
+
+         return new ScoreColumns(size,
+                                 (byte[]) arrays[Column.NAMESPACE.ordinal()],
+                                 (long[]) arrays[Column.DATE_TIME.ordinal()],
+                                 (int[]) arrays[Column.GAMES_PLAYED.ordinal()],
+                                 (int[]) arrays[Column.CORRECT_FIRST.ordinal()],
+                                 (int[]) arrays[Column.CORRECT_SECOND.ordinal()],
+                                 (int[]) arrays[Column.INCORRECT.ordinal()]);
+      }
+   }
+
+   /**
+    * Writes the history to a column file. The file is written to a temporary
+    * file first and then moved into place.
+    *
+    * @param columnPath the column file
+    * @param isCompressed whether the blocks are compressed with XZ
+    * @throws IOException if the file cannot be written
+    * @throws IllegalStateException if a column is not loaded
+    */
+   public void write(final Path columnPath, final boolean isCompressed) throws IOException
+   {
+      final Path tempPath;
+      final byte[][] blocks;
+      final ByteBuffer head;
+      long offset;
+
+      if(columns.size() != Column.values().length)
+      {
+         throw new IllegalStateException("Only a history with every column can be written!");
+      }
+
+      tempPath = columnPath.resolveSibling(columnPath.getFileName() + ".tmp");
+      blocks = new byte[Column.values().length][];
+      head = ByteBuffer.allocate(HEADER_SIZE + blocks.length * ENTRY_SIZE);
+      offset = head.capacity();
+
+      head.putInt(MAGIC);
+      head.putInt(VERSION);
+      head.putInt(isCompressed ? XZ_FLAG : 0);
+      head.putInt(blocks.length);
+      head.putLong(size);
+
+      for(final Column column : Column.values())
+      {
+         final byte[] block;
+
+         block = encode(column);
+
+         if(isCompressed)
+         {
+            final ByteArrayOutputStream compressed;
+
+            compressed = new ByteArrayOutputStream(block.length / 4 + 64);
+
+            try(final XZOutputStream out = new XZOutputStream(compressed, new LZMA2Options()))
+            {
+               out.write(block);
+            }
+
+            blocks[column.ordinal()] = compressed.toByteArray();
+         } else
+         {
+            blocks[column.ordinal()] = block;
+         }
+
+         head.putInt(column.ordinal());
+         head.putLong(offset);
+         head.putLong(blocks[column.ordinal()].length);
+         offset += blocks[column.ordinal()].length;
+      }
+
+      head.flip();
+
+      try(final FileChannel channel = FileChannel.open(tempPath,
+                                                       StandardOpenOption.CREATE,
+                                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                                       StandardOpenOption.WRITE))
+      {
+         writeFully(channel, head);
+
+         for(final byte[] block : blocks)
+         {
+            writeFully(channel, ByteBuffer.wrap(block));
+         }
+      }
+
+      Files.move(tempPath, columnPath, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Returns the number of scores.
+    *
+    * @return the number of rows
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Returns the columns loaded.
+    *
+    * @return the loaded columns
+    */
+   public Set<Column> getColumns()
+   {
+      return columns;
+   }
+
+   /**
+    * Returns the namespace id of every score. The array is not copied.
+    *
+    * @return the namespace column
+    * @throws IllegalStateException if the column is not loaded
+    */
+   public byte[] getNamespaceIds()
+   {
+      return (byte[]) column(Column.NAMESPACE);
+   }
+
+   /**
+    * Returns the time every score was played, in epoch seconds. The array is not copied.
+    *
+    * @return the time column
+    * @throws IllegalStateException if the column is not loaded
+    */
+   public long[] getEpochSeconds()
+   {
+      return (long[]) column(Column.DATE_TIME);
+   }
+
+   /**
+    * Returns a counter column. The array is not copied.
+    *
+    * @param counter one of the four counter columns
+    * @return the counter column
+    * @throws IllegalArgumentException if the column is not a counter
+    * @throws IllegalStateException if the column is not loaded
+    */
+   public int[] getCounter(final Column counter)
+   {
+      if(counter == null || counter == Column.NAMESPACE || counter == Column.DATE_TIME)
+      {
+         throw new IllegalArgumentException("Column must be a counter!");
+      }
+
+      return (int[]) column(counter);
+   }
+
+   /**
+    * Returns the number of scores of a game.
+    *
+    * @param namespace the game
+    * @return the number of scores
+    * @throws IllegalStateException if the namespace column is not loaded
+    */
+   public long count(final ScoreNamespace namespace)
+   {
+      final byte[] ids;
+      final int id;
+      long count;
+
+      ids = getNamespaceIds();
+      id = namespace.getId();
+      count = 0;
+
+      for(int i = 0; i < size; i++)
+      {
+         count += ids[i] == id ? 1 : 0;
+      }
+
+      return count;
+   }
+
+   /**
+    * Returns the total of a counter over the scores of a game.
+    *
+    * @param counter one of the four counter columns
+    * @param namespace the game
+    * @return the total of the counter
+    * @throws IllegalArgumentException if the column is not a counter
+    * @throws IllegalStateException if the namespace or counter column is not loaded
+    */
+   public long total(final Column counter, final ScoreNamespace namespace)
+   {
+      final int[] values;
+      final byte[] ids;
+      final int id;
+      long total;
+
+      values = getCounter(counter);
+      ids = getNamespaceIds();
+      id = namespace.getId();
+      total = 0;
+
+      // A mask instead of a branch keeps the loop vectorizable
+      for(int i = 0; i < size; i++)
+      {
+         total += values[i] & -(ids[i] == id ? 1 : 0);
+      }
+
+      return total;
+   }
+
+   /**
+    * Returns the average points per game of a game over every score, two
+    * points for the second counter and one for the third.
+    *
+    * @param namespace the game
+    * @return the average points per game, or 0 if no game was recorded
+    * @throws IllegalStateException if a needed column is not loaded
+    */
+   public double averagePointsPerGame(final ScoreNamespace namespace)
+   {
+      final long games;
+
+      games = total(Column.GAMES_PLAYED, namespace);
+
+      return games == 0
+             ? 0.0
+             : (double) (2 * total(Column.CORRECT_FIRST, namespace) + total(Column.CORRECT_SECOND, namespace)) /
+               games;
+   }
+
+   /**
+    * Exports a score history to a column file.
+    *
+    * @param args the score log, or a text score file ending in .txt; the
+    *             column file; and optionally {@code --xz} to compress it
+    */
+   public static void main(final String[] args)
+   {
+      final Path sourcePath;
+      final Path columnPath;
+      final boolean isCompressed;
+
+      sourcePath = args.length > 0 ? Paths.get(args[0]) : ScoreSink.SHARED_LOG_PATH;
+      columnPath = args.length > 1 ? Paths.get(args[1]) : Paths.get(sourcePath + FILE_SUFFIX);
+      isCompressed = args.length > 2 && args[2].equals("--xz");
+
+      try
+      {
+         final ScoreColumns history;
+
+         if(sourcePath.getFileName().toString().endsWith(".txt"))
+         {
+            try(final Stream<Score> scores = Score.streamScoresFromFile(sourcePath))
+            {
+               history = of(scores.iterator());
+            }
+         } else
+         {
+            try(final ScoreLog log = ScoreLog.open(sourcePath))
+            {
+               history = of(log);
+            }
+         }
+
+         history.write(columnPath, isCompressed);
+         System.out.println("Exported " + history.size() + " scores to " + columnPath +
+                            " (" + Files.size(columnPath) + " bytes)");
+      } catch(final IOException | IllegalArgumentException | UncheckedIOException e)
+      {
+         System.out.println("Error exporting scores from " + sourcePath.getFileName() + ", " + e.getMessage());
+      }
+   }
+
+   /*
+    * Returns a loaded column.
+    *
+    * @param column the column
+    * @return its array
+    * @throws IllegalStateException if the column is not loaded
+    */
+   private Object column(final Column column)
+   {
+      final Object array;
+
+      array = arrayOf(column);
+
+      if(array == null)
+      {
+         throw new IllegalStateException("Column " + column + " is not loaded");
+      }
+
+      return array;
+   }
+
+   /*
+    * Returns the array of a column.
+    *
+    * @param column the column
+    * @return its array, or null if it is not loaded
+    */
+   private Object arrayOf(final Column column)
+   {
+      return switch(column)
+      {
+         case NAMESPACE -> namespaces;
+         case DATE_TIME -> epochSeconds;
+         case GAMES_PLAYED -> gamesPlayed;
+         case CORRECT_FIRST -> correctFirst;
+         case CORRECT_SECOND -> correctSecond;
+         case INCORRECT -> incorrect;
+      };
+   }
+
+   /*
+    * Encodes a column into the bytes of its block.
+    *
+    * @param column the column
+    * @return the block
+    */
+   private byte[] encode(final Column column)
+   {
+      final ByteBuffer block;
+
+      if(column == Column.NAMESPACE)
+      {
+         return namespaces.clone();
+      }
+
+      if(column == Column.DATE_TIME)
+      {
+         long previous;
+
+         block = ByteBuffer.allocate(size * MAX_VARINT_SIZE);
+         previous = 0;
+
+         for(int i = 0; i < size; i++)
+         {
+            final long delta;
+            long zigzag;
+
+            delta = epochSeconds[i] - previous;
+            previous = epochSeconds[i];
+            zigzag = (delta << 1) ^ (delta >> 63);
+
+            while((zigzag & ~0x7FL) != 0)
+            {
+               block.put((byte) ((zigzag & 0x7F) | 0x80));
+               zigzag >>>= 7;
+            }
+
+            block.put((byte) zigzag);
+         }
+
+         return Arrays.copyOf(block.array(), block.position());
+      }
+
+      block = ByteBuffer.allocate(size * Integer.BYTES);
+      block.asIntBuffer().put((int[]) arrayOf(column), 0, size);
+
+      return block.array();
+   }
+
+   /*
+    * Decodes the bytes of a block into the array of its column.
+    *
+    * @param column the column
+    * @param block the uncompressed block
+    * @param size the number of rows
+    * @return the array of the column
+    * @throws IllegalArgumentException if the block does not hold the rows
+    */
+   private static Object decode(final Column column, final byte[] block, final int size)
+   {
+      final int[] values;
+
+      if(column == Column.DATE_TIME)
+      {
+         return decodeEpochSeconds(block, size);
+      }
+
+      if(column == Column.NAMESPACE ? block.length != size : block.length != size * Integer.BYTES)
+      {
+         throw new IllegalArgumentException("Invalid " + column + " column");
+      }
+
+      if(column == Column.NAMESPACE)
+      {
+         return block;
+      }
+
+      values = new int[size];
+      ByteBuffer.wrap(block).asIntBuffer().get(values);
+
+      return values;
+   }
+
+   /*
+    * Decodes the zigzag varint deltas of the time column.
+    *
+    * @param block the uncompressed block
+    * @param size the number of rows
+    * @return the times, in epoch seconds
+    * @throws IllegalArgumentException if the block does not hold the rows
+    */
+   private static long[] decodeEpochSeconds(final byte[] block, final int size)
+   {
+      final long[] values;
+      long previous;
+      int position;
+
+      values = new long[size];
+      previous = 0;
+      position = 0;
+
+      for(int i = 0; i < size; i++)
+      {
+         long zigzag;
+         int shift;
+         byte b;
+
+         zigzag = 0;
+         shift = 0;
+
+         do
+         {
+            if(position == block.length || shift > 63)
+            {
+               throw new IllegalArgumentException("Invalid " + Column.DATE_TIME + " column");
+            }
+
+            b = block[position++];
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+         } while(b < 0);
+
+         previous += (zigzag >>> 1) ^ -(zigzag & 1);
+         values[i] = previous;
+      }
+
+      return values;
+   }
+
+   /*
+    * Reads bytes from a position of a file.
+    *
+    * @param channel the channel of the file
+    * @param position the file position
+    * @param length the number of bytes
+    * @return the bytes read
+    */
+   private static ByteBuffer readFully(final FileChannel channel, final long position, final int length)
+           throws IOException
+   {
+      final ByteBuffer buffer;
+
+      buffer = ByteBuffer.allocate(length);
+
+      while(buffer.hasRemaining())
+      {
+         if(channel.read(buffer, position + buffer.position()) < 0)
+         {
+            throw new IOException("Unexpected end of column file");
+         }
+      }
+
+      buffer.flip();
+
+      return buffer;
+   }
+
+   /*
+    * Writes a whole buffer at the position of a channel.
+    *
+    * @param channel the channel
+    * @param buffer the bytes to write
+    */
+   private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException
+   {
+      while(buffer.hasRemaining())
+      {
+         channel.write(buffer);
+      }
+   }
+}
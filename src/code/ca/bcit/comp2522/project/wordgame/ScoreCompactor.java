@@ -0,0 +1,250 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The {@code ScoreCompactor} class keeps a {@link ScoreLog} from growing
+ * forever. Scores older than the raw window are rolled into per-day
+ * {@link ScoreRollup} summaries, and day summaries older than the daily window
+ * are merged into per-month ones; only the recent scores stay in the log as
+ * raw records.
+ *
+ * <p>A compaction writes the new rollup and the new log to temporary files and
+ * moves each into place in one step, rollup first. Both are stamped with the
+ * same new generation, so if the process stops between the two moves, the old
+ * log is recognized by its older generation and its records before the rollup
+ * cutoff are skipped instead of being counted twice.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreCompactor
+{
+   /**
+    * Keeps the last 90 days of raw scores and a year of daily summaries.
+    */
+   public static final ScoreCompactor DEFAULT = new ScoreCompactor(Period.ofDays(90), Period.ofYears(1));
+
+   private static final String TEMP_SUFFIX = ".compact";
+
+   private final Period rawWindow;
+   private final Period dailyWindow;
+
+   /**
+    * Constructs a compactor.
+    *
+    * @param rawWindow how long scores are kept as raw records
+    * @param dailyWindow how long day summaries are kept before being merged into months
+    * @throws IllegalArgumentException if a window is null or negative
+    */
+   public ScoreCompactor(final Period rawWindow, final Period dailyWindow)
+   {
+      if(rawWindow == null || dailyWindow == null)
+      {
+         throw new IllegalArgumentException("Windows must not be null!");
+      }
+
+      if(rawWindow.isNegative() || dailyWindow.isNegative())
+      {
+         throw new IllegalArgumentException("Windows must not be negative!");
+      }
+
+      this.rawWindow = rawWindow;
+      this.dailyWindow = dailyWindow;
+   }
+
+   /**
+    * Compacts a score log. The log passed in is closed if it was rewritten,
+    * and the log to use from then on is returned; it is the same log if there
+    * was nothing to compact or the rewritten log could not replace it. The
+    * rewritten log is open before the old one is closed, so whatever fails,
+    * the log the caller ends up with is open.
+    *
+    * @param log the open score log
+    * @param today the current day, from which the windows are counted back
+    * @return the open compacted log
+    * @throws IOException if the log or its rollup cannot be read, or the rewritten log cannot be written;
+    *                     the log passed in is left open
+    * @throws IllegalArgumentException if the log or day is null
+    */
+   public ScoreLog compact(final ScoreLog log, final LocalDate today) throws IOException
+   {
+      final Path logPath;
+      final Path tempPath;
+      final ScoreRollup rollup;
+      final long skipBefore;
+      final long rawCutoff;
+      final LocalDate monthCutoff;
+      final Map<ScoreNamespace, SortedMap<LocalDate, ScoreRollup.Summary>> days;
+      final Map<ScoreNamespace, SortedMap<LocalDate, ScoreRollup.Summary>> months;
+      final List<GameScore> kept;
+      final List<ScoreRollup.Summary> summaries;
+      final int generation;
+      final ScoreLog compacted;
+      boolean isChanged;
+
+      if(log == null || today == null)
+      {
+         throw new IllegalArgumentException("Log and day must not be null!");
+      }
+
+      logPath = log.getPath();
+      tempPath = logPath.resolveSibling(logPath.getFileName() + TEMP_SUFFIX);
+      rollup = ScoreRollup.read(logPath);
+      skipBefore = rollup.skipBefore(log);
+      rawCutoff = Math.max(today.minus(rawWindow).atStartOfDay().toEpochSecond(ZoneOffset.UTC),
+                           rollup.getCutoff());
+      monthCutoff = today.minus(dailyWindow).withDayOfMonth(1);
+      days = new EnumMap<>(ScoreNamespace.class);
+      months = new EnumMap<>(ScoreNamespace.class);
+      kept = new ArrayList<>();
+      summaries = new ArrayList<>();
+      isChanged = skipBefore != Long.MIN_VALUE;
+
+      for(final ScoreRollup.Summary summary : rollup.getSummaries())
+      {
+         if(summary.getGranularity() == ScoreRollup.Granularity.DAY && summary.getStart().isBefore(monthCutoff))
+         {
+            bucket(months, summary.getNamespace(), ScoreRollup.Granularity.MONTH, summary.getStart())
+                    .merge(summary);
+            isChanged = true;
+         } else
+         {
+            bucket(summary.getGranularity() == ScoreRollup.Granularity.DAY ? days : months,
+                   summary.getNamespace(),
+                   summary.getGranularity(),
+                   summary.getStart()).merge(summary);
+         }
+      }
+
+      for(long i = 0; i < log.size(); i++)
+      {
+         final GameScore score;
+         final long epochSecond;
+         final LocalDate day;
+
+         score = log.readAny(i);
+         epochSecond = score.getDateTime().toEpochSecond(ZoneOffset.UTC);
+         day = score.getDateTime().toLocalDate();
+
+         if(epochSecond < skipBefore)
+         {
+            // Left over by an interrupted compaction and already in the rollup
+            continue;
+         }
+
+         if(epochSecond >= rawCutoff)
+         {
+            kept.add(score);
+         } else if(day.isBefore(monthCutoff))
+         {
+            bucket(months, score.getNamespace(), ScoreRollup.Granularity.MONTH, day).add(score);
+            isChanged = true;
+         } else
+         {
+            bucket(days, score.getNamespace(), ScoreRollup.Granularity.DAY, day).add(score);
+            isChanged = true;
+         }
+      }
+
+      if(!isChanged)
+      {
+         return log;
+      }
+
+      days.values().forEach(byDay -> summaries.addAll(byDay.values()));
+      months.values().forEach(byMonth -> summaries.addAll(byMonth.values()));
+      generation = Math.max(log.getGeneration(), rollup.getGeneration()) + 1;
+
+      Files.deleteIfExists(tempPath);
+      compacted = ScoreLog.open(tempPath);
+
+      try
+      {
+         compacted.appendAll(kept);
+         compacted.setGeneration(generation);
+         new ScoreRollup(generation, rawCutoff, summaries).write(logPath);
+      } catch(final IOException | RuntimeException e)
+      {
+         discard(compacted, tempPath);
+         throw e;
+      }
+
+      // Moved while both logs are open and locked, so the path is never free for another writer
+      try
+      {
+         compacted.moveTo(logPath);
+      } catch(final IOException e)
+      {
+         // The old log is still in place, and its generation tells readers to skip what was rolled up
+         System.out.println("Error replacing score log " + logPath.getFileName() + ", " + e.getMessage());
+         discard(compacted, tempPath);
+         return log;
+      }
+
+      try
+      {
+         log.close();
+      } catch(final IOException e)
+      {
+         System.out.println("Error closing replaced score log " + logPath.getFileName() + ", " + e.getMessage());
+      }
+
+      return compacted;
+   }
+
+   /*
+    * Closes and deletes a rewritten log that did not replace the old one.
+    *
+    * @param compacted the rewritten log
+    * @param tempPath the path of the rewritten log
+    */
+   private static void discard(final ScoreLog compacted, final Path tempPath)
+   {
+      try
+      {
+         compacted.close();
+         Files.deleteIfExists(tempPath);
+      } catch(final IOException e)
+      {
+         System.out.println("Error deleting score log " + tempPath.getFileName() + ", " + e.getMessage());
+      }
+   }
+
+   /*
+    * Returns the summary of a period, creating it if it does not exist yet.
+    *
+    * @param summaries the summaries of one granularity, by game and start day
+    * @param namespace the game
+    * @param granularity the length of the period
+    * @param day any day of the period
+    * @return the summary of the period
+    */
+   private static ScoreRollup.Summary bucket(final Map<ScoreNamespace, SortedMap<LocalDate, ScoreRollup.Summary>> summaries,
+                                             final ScoreNamespace namespace,
+                                             final ScoreRollup.Granularity granularity,
+                                             final LocalDate day)
+   {
+      final LocalDate start;
+
+      start = ScoreRollup.Summary.startOf(granularity, day);
+
+      return summaries.computeIfAbsent(namespace, key -> new TreeMap<>())
+                      .computeIfAbsent(start, key -> new ScoreRollup.Summary(namespace, granularity, start));
+   }
+}
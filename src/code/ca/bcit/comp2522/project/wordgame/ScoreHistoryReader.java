@@ -0,0 +1,262 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code ScoreHistoryReader} class reads a large text score history in
+ * parallel. The file is cut into byte ranges, each cut is moved forward to the
+ * start of the next {@code Date and Time:} line so that no record is split, and
+ * every range is parsed by its own {@link ScoreReader} on a fork-join pool. The
+ * scores of the ranges are joined in file order, so the result is the same as
+ * reading the file from start to end.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public final class ScoreHistoryReader
+{
+   /**
+    * The smallest range worth parsing on its own thread.
+    */
+   public static final long MIN_SEGMENT_SIZE = 1L << 20;
+
+   private static final int    SEGMENTS_PER_THREAD = 4;
+   private static final int    SCAN_BUFFER_SIZE    = 8 * 1024;
+   private static final byte[] RECORD_START        = "Date and Time:".getBytes(StandardCharsets.US_ASCII);
+
+   /*
+    * Prevents instantiation of the utility class.
+    */
+   private ScoreHistoryReader()
+   {
+   }
+
+   /**
+    * Reads every score of a history file in parallel.
+    *
+    * @param filePath the score file
+    * @param threads the number of threads parsing the file
+    * @return the scores of the file, in file order
+    * @throws IOException if the file cannot be read
+    * @throws IllegalArgumentException if threads is lower than 1 or the file is not in the score format
+    */
+   public static List<Score> readAll(final Path filePath, final int threads) throws IOException
+   {
+      final long[] bounds;
+      final ForkJoinPool pool;
+      final List<List<Score>> segments;
+      final List<Score> scores;
+
+      if(threads < 1)
+      {
+         throw new IllegalArgumentException("At least one thread is required!");
+      }
+
+      bounds = segmentBounds(filePath, threads * SEGMENTS_PER_THREAD);
+      pool = new ForkJoinPool(threads);
+
+      try
+      {
+         segments = pool.submit(() -> IntStream.range(0, bounds.length - 1)
+                                               .parallel()
+                                               .mapToObj(i -> readSegment(filePath, bounds[i], bounds[i + 1]))
+                                               .toList())
+                        .get();
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IOException("Reading " + filePath.getFileName() + " was interrupted", e);
+      } catch(final ExecutionException e)
+      {
+         if(e.getCause() instanceof UncheckedIOException)
+         {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+         }
+
+         if(e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+
+         throw new IllegalStateException("Error reading " + filePath.getFileName(), e.getCause());
+      } finally
+      {
+         pool.shutdown();
+      }
+
+      scores = new ArrayList<>();
+      segments.forEach(scores::addAll);
+
+      return scores;
+   }
+
+   /**
+    * Cuts a history file into ranges that each start at a record. Range
+    * {@code i} covers the bytes from {@code bounds[i]} up to {@code bounds[i + 1]};
+    * ranges are at least {@link #MIN_SEGMENT_SIZE} bytes long, except when the
+    * whole file is shorter.
+    *
+    * @param filePath the score file
+    * @param segments the number of ranges wanted
+    * @return the bounds of the ranges, starting at 0 and ending at the file size
+    * @throws IOException if the file cannot be read
+    */
+   public static long[] segmentBounds(final Path filePath, final int segments) throws IOException
+   {
+      try(final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ))
+      {
+         final long size;
+         final int count;
+         final List<Long> bounds;
+
+         size = channel.size();
+         count = (int) Math.max(1, Math.min(segments, size / MIN_SEGMENT_SIZE));
+         bounds = new ArrayList<>();
+         bounds.add(0L);
+
+         for(int i = 1; i < count; i++)
+         {
+            final long bound;
+
+            bound = nextRecordStart(channel, size * i / count);
+
+            // A record longer than a range makes two cuts land on the same start
+            if(bound > bounds.get(bounds.size() - 1) && bound < size)
+            {
+               bounds.add(bound);
+            }
+         }
+
+         bounds.add(size);
+
+         return bounds.stream().mapToLong(Long::longValue).toArray();
+      }
+   }
+
+   /*
+    * Parses the scores of one range of a history file.
+    *
+    * @param filePath the score file
+    * @param start the first byte of the range, at the start of a record
+    * @param end the byte after the range
+    * @return the scores of the range
+    */
+   private static List<Score> readSegment(final Path filePath, final long start, final long end)
+   {
+      final List<Score> scores;
+
+      scores = new ArrayList<>();
+
+      try(final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+          final ScoreReader reader = new ScoreReader(channel.position(start), end - start))
+      {
+         reader.forEachRemaining(scores::add);
+      } catch(final IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+
+      return scores;
+   }
+
+   /*
+    * Finds the first line starting at or after a position that begins a record.
+    *
+    * @param channel the channel of the score file
+    * @param from the position to search from
+    * @return the position of the record line, or the file size if there is none
+    */
+   private static long nextRecordStart(final FileChannel channel, final long from) throws IOException
+   {
+      final ByteBuffer buffer;
+      final long size;
+      long position;
+      boolean isLineStart;
+
+      buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE + RECORD_START.length);
+      size = channel.size();
+      position = from;
+      isLineStart = from == 0 || byteAt(channel, from - 1) == '\n';
+
+      while(position < size)
+      {
+         final int read;
+
+         buffer.clear();
+         read = channel.read(buffer, position);
+
+         if(read <= 0)
+         {
+            break;
+         }
+
+         for(int i = 0; i < Math.min(read, SCAN_BUFFER_SIZE); i++)
+         {
+            if(isLineStart && startsRecord(buffer, i, read))
+            {
+               return position + i;
+            }
+
+            isLineStart = buffer.get(i) == '\n';
+         }
+
+         position += Math.min(read, SCAN_BUFFER_SIZE);
+      }
+
+      return size;
+   }
+
+   /*
+    * Checks whether the bytes at an offset of a buffer begin a record line.
+    *
+    * @param buffer the bytes read
+    * @param offset the offset of the line start
+    * @param limit the number of bytes read
+    * @return true if the record label is at the offset
+    */
+   private static boolean startsRecord(final ByteBuffer buffer, final int offset, final int limit)
+   {
+      if(offset + RECORD_START.length > limit)
+      {
+         return false;
+      }
+
+      for(int i = 0; i < RECORD_START.length; i++)
+      {
+         if(buffer.get(offset + i) != RECORD_START[i])
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /*
+    * Reads one byte of a file.
+    *
+    * @param channel the channel of the file
+    * @param position the position of the byte
+    * @return the byte
+    */
+   private static byte byteAt(final FileChannel channel, final long position) throws IOException
+   {
+      final ByteBuffer one;
+
+      one = ByteBuffer.allocate(1);
+      channel.read(one, position);
+
+      return one.get(0);
+   }
+}
@@ -0,0 +1,595 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The {@code ScoreLeaderboard} class keeps the best scores of every game of a
+ * {@link ScoreLog}: the top scores of all time and the top scores of each day,
+ * ranked by average points per game, with the earlier score first on a tie.
+ * Each board holds at most its capacity of scores, sorted best first, so a new
+ * score that does not make a full board is turned away by one comparison with
+ * the last entry, and a rank is found by binary search in O(log K).
+ *
+ * <p>The boards are saved to a file next to the log when the leaderboard is
+ * flushed or closed, each as a fixed number of slots, stamped with the log
+ * generation and the number of records they cover. On open, only the records
+ * appended after that stamp are added, so leaderboard queries never read the
+ * history. The boards are only rebuilt when the file is missing or belongs to
+ * another compaction generation; scores already rolled out of the log then
+ * only come back as the best of their day or month.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreLeaderboard implements Closeable
+{
+   public static final String FILE_SUFFIX      = ".top";
+   public static final int    DEFAULT_CAPACITY = 10;
+
+   private static final int MAGIC     = 0x53544F50;  // "STOP"
+   private static final int VERSION   = 1;
+   private static final int NO_DAY    = Integer.MIN_VALUE;
+   private static final int SLOT_SIZE = 24;
+
+   private final Path filePath;
+   private final int capacity;
+   private final Map<ScoreNamespace, Board> allTime;
+   private final Map<ScoreNamespace, SortedMap<LocalDate, Board>> byDay;
+   private int generation;
+   private long scanned;
+
+   /*
+    * Constructs an empty leaderboard.
+    *
+    * @param filePath the path of the leaderboard file
+    * @param capacity the number of scores kept on each board
+    */
+   private ScoreLeaderboard(final Path filePath, final int capacity)
+   {
+      this.filePath = filePath;
+      this.capacity = capacity;
+      this.allTime = new EnumMap<>(ScoreNamespace.class);
+      this.byDay = new EnumMap<>(ScoreNamespace.class);
+   }
+
+   /**
+    * Opens the leaderboard of a score log, catching up with the records
+    * appended since it was last saved.
+    *
+    * @param log the open score log
+    * @param capacity the number of scores kept on each board
+    * @return the open leaderboard
+    * @throws IOException if the log or its rollup cannot be read
+    * @throws IllegalArgumentException if the log is null or the capacity is lower than 1
+    */
+   public static ScoreLeaderboard open(final ScoreLog log, final int capacity) throws IOException
+   {
+      final ScoreLeaderboard leaderboard;
+      final ScoreRollup rollup;
+      final long skipBefore;
+
+      if(log == null)
+      {
+         throw new IllegalArgumentException("Log must not be null!");
+      }
+
+      if(capacity < 1)
+      {
+         throw new IllegalArgumentException("Capacity must be at least 1!");
+      }
+
+      leaderboard = new ScoreLeaderboard(pathOf(log.getPath()), capacity);
+      rollup = ScoreRollup.read(log.getPath());
+      skipBefore = rollup.skipBefore(log);
+
+      if(!leaderboard.load(log))
+      {
+         leaderboard.clear(log);
+
+         for(final ScoreRollup.Summary summary : rollup.getSummaries())
+         {
+            if(summary.getCount() > 0)
+            {
+               leaderboard.add(summary.getBest());
+            }
+         }
+      }
+
+      for(long i = leaderboard.scanned; i < log.size(); i++)
+      {
+         final GameScore score;
+
+         score = log.readAny(i);
+
+         // Records of a log left behind by an interrupted compaction may already be rolled up
+         if(score.getDateTime().toEpochSecond(ZoneOffset.UTC) >= skipBefore)
+         {
+            leaderboard.add(score);
+         }
+      }
+
+      leaderboard.scanned = log.size();
+
+      return leaderboard;
+   }
+
+   /**
+    * Returns the path of the leaderboard of a score log.
+    *
+    * @param logPath the path of the score log
+    * @return the path of its leaderboard
+    */
+   public static Path pathOf(final Path logPath)
+   {
+      return logPath.resolveSibling(logPath.getFileName() + FILE_SUFFIX);
+   }
+
+   /**
+    * Adds the scores just appended to the log.
+    *
+    * @param scores the scores appended, in order, of any game
+    * @throws IllegalArgumentException if the list or any score is null
+    */
+   public synchronized void addAll(final List<? extends GameScore> scores)
+   {
+      if(scores == null)
+      {
+         throw new IllegalArgumentException("Scores must not be null!");
+      }
+
+      for(final GameScore score : scores)
+      {
+         if(score == null)
+         {
+            throw new IllegalArgumentException("Score must not be null!");
+         }
+
+         add(score);
+      }
+
+      scanned += scores.size();
+   }
+
+   /**
+    * Returns the best scores of a game of all time.
+    *
+    * @param namespace the game
+    * @return the scores, best first
+    */
+   public synchronized List<GameScore> top(final ScoreNamespace namespace)
+   {
+      final Board board;
+
+      board = allTime.get(namespace);
+
+      return board == null ? List.of() : board.toList();
+   }
+
+   /**
+    * Returns the best scores of a game on a day.
+    *
+    * @param namespace the game
+    * @param day the day
+    * @return the scores, best first
+    */
+   public synchronized List<GameScore> topOfDay(final ScoreNamespace namespace, final LocalDate day)
+   {
+      final Board board;
+
+      board = byDay.getOrDefault(namespace, Collections.emptySortedMap()).get(day);
+
+      return board == null ? List.of() : board.toList();
+   }
+
+   /**
+    * Returns the rank a score has, or would have, among the best scores of its
+    * game of all time.
+    *
+    * @param score the score
+    * @return the rank, from 1, or {@code empty} if the score does not make the board
+    * @throws IllegalArgumentException if the score is null
+    */
+   public synchronized OptionalInt rank(final GameScore score)
+   {
+      final Board board;
+      final int position;
+
+      if(score == null)
+      {
+         throw new IllegalArgumentException("Score must not be null!");
+      }
+
+      board = allTime.get(score.getNamespace());
+      position = board == null ? 0 : board.positionOf(ScoreLog.averageOf(score), epochSecondOf(score), true);
+
+      return position < capacity ? OptionalInt.of(position + 1) : OptionalInt.empty();
+   }
+
+   /**
+    * Follows the log after it has been compacted. Compaction drops old records
+    * but not their scores, so the boards stay as they are; only the stamp
+    * moves to the new log.
+    *
+    * @param compacted the compacted log, holding every score added so far
+    * @throws IllegalArgumentException if the log is null
+    */
+   public synchronized void rebase(final ScoreLog compacted)
+   {
+      if(compacted == null)
+      {
+         throw new IllegalArgumentException("Log must not be null!");
+      }
+
+      generation = compacted.getGeneration();
+      scanned = compacted.size();
+   }
+
+   /**
+    * Saves the boards to the leaderboard file. The file is written to a
+    * temporary file first and then moved into place.
+    *
+    * @throws IOException if the file cannot be written
+    */
+   public synchronized void flush() throws IOException
+   {
+      final Path tempPath;
+      final List<Board> boards;
+      final List<Integer> days;
+
+      tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+      boards = new ArrayList<>();
+      days = new ArrayList<>();
+
+      allTime.values().forEach(board ->
+      {
+         boards.add(board);
+         days.add(NO_DAY);
+      });
+      byDay.values().forEach(boardsByDay -> boardsByDay.forEach((day, board) ->
+      {
+         boards.add(board);
+         days.add((int) day.toEpochDay());
+      }));
+
+      try(final DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(tempPath))))
+      {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(capacity);
+         out.writeInt(generation);
+         out.writeLong(scanned);
+         out.writeInt(boards.size());
+
+         for(int i = 0; i < boards.size(); i++)
+         {
+            out.writeInt(boards.get(i).namespace.getId());
+            out.writeInt(days.get(i));
+            boards.get(i).write(out);
+         }
+      }
+
+      Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Saves the boards.
+    *
+    * @throws IOException if the file cannot be written
+    */
+   @Override
+   public void close() throws IOException
+   {
+      flush();
+   }
+
+   /*
+    * Adds a score to the all-time board and the board of its day.
+    *
+    * @param score the score
+    */
+   private void add(final GameScore score)
+   {
+      final ScoreNamespace namespace;
+      final int average;
+      final long epochSecond;
+
+      namespace = score.getNamespace();
+      average = ScoreLog.averageOf(score);
+      epochSecond = epochSecondOf(score);
+
+      allTime.computeIfAbsent(namespace, key -> new Board(namespace, capacity))
+             .add(score, average, epochSecond);
+      byDay.computeIfAbsent(namespace, key -> new TreeMap<>())
+           .computeIfAbsent(score.getDateTime().toLocalDate(), key -> new Board(namespace, capacity))
+           .add(score, average, epochSecond);
+   }
+
+   /*
+    * Loads the boards from the leaderboard file, if it exists, is valid, has
+    * the same capacity and generation as the log, and covers no more records
+    * than the log holds.
+    *
+    * @param log the score log
+    * @return true if the boards were loaded
+    */
+   private boolean load(final ScoreLog log)
+   {
+      if(Files.notExists(filePath))
+      {
+         return false;
+      }
+
+      try(final DataInputStream in = new DataInputStream(
+              new BufferedInputStream(Files.newInputStream(filePath))))
+      {
+         final int boards;
+
+         if(in.readInt() != MAGIC ||
+            in.readInt() != VERSION ||
+            in.readInt() != capacity ||
+            in.readInt() != log.getGeneration())
+         {
+            return false;
+         }
+
+         generation = log.getGeneration();
+         scanned = in.readLong();
+         boards = in.readInt();
+
+         for(int i = 0; i < boards; i++)
+         {
+            final ScoreNamespace namespace;
+            final int day;
+            final Board board;
+
+            namespace = ScoreNamespace.fromId(in.readInt());
+            day = in.readInt();
+            board = new Board(namespace, capacity);
+            board.read(in);
+
+            if(day == NO_DAY)
+            {
+               allTime.put(namespace, board);
+            } else
+            {
+               byDay.computeIfAbsent(namespace, key -> new TreeMap<>()).put(LocalDate.ofEpochDay(day), board);
+            }
+         }
+
+         return scanned >= 0 && scanned <= log.size();
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Error reading leaderboard " + filePath.getFileName() + ", " + e.getMessage());
+         return false;
+      }
+   }
+
+   /*
+    * Empties every board before the log is replayed.
+    *
+    * @param log the score log
+    */
+   private void clear(final ScoreLog log)
+   {
+      allTime.clear();
+      byDay.clear();
+      generation = log.getGeneration();
+      scanned = 0;
+   }
+
+   /*
+    * Returns the time a score was played, in epoch seconds.
+    *
+    * @param score the score
+    * @return the epoch second the score was played
+    */
+   private static long epochSecondOf(final GameScore score)
+   {
+      return score.getDateTime().toEpochSecond(ZoneOffset.UTC);
+   }
+
+   /*
+    * The best scores of one game over some period, best first. The averages
+    * and times are kept in their own arrays so ranking never touches the scores.
+    */
+   private static final class Board
+   {
+      private final ScoreNamespace namespace;
+      private final GameScore[] scores;
+      private final int[] averages;
+      private final long[] epochSeconds;
+      private int size;
+
+      /*
+       * Constructs an empty board.
+       *
+       * @param namespace the game of the board
+       * @param capacity the number of scores kept
+       */
+      private Board(final ScoreNamespace namespace, final int capacity)
+      {
+         this.namespace = namespace;
+         this.scores = new GameScore[capacity];
+         this.averages = new int[capacity];
+         this.epochSeconds = new long[capacity];
+         this.size = 0;
+      }
+
+      /*
+       * Adds a score if it makes the board, dropping the last one if the board is full.
+       *
+       * @param score the score
+       * @param average its average points per game
+       * @param epochSecond the epoch second it was played
+       */
+      private void add(final GameScore score, final int average, final long epochSecond)
+      {
+         final int position;
+         final int moved;
+
+         position = positionOf(average, epochSecond, false);
+
+         if(position == scores.length)
+         {
+            return;
+         }
+
+         moved = Math.min(size, scores.length - 1) - position;
+         System.arraycopy(scores, position, scores, position + 1, moved);
+         System.arraycopy(averages, position, averages, position + 1, moved);
+         System.arraycopy(epochSeconds, position, epochSeconds, position + 1, moved);
+         scores[position] = score;
+         averages[position] = average;
+         epochSeconds[position] = epochSecond;
+         size = Math.min(size + 1, scores.length);
+      }
+
+      /*
+       * Finds the position a score would take: after every entry with a higher
+       * average, or the same average at an earlier time.
+       *
+       * @param average the average points per game
+       * @param epochSecond the epoch second the score was played
+       * @param isTieAhead whether the score goes ahead of entries equal to it
+       * @return the position, from 0
+       */
+      private int positionOf(final int average, final long epochSecond, final boolean isTieAhead)
+      {
+         int low;
+         int high;
+
+         low = 0;
+         high = size;
+
+         // A full board turns weaker scores away without searching
+         if(size == scores.length && !isBefore(average, epochSecond, size - 1, isTieAhead))
+         {
+            return size;
+         }
+
+         while(low < high)
+         {
+            final int middle;
+
+            middle = (low + high) >>> 1;
+
+            if(isBefore(average, epochSecond, middle, isTieAhead))
+            {
+               high = middle;
+            } else
+            {
+               low = middle + 1;
+            }
+         }
+
+         return low;
+      }
+
+      /*
+       * Checks whether a score ranks ahead of an entry.
+       *
+       * @param average the average points per game of the score
+       * @param epochSecond the epoch second the score was played
+       * @param entry the position of the entry
+       * @param isTieAhead whether the score ranks ahead of an entry equal to it
+       * @return true if the score ranks ahead
+       */
+      private boolean isBefore(final int average,
+                               final long epochSecond,
+                               final int entry,
+                               final boolean isTieAhead)
+      {
+         return average > averages[entry] ||
+                (average == averages[entry] &&
+                 (epochSecond < epochSeconds[entry] || (isTieAhead && epochSecond == epochSeconds[entry])));
+      }
+
+      /*
+       * Returns the scores of the board, best first.
+       *
+       * @return the scores
+       */
+      private List<GameScore> toList()
+      {
+         return List.copyOf(Arrays.asList(scores).subList(0, size));
+      }
+
+      /*
+       * Writes the board as a fixed number of slots, empty ones zeroed.
+       *
+       * @param out the stream to write to
+       */
+      private void write(final DataOutputStream out) throws IOException
+      {
+         out.writeInt(size);
+
+         for(int i = 0; i < scores.length; i++)
+         {
+            final boolean isFilled;
+
+            isFilled = i < size;
+            out.writeLong(isFilled ? epochSeconds[i] : 0);
+            out.writeInt(isFilled ? scores[i].getNumGamesPlayed() : 0);
+            out.writeInt(isFilled ? scores[i].getNumCorrectFirstAttempt() : 0);
+            out.writeInt(isFilled ? scores[i].getNumCorrectSecondAttempt() : 0);
+            out.writeInt(isFilled ? scores[i].getNumIncorrectTwoAttempts() : 0);
+         }
+      }
+
+      /*
+       * Reads a board written by write.
+       *
+       * @param in the stream to read from
+       */
+      private void read(final DataInputStream in) throws IOException
+      {
+         final int stored;
+
+         stored = in.readInt();
+
+         if(stored < 0 || stored > scores.length)
+         {
+            throw new IOException("Invalid board size " + stored);
+         }
+
+         for(int i = 0; i < stored; i++)
+         {
+            epochSeconds[i] = in.readLong();
+            scores[i] = ScoreLog.scoreOf(namespace,
+                                         LocalDateTime.ofEpochSecond(epochSeconds[i], 0, ZoneOffset.UTC),
+                                         in.readInt(),
+                                         in.readInt(),
+                                         in.readInt(),
+                                         in.readInt());
+            averages[i] = ScoreLog.averageOf(scores[i]);
+         }
+
+         in.skipNBytes((long) (scores.length - stored) * SLOT_SIZE);
+         size = stored;
+      }
+   }
+}
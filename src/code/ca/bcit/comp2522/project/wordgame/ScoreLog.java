@@ -0,0 +1,906 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code ScoreLog} class is an append-only binary log of {@link Score}
+ * records. Every record has the same width, so record {@code i} is found by
+ * arithmetic instead of by scanning, and the header keeps the record count and
+ * the index of the highest score. Appending a score and fetching the high
+ * score therefore cost O(1) however long the history is.
+ *
+ * <p>The file layout is, in big-endian order:
+ * <ul>
+ *   <li>a {@value #HEADER_SIZE}-byte header: magic, version, record size and
+ *       compaction generation (ints), the record count, the index of the
+ *       highest score or {@code -1} and the durable record count (longs), then
+ *       reserved bytes;</li>
+ *   <li>{@value #RECORD_SIZE}-byte records: the date and time in epoch seconds
+ *       (long), the games played, correct first attempts, correct second
+ *       attempts and incorrect attempts (ints), a CRC-32C checksum of the other
+ *       bytes of the record and the id of the record's {@link ScoreNamespace}.</li>
+ * </ul>
+ *
+ * <p>Scores of other games can be appended to the same log as any
+ * {@link GameScore}; they are counted and checksummed like word game scores,
+ * but the reading methods and the high score skip them.
+ *
+ * <p>Records are written before the header that counts them, and the durable
+ * count only moves after {@link #force()} has flushed them to the device. When
+ * the log is opened, records past the durable count are kept only while their
+ * checksums match, so a torn or unflushed tail is cut off at the last whole
+ * record. The methods of a log are synchronized, so it can be shared between
+ * threads, and the file is locked while the log is open, so it has only one
+ * writer.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreLog implements Closeable
+{
+   public static final int HEADER_SIZE = 64;
+   public static final int RECORD_SIZE = 32;
+
+   private static final int  MAGIC          = 0x534C4F47;  // "SLOG"
+   private static final int  VERSION        = 2;
+   private static final int  UNCHECKED      = 1;
+   private static final int  MAGIC_POS      = 0;
+   private static final int  VERSION_POS    = 4;
+   private static final int  RECORD_POS     = 8;
+   private static final int  GENERATION_POS = 12;
+   private static final int  COUNT_POS      = 16;
+   private static final int  MAX_INDEX_POS  = 24;
+   private static final int  DURABLE_POS    = 32;
+   private static final int  CRC_POS        = 24;
+   private static final int  NAMESPACE_POS  = 28;
+   private static final long NO_RECORD      = -1L;
+   private static final int  IMPORT_BATCH   = 4096;
+
+   private Path path;
+   private final FileChannel channel;
+   private final ByteBuffer header;
+   private final ByteBuffer record;
+   private final CRC32C crc;
+   private ByteBuffer batch;
+   private long count;
+   private long durableCount;
+   private long maxIndex;
+   private int maxScore;
+   private int generation;
+
+   /*
+    * Constructs an empty log over an open channel.
+    *
+    * @param path the path of the log file
+    * @param channel the channel of the log file
+    */
+   private ScoreLog(final Path path, final FileChannel channel)
+   {
+      this.path = path;
+      this.channel = channel;
+      this.header = ByteBuffer.allocate(HEADER_SIZE);
+      this.record = ByteBuffer.allocate(RECORD_SIZE);
+      this.crc = new CRC32C();
+      this.batch = ByteBuffer.allocate(RECORD_SIZE);
+      this.count = 0;
+      this.durableCount = 0;
+      this.maxIndex = NO_RECORD;
+      this.maxScore = 0;
+      this.generation = 0;
+   }
+
+   /**
+    * Opens a score log, creating an empty one if the file does not exist.
+    *
+    * @param logPath the path of the log
+    * @return the open log
+    * @throws IOException if the log cannot be opened
+    * @throws IllegalArgumentException if the file is not a score log
+    */
+   public static ScoreLog open(final Path logPath) throws IOException
+   {
+      final FileChannel channel;
+
+      if(logPath.getParent() != null)
+      {
+         Files.createDirectories(logPath.getParent());
+      }
+
+      channel = FileChannel.open(logPath,
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE);
+
+      try
+      {
+         final ByteBuffer buffer;
+
+         // Two writers would each keep their own count and overwrite each other's records
+         if(channel.tryLock() == null)
+         {
+            throw new IOException("Score log " + logPath.getFileName() + " is in use by another process");
+         }
+
+         if(channel.size() == 0)
+         {
+            final ScoreLog log;
+
+            log = new ScoreLog(logPath, channel);
+            log.writeHeader();
+
+            return log;
+         }
+
+         buffer = ByteBuffer.allocate(HEADER_SIZE);
+
+         if(channel.size() < HEADER_SIZE ||
+            channel.read(buffer, 0) < HEADER_SIZE ||
+            buffer.getInt(MAGIC_POS) != MAGIC ||
+            (buffer.getInt(VERSION_POS) != VERSION && buffer.getInt(VERSION_POS) != UNCHECKED) ||
+            buffer.getInt(RECORD_POS) != RECORD_SIZE)
+         {
+            throw new IllegalArgumentException("Invalid score log " + logPath.getFileName());
+         }
+
+         if(buffer.getInt(VERSION_POS) == UNCHECKED)
+         {
+            return upgrade(logPath, channel, buffer);
+         }
+
+         return recover(logPath, channel, buffer);
+      } catch(final OverlappingFileLockException e)
+      {
+         channel.close();
+         throw new IOException("Score log " + logPath.getFileName() + " is already open", e);
+      } catch(final IOException | RuntimeException e)
+      {
+         channel.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Appends a score to the log, updating the high score if it is beaten.
+    *
+    * @param score the score to append
+    * @return the index of the new record
+    * @throws IOException if the log cannot be written
+    * @throws IllegalArgumentException if the score is null
+    */
+   public synchronized long append(final Score score) throws IOException
+   {
+      return appendAll(Collections.singletonList(score));
+   }
+
+   /**
+    * Appends several scores to the log with one write of the records and one
+    * of the header, updating the high score if a word game score beats it.
+    *
+    * @param scores the scores to append, in order, of any game
+    * @return the index of the first new record
+    * @throws IOException if the log cannot be written
+    * @throws IllegalArgumentException if the list or any score is null
+    */
+   public synchronized long appendAll(final List<? extends GameScore> scores) throws IOException
+   {
+      final long first;
+      final int size;
+
+      if(scores == null)
+      {
+         throw new IllegalArgumentException("Scores must not be null!");
+      }
+
+      for(final GameScore score : scores)
+      {
+         if(score == null)
+         {
+            throw new IllegalArgumentException("Score must not be null!");
+         }
+      }
+
+      first = count;
+      size = scores.size() * RECORD_SIZE;
+
+      if(batch.capacity() < size)
+      {
+         batch = ByteBuffer.allocate(Integer.highestOneBit(size - 1) << 1);
+      }
+
+      batch.clear();
+
+      for(final GameScore score : scores)
+      {
+         encode(score, batch);
+      }
+
+      batch.flip();
+      writeFully(batch, HEADER_SIZE + first * RECORD_SIZE);
+
+      for(final GameScore score : scores)
+      {
+         final int average;
+
+         average = averageOf(score);
+
+         if(score.getNamespace() == ScoreNamespace.WORD_GAME && (maxIndex == NO_RECORD || average > maxScore))
+         {
+            maxIndex = count;
+            maxScore = average;
+         }
+
+         count++;
+      }
+
+      writeHeader();
+
+      return first;
+   }
+
+   /**
+    * Flushes every appended record to the storage device and marks them as
+    * durable, so they are trusted without checking when the log is reopened.
+    *
+    * @throws IOException if the log cannot be flushed
+    */
+   public synchronized void force() throws IOException
+   {
+      if(durableCount == count)
+      {
+         return;
+      }
+
+      channel.force(false);
+      durableCount = count;
+      writeHeader();
+   }
+
+   /**
+    * Reads one record of the log.
+    *
+    * @param index the index of the record
+    * @return the score stored in the record
+    * @throws IOException if the log cannot be read
+    * @throws IndexOutOfBoundsException if there is no record at the index
+    * @throws IllegalArgumentException if the record belongs to another game
+    */
+   public synchronized Score read(final long index) throws IOException
+   {
+      readChecked(index);
+
+      if(record.getInt(NAMESPACE_POS) != ScoreNamespace.WORD_GAME.getId())
+      {
+         throw new IllegalArgumentException("Score " + index + " belongs to another game");
+      }
+
+      return new Score(LocalDateTime.ofEpochSecond(record.getLong(), 0, ZoneOffset.UTC),
+                       record.getInt(),
+                       record.getInt(),
+                       record.getInt(),
+                       record.getInt());
+   }
+
+   /**
+    * Reads every word game record of the log in order.
+    *
+    * @return every word game score of the log
+    * @throws IOException if the log cannot be read
+    */
+   public synchronized List<Score> readAll() throws IOException
+   {
+      final List<Score> scores;
+
+      scores = new ArrayList<>();
+
+      for(long i = 0; i < count; i++)
+      {
+         if(isWordGame(i))
+         {
+            scores.add(read(i));
+         }
+      }
+
+      return scores;
+   }
+
+   /**
+    * Checks whether a record holds a word game score.
+    *
+    * @param index the index of the record
+    * @return true if the record is a word game score
+    * @throws IOException if the log cannot be read
+    * @throws IndexOutOfBoundsException if there is no record at the index
+    */
+   public synchronized boolean isWordGame(final long index) throws IOException
+   {
+      readChecked(index);
+
+      return record.getInt(NAMESPACE_POS) == ScoreNamespace.WORD_GAME.getId();
+   }
+
+   /**
+    * Reads one record of the log, whatever game it belongs to.
+    *
+    * @param index the index of the record
+    * @return the score stored in the record
+    * @throws IOException if the log cannot be read
+    * @throws IndexOutOfBoundsException if there is no record at the index
+    * @throws IllegalArgumentException if the record belongs to an unknown game
+    */
+   public synchronized GameScore readAny(final long index) throws IOException
+   {
+      final ScoreNamespace namespace;
+
+      readChecked(index);
+      namespace = ScoreNamespace.fromId(record.getInt(NAMESPACE_POS));
+
+      if(namespace == ScoreNamespace.WORD_GAME)
+      {
+         return read(index);
+      }
+
+      return new StoredScore(namespace,
+                             LocalDateTime.ofEpochSecond(record.getLong(), 0, ZoneOffset.UTC),
+                             record.getInt(),
+                             record.getInt(),
+                             record.getInt(),
+                             record.getInt());
+   }
+
+   /**
+    * Returns the path of the log file.
+    *
+    * @return the path of the log
+    */
+   public synchronized Path getPath()
+   {
+      return path;
+   }
+
+   /**
+    * Moves the log file over another path while the log stays open and
+    * locked, so no other writer can open the file at its new path first.
+    *
+    * @param target the new path of the log file
+    * @throws IOException if the file cannot be moved
+    */
+   synchronized void moveTo(final Path target) throws IOException
+   {
+      Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      path = target;
+   }
+
+   /**
+    * Checks whether the log is still open.
+    *
+    * @return true if the log has not been closed
+    */
+   public boolean isOpen()
+   {
+      return channel.isOpen();
+   }
+
+   /**
+    * Returns the compaction generation of the log: zero for a log that was
+    * never compacted, and the generation of the compaction that wrote it
+    * otherwise.
+    *
+    * @return the compaction generation
+    */
+   public synchronized int getGeneration()
+   {
+      return generation;
+   }
+
+   /**
+    * Sets the compaction generation of the log.
+    *
+    * @param generation the compaction generation
+    * @throws IOException if the header cannot be written
+    */
+   synchronized void setGeneration(final int generation) throws IOException
+   {
+      this.generation = generation;
+      writeHeader();
+   }
+
+   /**
+    * Returns the number of records in the log.
+    *
+    * @return the number of scores
+    */
+   public synchronized long size()
+   {
+      return count;
+   }
+
+   /**
+    * Returns the highest score of the log, by average points per game. When
+    * several scores tie, the earliest one is kept.
+    *
+    * @return the highest score, or {@code empty} if the log is empty
+    * @throws IOException if the log cannot be read
+    */
+   public synchronized Optional<Score> highScore() throws IOException
+   {
+      return maxIndex == NO_RECORD ? Optional.empty() : Optional.of(read(maxIndex));
+   }
+
+   /**
+    * Closes the log file.
+    *
+    * @throws IOException if the file cannot be closed
+    */
+   @Override
+   public synchronized void close() throws IOException
+   {
+      try
+      {
+         force();
+      } finally
+      {
+         channel.close();
+      }
+   }
+
+   /**
+    * Imports the scores of a text score file, in the format written by
+    * {@link Score#appendScoreToFile(Score, String)}, into a log. Memory game
+    * records in the file are imported into the memory game namespace.
+    *
+    * @param textPath the text score file
+    * @param log the log to append to
+    * @return the number of scores imported
+    * @throws IOException if the text file cannot be read or the log cannot be written
+    * @throws IllegalArgumentException if the text file is not in the score format
+    */
+   public static int importText(final Path textPath, final ScoreLog log) throws IOException
+   {
+      final List<GameScore> batch;
+      int imported;
+
+      batch = new ArrayList<>();
+      imported = 0;
+
+      try(final ScoreReader reader = ScoreReader.open(textPath))
+      {
+         while(reader.hasNextRecord())
+         {
+            batch.add(reader.nextRecord());
+
+            if(batch.size() == IMPORT_BATCH)
+            {
+               imported += batch.size();
+               log.appendAll(batch);
+               batch.clear();
+            }
+         }
+      } catch(final UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+
+      log.appendAll(batch);
+
+      return imported + batch.size();
+   }
+
+   /**
+    * Migrates a text score file to a score log.
+    *
+    * @param args optionally the text score file and the log path
+    */
+   public static void main(final String[] args)
+   {
+      final Path textPath;
+      final Path logPath;
+
+      textPath = args.length > 0 ? Paths.get(args[0]) : Paths.get("src", "output", WordGame.SCORE_FILE);
+      logPath = args.length > 1 ? Paths.get(args[1]) : Paths.get("src", "output", "score.log");
+
+      try(final ScoreLog log = open(logPath))
+      {
+         final int imported;
+
+         imported = importText(textPath, log);
+         System.out.println("Imported " + imported + " scores into " + logPath + " (" + log.size() + " in total)");
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Error importing scores from " + textPath.getFileName() + ", " + e.getMessage());
+      }
+   }
+
+   /*
+    * Writes the header with the current record count and high score.
+    *
+    * @throws IOException if the header cannot be written
+    */
+   private void writeHeader() throws IOException
+   {
+      header.clear();
+      header.putInt(MAGIC_POS, MAGIC);
+      header.putInt(VERSION_POS, VERSION);
+      header.putInt(RECORD_POS, RECORD_SIZE);
+      header.putInt(GENERATION_POS, generation);
+      header.putLong(COUNT_POS, count);
+      header.putLong(MAX_INDEX_POS, maxIndex);
+      header.putLong(DURABLE_POS, durableCount);
+
+      writeFully(header, 0);
+   }
+
+   /*
+    * Opens a log whose header has been validated: records up to the durable
+    * count are trusted, and the records after it are kept up to the first one
+    * that is incomplete or fails its checksum. Everything after is cut off.
+    *
+    * @param logPath the path of the log file
+    * @param channel the channel of the log file
+    * @param buffer the header of the file
+    * @return the open log
+    * @throws IOException if the log cannot be read or repaired
+    */
+   private static ScoreLog recover(final Path logPath,
+                                   final FileChannel channel,
+                                   final ByteBuffer buffer) throws IOException
+   {
+      final long complete;
+      final long headerCount;
+      final long durable;
+      final ScoreLog log;
+      long count;
+      long maxIndex;
+
+      complete = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+      headerCount = Math.min(buffer.getLong(COUNT_POS), complete);
+      durable = Math.max(0, Math.min(buffer.getLong(DURABLE_POS), headerCount));
+      log = new ScoreLog(logPath, channel);
+      log.generation = buffer.getInt(GENERATION_POS);
+      count = durable;
+
+      while(count < complete)
+      {
+         log.readRecord(count);
+
+         if(!log.isValid(log.record))
+         {
+            break;
+         }
+
+         count++;
+      }
+
+      maxIndex = buffer.getLong(MAX_INDEX_POS);
+      log.count = count;
+      log.durableCount = count;
+
+      if(maxIndex >= 0 && maxIndex < Math.min(count, headerCount))
+      {
+         // The stored high score covers the first headerCount records
+         log.maxIndex = maxIndex;
+         log.maxScore = averageOf(log.read(maxIndex));
+         log.rescan(headerCount);
+      } else
+      {
+         log.rescan(0);
+      }
+
+      channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+      channel.force(false);
+      log.writeHeader();
+
+      return log;
+   }
+
+   /*
+    * Opens a log written before records had checksums, adding a checksum to
+    * every counted record and raising the version of the file.
+    *
+    * @param logPath the path of the log file
+    * @param channel the channel of the log file
+    * @param buffer the header of the file
+    * @return the open log
+    * @throws IOException if the log cannot be read or rewritten
+    */
+   private static ScoreLog upgrade(final Path logPath,
+                                   final FileChannel channel,
+                                   final ByteBuffer buffer) throws IOException
+   {
+      final long count;
+      final ScoreLog log;
+
+      count = Math.min(buffer.getLong(COUNT_POS), (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+      log = new ScoreLog(logPath, channel);
+
+      for(long i = 0; i < count; i++)
+      {
+         log.readRecord(i);
+         log.record.putInt(CRC_POS, log.checksum(log.record));
+         log.writeFully(log.record.rewind(), HEADER_SIZE + i * RECORD_SIZE);
+      }
+
+      log.count = count;
+      log.rescan(0);
+      channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+      channel.force(false);
+      log.durableCount = count;
+      log.writeHeader();
+
+      return log;
+   }
+
+   /*
+    * Updates the high score with the records from an index to the end.
+    *
+    * @param from the first record to look at
+    * @throws IOException if the log cannot be read
+    */
+   private void rescan(final long from) throws IOException
+   {
+      for(long i = from; i < count; i++)
+      {
+         final int average;
+
+         if(!isWordGame(i))
+         {
+            continue;
+         }
+
+         average = averageOf(read(i));
+
+         if(maxIndex == NO_RECORD || average > maxScore)
+         {
+            maxIndex = i;
+            maxScore = average;
+         }
+      }
+   }
+
+   /*
+    * Reads the raw bytes of a record into the record buffer, ready to get.
+    *
+    * @param index the index of the record
+    * @throws IOException if the log cannot be read
+    */
+   private void readRecord(final long index) throws IOException
+   {
+      record.clear();
+
+      while(record.hasRemaining())
+      {
+         if(channel.read(record, HEADER_SIZE + index * RECORD_SIZE + record.position()) < 0)
+         {
+            throw new IOException("Unexpected end of score log");
+         }
+      }
+
+      record.flip();
+   }
+
+   /*
+    * Reads a record into the record buffer and checks its checksum.
+    *
+    * @param index the index of the record
+    * @throws IOException if the log cannot be read or the record is corrupt
+    */
+   private void readChecked(final long index) throws IOException
+   {
+      if(index < 0 || index >= count)
+      {
+         throw new IndexOutOfBoundsException("No score at index " + index);
+      }
+
+      readRecord(index);
+
+      if(!isValid(record))
+      {
+         throw new IOException("Corrupt score record " + index);
+      }
+   }
+
+   /*
+    * Writes a score as a record at the position of a buffer.
+    *
+    * @param score the score
+    * @param buffer the buffer to write to
+    */
+   private void encode(final GameScore score, final ByteBuffer buffer)
+   {
+      final int start;
+
+      start = buffer.position();
+      buffer.putLong(score.getDateTime().toEpochSecond(ZoneOffset.UTC));
+      buffer.putInt(score.getNumGamesPlayed());
+      buffer.putInt(score.getNumCorrectFirstAttempt());
+      buffer.putInt(score.getNumCorrectSecondAttempt());
+      buffer.putInt(score.getNumIncorrectTwoAttempts());
+      buffer.putInt(0);
+      buffer.putInt(score.getNamespace().getId());
+      buffer.putInt(start + CRC_POS, checksum(buffer.slice(start, RECORD_SIZE)));
+   }
+
+   /*
+    * Checks the checksum of the record in a buffer.
+    *
+    * @param buffer the record, from position 0
+    * @return true if the stored checksum matches the record
+    */
+   private boolean isValid(final ByteBuffer buffer)
+   {
+      return buffer.getInt(CRC_POS) == checksum(buffer);
+   }
+
+   /*
+    * Computes the checksum of a record, covering every byte but the checksum.
+    *
+    * @param buffer the record, from position 0
+    * @return the checksum
+    */
+   private int checksum(final ByteBuffer buffer)
+   {
+      crc.reset();
+      crc.update(buffer.slice(0, CRC_POS));
+      crc.update(buffer.slice(CRC_POS + Integer.BYTES, RECORD_SIZE - CRC_POS - Integer.BYTES));
+
+      return (int) crc.getValue();
+   }
+
+   /*
+    * Writes a whole buffer at a position of the file.
+    *
+    * @param buffer the bytes to write
+    * @param position the file position
+    * @throws IOException if the bytes cannot be written
+    */
+   private void writeFully(final ByteBuffer buffer, final long position) throws IOException
+   {
+      while(buffer.hasRemaining())
+      {
+         channel.write(buffer, position + buffer.position());
+      }
+   }
+
+   /**
+    * Returns the average points per game of a score, the figure scores are
+    * ranked by, treating a score with no games as zero.
+    *
+    * @param score the score of any game
+    * @return the average points per game
+    */
+   static int averageOf(final GameScore score)
+   {
+      return score.getNumGamesPlayed() == 0
+             ? 0
+             : (score.getNumCorrectFirstAttempt() * 2 + score.getNumCorrectSecondAttempt()) / score.getNumGamesPlayed();
+   }
+
+   /**
+    * Rebuilds a stored score: a {@link Score} for the word game, and a plain
+    * {@link GameScore} for other games.
+    *
+    * @param namespace the game of the score
+    * @param dateTime the date and time the game was played
+    * @param numGamesPlayed the first counter
+    * @param numCorrectFirstAttempt the second counter
+    * @param numCorrectSecondAttempt the third counter
+    * @param numIncorrectTwoAttempts the fourth counter
+    * @return the score
+    */
+   static GameScore scoreOf(final ScoreNamespace namespace,
+                            final LocalDateTime dateTime,
+                            final int numGamesPlayed,
+                            final int numCorrectFirstAttempt,
+                            final int numCorrectSecondAttempt,
+                            final int numIncorrectTwoAttempts)
+   {
+      if(namespace == ScoreNamespace.WORD_GAME)
+      {
+         return new Score(dateTime,
+                          numGamesPlayed,
+                          numCorrectFirstAttempt,
+                          numCorrectSecondAttempt,
+                          numIncorrectTwoAttempts);
+      }
+
+      return new StoredScore(namespace,
+                             dateTime,
+                             numGamesPlayed,
+                             numCorrectFirstAttempt,
+                             numCorrectSecondAttempt,
+                             numIncorrectTwoAttempts);
+   }
+
+   /*
+    * A score of another game, as stored in the log.
+    */
+   private static final class StoredScore implements GameScore
+   {
+      private final ScoreNamespace namespace;
+      private final LocalDateTime dateTime;
+      private final int numGamesPlayed;
+      private final int numCorrectFirstAttempt;
+      private final int numCorrectSecondAttempt;
+      private final int numIncorrectTwoAttempts;
+
+      /*
+       * Constructs a stored score.
+       *
+       * @param namespace the game of the score
+       * @param dateTime the date and time the game was played
+       * @param numGamesPlayed the first counter
+       * @param numCorrectFirstAttempt the second counter
+       * @param numCorrectSecondAttempt the third counter
+       * @param numIncorrectTwoAttempts the fourth counter
+       */
+      private StoredScore(final ScoreNamespace namespace,
+                          final LocalDateTime dateTime,
+                          final int numGamesPlayed,
+                          final int numCorrectFirstAttempt,
+                          final int numCorrectSecondAttempt,
+                          final int numIncorrectTwoAttempts)
+      {
+         this.namespace = namespace;
+         this.dateTime = dateTime;
+         this.numGamesPlayed = numGamesPlayed;
+         this.numCorrectFirstAttempt = numCorrectFirstAttempt;
+         this.numCorrectSecondAttempt = numCorrectSecondAttempt;
+         this.numIncorrectTwoAttempts = numIncorrectTwoAttempts;
+      }
+
+      @Override
+      public ScoreNamespace getNamespace()
+      {
+         return namespace;
+      }
+
+      @Override
+      public LocalDateTime getDateTime()
+      {
+         return dateTime;
+      }
+
+      @Override
+      public int getNumGamesPlayed()
+      {
+         return numGamesPlayed;
+      }
+
+      @Override
+      public int getNumCorrectFirstAttempt()
+      {
+         return numCorrectFirstAttempt;
+      }
+
+      @Override
+      public int getNumCorrectSecondAttempt()
+      {
+         return numCorrectSecondAttempt;
+      }
+
+      @Override
+      public int getNumIncorrectTwoAttempts()
+      {
+         return numIncorrectTwoAttempts;
+      }
+   }
+}
@@ -0,0 +1,404 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import ca.bcit.comp2522.project.util.ScoreTextScanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The {@code ScoreReader} class reads the text score format written by
+ * {@link Score#appendScoreToFile(Score, String)} one record at a time. Bytes
+ * are pulled through a fixed buffer and every line is decoded into the same
+ * reused line buffer, so memory stays constant however long the history is,
+ * and a caller that stops early never reads the rest of the file.
+ *
+ * <p>The format is plain ASCII; each byte is read as one character.
+ *
+ * <p>Score files may also hold the records of the memory game, written by
+ * {@code MyScore}. Iterating the reader yields word game scores only and skips
+ * the others; {@link #nextRecord()} returns the records of every game.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreReader implements Iterator<Score>, Closeable
+{
+   private static final int BUFFER_SIZE       = 64 * 1024;
+   private static final int LINE_CAPACITY     = 128;
+   private static final int LINES_PER_SCORE   = 6;
+
+   private final ReadableByteChannel channel;
+   private final ByteBuffer buffer;
+   private final StringBuilder line;
+   private long remaining;
+   private GameScore next;
+   private boolean isEndOfInput;
+
+   /**
+    * Constructs a reader over a channel positioned at the start of a record.
+    *
+    * @param channel the channel to read from
+    * @throws IllegalArgumentException if the channel is null
+    */
+   public ScoreReader(final ReadableByteChannel channel)
+   {
+      this(channel, Long.MAX_VALUE);
+   }
+
+   /**
+    * Constructs a reader over the next bytes of a channel positioned at the
+    * start of a record. Reading stops after {@code length} bytes, which should
+    * end at a record boundary.
+    *
+    * @param channel the channel to read from
+    * @param length the number of bytes to read
+    * @throws IllegalArgumentException if the channel is null or the length is negative
+    */
+   public ScoreReader(final ReadableByteChannel channel, final long length)
+   {
+      if(channel == null)
+      {
+         throw new IllegalArgumentException("Channel must not be null!");
+      }
+
+      if(length < 0)
+      {
+         throw new IllegalArgumentException("Length must not be negative!");
+      }
+
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      this.line = new StringBuilder(LINE_CAPACITY);
+      this.remaining = length;
+      this.next = null;
+      this.isEndOfInput = false;
+
+      buffer.flip();
+   }
+
+   /**
+    * Opens a reader over a score file.
+    *
+    * @param filePath the score file
+    * @return the reader
+    * @throws IOException if the file cannot be opened
+    */
+   public static ScoreReader open(final Path filePath) throws IOException
+   {
+      return new ScoreReader(FileChannel.open(filePath, StandardOpenOption.READ));
+   }
+
+   /**
+    * Streams the scores of a file in order. The stream must be closed, which
+    * closes the file.
+    *
+    * @param filePath the score file
+    * @return the scores of the file
+    * @throws IOException if the file cannot be opened
+    */
+   public static Stream<Score> stream(final Path filePath) throws IOException
+   {
+      final ScoreReader reader;
+
+      reader = open(filePath);
+
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader,
+                                                                      Spliterator.ORDERED | Spliterator.NONNULL),
+                                  false)
+                          .onClose(reader::closeUnchecked);
+   }
+
+   /**
+    * Checks whether another word game score can be read, skipping the records
+    * of other games.
+    *
+    * @return true if there is another score
+    * @throws UncheckedIOException if the channel cannot be read
+    * @throws IllegalArgumentException if a line is not in the score format
+    */
+   @Override
+   public boolean hasNext()
+   {
+      while(hasNextRecord() && next.getNamespace() != ScoreNamespace.WORD_GAME)
+      {
+         next = null;
+      }
+
+      return next != null;
+   }
+
+   /**
+    * Reads the next word game score, skipping the records of other games.
+    *
+    * @return the next score
+    * @throws NoSuchElementException if there are no more scores
+    * @throws UncheckedIOException if the channel cannot be read
+    * @throws IllegalArgumentException if a line is not in the score format
+    */
+   @Override
+   public Score next()
+   {
+      if(!hasNext())
+      {
+         throw new NoSuchElementException("No more scores");
+      }
+
+      return (Score) nextRecord();
+   }
+
+   /**
+    * Checks whether another record of any game can be read.
+    *
+    * @return true if there is another record
+    * @throws UncheckedIOException if the channel cannot be read
+    * @throws IllegalArgumentException if a line is not in the score format
+    */
+   public boolean hasNextRecord()
+   {
+      if(next == null && !isEndOfInput)
+      {
+         try
+         {
+            next = readRecord();
+         } catch(final IOException e)
+         {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      return next != null;
+   }
+
+   /**
+    * Reads the next record of any game: a {@link Score} for the word game,
+    * and a plain {@link GameScore} in the namespace of its game otherwise.
+    *
+    * @return the next record
+    * @throws NoSuchElementException if there are no more records
+    * @throws UncheckedIOException if the channel cannot be read
+    * @throws IllegalArgumentException if a line is not in the score format
+    */
+   public GameScore nextRecord()
+   {
+      final GameScore record;
+
+      if(!hasNextRecord())
+      {
+         throw new NoSuchElementException("No more scores");
+      }
+
+      record = next;
+      next = null;
+
+      return record;
+   }
+
+   /**
+    * Closes the channel.
+    *
+    * @throws IOException if the channel cannot be closed
+    */
+   @Override
+   public void close() throws IOException
+   {
+      channel.close();
+   }
+
+   /*
+    * Closes the channel from a stream close handler.
+    */
+   private void closeUnchecked()
+   {
+      try
+      {
+         close();
+      } catch(final IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /*
+    * Reads lines until a whole record has been seen, accepting the lines of
+    * Score.addScoreToList and those of the memory game. A record cut short by
+    * the end of input is dropped.
+    *
+    * @return the record, or null at the end of input
+    */
+   private GameScore readRecord() throws IOException
+   {
+      LocalDateTime dateTimePlayed;
+      ScoreNamespace namespace;
+      int first;
+      int second;
+      int third;
+      int fourth;
+      int lines;
+
+      dateTimePlayed = null;
+      namespace = null;
+      first = 0;
+      second = 0;
+      third = 0;
+      fourth = 0;
+      lines = 1;
+
+      while(readLine())
+      {
+         final int end;
+
+         end = line.length();
+
+         if(isBlank())
+         {
+            continue;
+         }
+
+         if(ScoreTextScanner.contains(line, 0, end, "Date and Time:"))
+         {
+            dateTimePlayed = ScoreTextScanner.parseDateTime(line, 0, end);
+
+            if(dateTimePlayed == null)
+            {
+               throw new IllegalArgumentException("Invalid string format!");
+            }
+         } else if(ScoreTextScanner.contains(line, 0, end, "Games Played:"))
+         {
+            namespace = ScoreNamespace.WORD_GAME;
+            first = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Correct First Attempts:"))
+         {
+            second = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Correct Second Attempts:"))
+         {
+            third = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Incorrect Attempts:"))
+         {
+            fourth = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Rounds Played:"))
+         {
+            namespace = ScoreNamespace.MEMORY_GAME;
+            first = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Highest Score:"))
+         {
+            second = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Highest Win Streaks:"))
+         {
+            third = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Number of Win Streaks:"))
+         {
+            fourth = ScoreTextScanner.parseInt(line, 0, end);
+         } else if(ScoreTextScanner.contains(line, 0, end, "Score:"))
+         {
+            // The total closes the previous word game record and is derived from its attempts
+            continue;
+         } else
+         {
+            throw new IllegalArgumentException("Invalid string format!");
+         }
+
+         lines++;
+
+         if(lines == LINES_PER_SCORE)
+         {
+            if(namespace == null)
+            {
+               throw new IllegalArgumentException("Invalid string format!");
+            }
+
+            // The memory game's counters map onto the same slots as in the score log
+            return ScoreLog.scoreOf(namespace, dateTimePlayed, first, second, third, fourth);
+         }
+      }
+
+      isEndOfInput = true;
+
+      return null;
+   }
+
+   /*
+    * Reads the next line into the line buffer, without its line terminator.
+    *
+    * @return false if the end of input was reached before any character
+    */
+   private boolean readLine() throws IOException
+   {
+      boolean isAnyRead;
+
+      line.setLength(0);
+      isAnyRead = false;
+
+      while(true)
+      {
+         if(!buffer.hasRemaining())
+         {
+            final int read;
+
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, remaining));
+            read = remaining == 0 ? -1 : channel.read(buffer);
+            buffer.flip();
+
+            if(read < 0)
+            {
+               return isAnyRead;
+            }
+
+            remaining -= read;
+         }
+
+         while(buffer.hasRemaining())
+         {
+            final char c;
+
+            c = (char) (buffer.get() & 0xFF);
+            isAnyRead = true;
+
+            if(c == '\n')
+            {
+               if(line.length() > 0 && line.charAt(line.length() - 1) == '\r')
+               {
+                  line.setLength(line.length() - 1);
+               }
+
+               return true;
+            }
+
+            line.append(c);
+         }
+      }
+   }
+
+   /*
+    * Checks whether the line buffer holds only whitespace.
+    *
+    * @return true if the line is blank
+    */
+   private boolean isBlank()
+   {
+      for(int i = 0; i < line.length(); i++)
+      {
+         if(!Character.isWhitespace(line.charAt(i)))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+}
@@ -0,0 +1,505 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The {@code ScoreRepository} class wraps a {@link ScoreLog} with running
+ * aggregates: the number of scores, the high score, the best score of every
+ * day and the totals behind the averages. Aggregates are updated on every
+ * append, so reporting never rereads the history.
+ *
+ * <p>Only word game scores are aggregated; records of other games sharing the
+ * log are skipped. The aggregates are saved to a sidecar file next to the log
+ * when the repository is flushed or closed, stamped with the number of records
+ * they cover. On open, only the records appended after that stamp are folded in,
+ * so a repository that was not closed cleanly catches up instead of starting
+ * over; the whole log is only replayed when the sidecar is missing or invalid,
+ * or the log has been compacted since it was written.
+ *
+ * <p>Scores that {@link ScoreCompactor} has rolled out of the log are read back
+ * from the {@link ScoreRollup} summaries, which only take a few kilobytes, and
+ * added to the aggregates of the raw records. Days rolled into month summaries
+ * keep their totals but no longer have a best score of their own.
+ *
+ * <p>The repository also keeps the {@link ScoreLeaderboard} of the log up to
+ * date on every append, and saves it with the aggregates.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreRepository implements Closeable
+{
+   public static final String SIDECAR_SUFFIX = ".agg";
+
+   private static final int MAGIC   = 0x53414747;  // "SAGG"
+   private static final int VERSION = 3;
+
+   private final ScoreLog log;
+   private final Path sidecarPath;
+   private ScoreLeaderboard leaderboard;
+   private final SortedMap<LocalDate, DayBest> dayBest;
+   private final SortedMap<LocalDate, Score> rolledDayBest;
+   private ScoreRollup rollup;
+   private Score rolledBest;
+   private long rolledCount;
+   private long rolledGames;
+   private long rolledCorrectFirst;
+   private long rolledCorrectSecond;
+   private long rolledIncorrect;
+   private long rolledAverage;
+   private long scanned;
+   private long count;
+   private long totalGames;
+   private long totalCorrectFirst;
+   private long totalCorrectSecond;
+   private long totalIncorrect;
+   private long totalAverage;
+
+   /*
+    * Constructs a repository over an open log with empty aggregates.
+    *
+    * @param log the score log
+    * @param sidecarPath the path of the aggregate sidecar
+    */
+   private ScoreRepository(final ScoreLog log, final Path sidecarPath)
+   {
+      this.log = log;
+      this.sidecarPath = sidecarPath;
+      this.dayBest = new TreeMap<>();
+      this.rolledDayBest = new TreeMap<>();
+   }
+
+   /**
+    * Opens the repository of a score log, creating the log if it does not exist.
+    *
+    * @param logPath the path of the score log
+    * @return the open repository
+    * @throws IOException if the log cannot be opened or read
+    * @throws IllegalArgumentException if the file is not a score log
+    */
+   public static ScoreRepository open(final Path logPath) throws IOException
+   {
+      final ScoreLog log;
+      final ScoreRepository repository;
+
+      log = ScoreLog.open(logPath);
+      repository = new ScoreRepository(log, logPath.resolveSibling(logPath.getFileName() + SIDECAR_SUFFIX));
+
+      try
+      {
+         final long skipBefore;
+
+         repository.loadRollup(ScoreRollup.read(logPath));
+         skipBefore = repository.rollup.skipBefore(log);
+
+         if(!repository.loadSidecar())
+         {
+            repository.clearAggregates();
+         }
+
+         for(long i = repository.scanned; i < log.size(); i++)
+         {
+            if(log.isWordGame(i))
+            {
+               final Score score;
+
+               score = log.read(i);
+
+               // Records of a log left behind by an interrupted compaction may already be rolled up
+               if(score.getDateTime().toEpochSecond(ZoneOffset.UTC) >= skipBefore)
+               {
+                  repository.fold(i, score);
+               }
+            }
+         }
+
+         repository.scanned = log.size();
+         repository.leaderboard = ScoreLeaderboard.open(log, ScoreLeaderboard.DEFAULT_CAPACITY);
+      } catch(final IOException | RuntimeException e)
+      {
+         log.close();
+         throw e;
+      }
+
+      return repository;
+   }
+
+   /**
+    * Appends a score to the log and updates the aggregates.
+    *
+    * @param score the score to append
+    * @return the index of the new record
+    * @throws IOException if the log cannot be written
+    * @throws IllegalArgumentException if the score is null
+    */
+   public synchronized long append(final Score score) throws IOException
+   {
+      final long index;
+
+      index = log.append(score);
+      fold(index, score);
+      leaderboard.addAll(List.of(score));
+      scanned = index + 1;
+
+      return index;
+   }
+
+   /**
+    * Returns the number of word game scores recorded.
+    *
+    * @return the number of scores
+    */
+   public synchronized long count()
+   {
+      return rolledCount + count;
+   }
+
+   /**
+    * Returns the highest score, by average points per game. When a rolled up
+    * score ties with one still in the log, the rolled up one is older and wins.
+    *
+    * @return the highest score, or {@code empty} if there is none
+    * @throws IOException if the log cannot be read
+    */
+   public synchronized Optional<Score> highScore() throws IOException
+   {
+      final Optional<Score> logged;
+
+      logged = log.highScore();
+
+      if(rolledBest == null ||
+         (logged.isPresent() && ScoreLog.averageOf(logged.get()) > ScoreLog.averageOf(rolledBest)))
+      {
+         return logged;
+      }
+
+      return Optional.of(rolledBest);
+   }
+
+   /**
+    * Returns the highest score recorded on a day.
+    *
+    * @param day the day
+    * @return the best score of the day, or {@code empty} if none was recorded
+    * @throws IOException if the log cannot be read
+    */
+   public synchronized Optional<Score> bestOfDay(final LocalDate day) throws IOException
+   {
+      final DayBest best;
+
+      best = dayBest.get(day);
+
+      if(best == null)
+      {
+         return Optional.ofNullable(rolledDayBest.get(day));
+      }
+
+      return Optional.of(log.read(best.index));
+   }
+
+   /**
+    * Returns the days on which scores still in the log were recorded, each
+    * with the index of its best score in the log.
+    *
+    * @return the record index of the best score of every day, by day
+    */
+   public synchronized SortedMap<LocalDate, Long> bestIndexByDay()
+   {
+      final SortedMap<LocalDate, Long> indexes;
+
+      indexes = new TreeMap<>();
+      dayBest.forEach((day, best) -> indexes.put(day, best.index));
+
+      return Collections.unmodifiableSortedMap(indexes);
+   }
+
+   /**
+    * Returns the leaderboard of the log, for the word game and every other
+    * game sharing it.
+    *
+    * @return the leaderboard
+    */
+   public ScoreLeaderboard leaderboard()
+   {
+      return leaderboard;
+   }
+
+   /**
+    * Returns the average points per game over every recorded game.
+    *
+    * @return the average points per game, or 0 if no game was recorded
+    */
+   public synchronized double averagePointsPerGame()
+   {
+      final long games;
+
+      games = rolledGames + totalGames;
+
+      return games == 0
+             ? 0.0
+             : (double) (2 * (rolledCorrectFirst + totalCorrectFirst) + rolledCorrectSecond + totalCorrectSecond) /
+               games;
+   }
+
+   /**
+    * Returns the mean of the per-game averages of every score, the figure
+    * compared when looking for a high score.
+    *
+    * @return the mean score, or 0 if no score was recorded
+    */
+   public synchronized double averageScore()
+   {
+      return count() == 0 ? 0.0 : (double) (rolledAverage + totalAverage) / count();
+   }
+
+   /**
+    * Returns the total number of games recorded.
+    *
+    * @return the number of games
+    */
+   public synchronized long totalGames()
+   {
+      return rolledGames + totalGames;
+   }
+
+   /**
+    * Returns the total number of questions answered incorrectly twice.
+    *
+    * @return the number of incorrect answers
+    */
+   public synchronized long totalIncorrect()
+   {
+      return rolledIncorrect + totalIncorrect;
+   }
+
+   /**
+    * Saves the aggregates to the sidecar file and the leaderboard to its file.
+    * The sidecar is written to a temporary file first and then moved into place.
+    *
+    * @throws IOException if the sidecar or leaderboard cannot be written
+    */
+   public synchronized void flush() throws IOException
+   {
+      final Path tempPath;
+
+      tempPath = sidecarPath.resolveSibling(sidecarPath.getFileName() + ".tmp");
+
+      try(final DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(tempPath))))
+      {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(log.getGeneration());
+         out.writeInt(rollup.getGeneration());
+         out.writeLong(scanned);
+         out.writeLong(count);
+         out.writeLong(totalGames);
+         out.writeLong(totalCorrectFirst);
+         out.writeLong(totalCorrectSecond);
+         out.writeLong(totalIncorrect);
+         out.writeLong(totalAverage);
+         out.writeInt(dayBest.size());
+
+         for(final Map.Entry<LocalDate, DayBest> entry : dayBest.entrySet())
+         {
+            out.writeLong(entry.getKey().toEpochDay());
+            out.writeLong(entry.getValue().index);
+            out.writeInt(entry.getValue().average);
+         }
+      }
+
+      Files.move(tempPath, sidecarPath, StandardCopyOption.REPLACE_EXISTING);
+      leaderboard.flush();
+   }
+
+   /**
+    * Saves the aggregates and the leaderboard, and closes the log.
+    *
+    * @throws IOException if the sidecar or leaderboard cannot be written, or the log cannot be closed
+    */
+   @Override
+   public synchronized void close() throws IOException
+   {
+      try
+      {
+         flush();
+      } finally
+      {
+         log.close();
+      }
+   }
+
+   /*
+    * Folds one score into the aggregates.
+    *
+    * @param index the record index of the score
+    * @param score the score
+    */
+   private void fold(final long index, final Score score)
+   {
+      final int average;
+      final LocalDate day;
+      final DayBest best;
+
+      average = ScoreLog.averageOf(score);
+      day = score.getDateTime().toLocalDate();
+      best = dayBest.get(day);
+
+      count++;
+      totalGames += score.getNumGamesPlayed();
+      totalCorrectFirst += score.getNumCorrectFirstAttempt();
+      totalCorrectSecond += score.getNumCorrectSecondAttempt();
+      totalIncorrect += score.getNumIncorrectTwoAttempts();
+      totalAverage += average;
+
+      if(best == null || average > best.average)
+      {
+         dayBest.put(day, new DayBest(index, average));
+      }
+   }
+
+   /*
+    * Loads the aggregates from the sidecar file, if it exists, is valid and
+    * covers no more records than the log holds.
+    *
+    * @return true if the aggregates were loaded
+    */
+   private boolean loadSidecar()
+   {
+      if(Files.notExists(sidecarPath))
+      {
+         return false;
+      }
+
+      try(final DataInputStream in = new DataInputStream(
+              new BufferedInputStream(Files.newInputStream(sidecarPath))))
+      {
+         final int days;
+
+         // A compaction renumbers the records, so aggregates of another generation are stale
+         if(in.readInt() != MAGIC ||
+            in.readInt() != VERSION ||
+            in.readInt() != log.getGeneration() ||
+            in.readInt() != rollup.getGeneration())
+         {
+            return false;
+         }
+
+         scanned = in.readLong();
+         count = in.readLong();
+         totalGames = in.readLong();
+         totalCorrectFirst = in.readLong();
+         totalCorrectSecond = in.readLong();
+         totalIncorrect = in.readLong();
+         totalAverage = in.readLong();
+         days = in.readInt();
+
+         for(int i = 0; i < days; i++)
+         {
+            dayBest.put(LocalDate.ofEpochDay(in.readLong()), new DayBest(in.readLong(), in.readInt()));
+         }
+
+         return scanned >= 0 && scanned <= log.size() && count <= scanned;
+      } catch(final IOException e)
+      {
+         System.out.println("Error reading score aggregates " + sidecarPath.getFileName() + ", " + e.getMessage());
+         return false;
+      }
+   }
+
+   /*
+    * Sets the aggregates of the scores rolled out of the log from the word
+    * game summaries of its rollup.
+    *
+    * @param rollup the rollup of the log
+    */
+   private void loadRollup(final ScoreRollup rollup)
+   {
+      this.rollup = rollup;
+
+      for(final ScoreRollup.Summary summary : rollup.getSummaries())
+      {
+         final Score best;
+
+         if(summary.getNamespace() != ScoreNamespace.WORD_GAME || summary.getCount() == 0)
+         {
+            continue;
+         }
+
+         best = summary.getBestScore();
+         rolledCount += summary.getCount();
+         rolledGames += summary.getTotalGames();
+         rolledCorrectFirst += summary.getTotalCorrectFirst();
+         rolledCorrectSecond += summary.getTotalCorrectSecond();
+         rolledIncorrect += summary.getTotalIncorrect();
+         rolledAverage += summary.getTotalAverage();
+
+         if(summary.getGranularity() == ScoreRollup.Granularity.DAY)
+         {
+            rolledDayBest.put(summary.getStart(), best);
+         }
+
+         if(rolledBest == null ||
+            ScoreLog.averageOf(best) > ScoreLog.averageOf(rolledBest) ||
+            (ScoreLog.averageOf(best) == ScoreLog.averageOf(rolledBest) &&
+             best.getDateTime().isBefore(rolledBest.getDateTime())))
+         {
+            rolledBest = best;
+         }
+      }
+   }
+
+   /*
+    * Resets every aggregate before the log is replayed.
+    */
+   private void clearAggregates()
+   {
+      dayBest.clear();
+      scanned = 0;
+      count = 0;
+      totalGames = 0;
+      totalCorrectFirst = 0;
+      totalCorrectSecond = 0;
+      totalIncorrect = 0;
+      totalAverage = 0;
+   }
+
+   /*
+    * The best score of a day: its record index and average points per game.
+    */
+   private static final class DayBest
+   {
+      private final long index;
+      private final int average;
+
+      /*
+       * Constructs the best score of a day.
+       *
+       * @param index the record index of the score
+       * @param average the average points per game of the score
+       */
+      private DayBest(final long index, final int average)
+      {
+         this.index = index;
+         this.average = average;
+      }
+   }
+}
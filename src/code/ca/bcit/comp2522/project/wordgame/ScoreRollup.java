@@ -0,0 +1,602 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code ScoreRollup} class holds the summaries that {@link ScoreCompactor}
+ * rolls old score log records into: one per game and day, or per game and
+ * month for older history. A summary keeps the number of scores, the sums of
+ * their counters and of their averages, and the best score of the period, so
+ * the high score and the averages can still be answered once the raw records
+ * are gone.
+ *
+ * <p>The rollup is kept in a file next to the log, stamped with the
+ * generation of the compaction that wrote it and with the cutoff before which
+ * every record has been summarized. A log with an older generation than its
+ * rollup was left over by an interrupted compaction; its records before the
+ * cutoff are already counted by the rollup and must be skipped.
+ *
+ * <p>The file layout is, in big-endian order, a {@value #HEADER_SIZE}-byte
+ * header (magic, version, record size and generation as ints, then the cutoff
+ * in epoch seconds and the summary count as longs) followed by
+ * {@value #RECORD_SIZE}-byte summaries, each ending with a CRC-32C checksum.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreRollup
+{
+   public static final String FILE_SUFFIX = ".rollup";
+   public static final int    HEADER_SIZE = 64;
+   public static final int    RECORD_SIZE = 96;
+
+   /**
+    * The length of the period a summary covers.
+    */
+   public enum Granularity
+   {
+      DAY,
+      MONTH
+   }
+
+   private static final int  MAGIC     = 0x53525550;  // "SRUP"
+   private static final int  VERSION   = 1;
+   private static final int  CRC_POS   = 88;
+   private static final long NO_CUTOFF = Long.MIN_VALUE;
+
+   private final int generation;
+   private final long cutoff;
+   private final List<Summary> summaries;
+
+   /**
+    * Constructs a rollup.
+    *
+    * @param generation the generation of the compaction that wrote it
+    * @param cutoff the epoch second before which every record is summarized
+    * @param summaries the summaries, in any order
+    * @throws IllegalArgumentException if the summaries are null
+    */
+   public ScoreRollup(final int generation, final long cutoff, final List<Summary> summaries)
+   {
+      if(summaries == null)
+      {
+         throw new IllegalArgumentException("Summaries must not be null!");
+      }
+
+      this.generation = generation;
+      this.cutoff = cutoff;
+      this.summaries = Collections.unmodifiableList(new ArrayList<>(summaries));
+   }
+
+   /**
+    * Returns the path of the rollup of a score log.
+    *
+    * @param logPath the path of the score log
+    * @return the path of its rollup
+    */
+   public static Path pathOf(final Path logPath)
+   {
+      return logPath.resolveSibling(logPath.getFileName() + FILE_SUFFIX);
+   }
+
+   /**
+    * Reads the rollup of a score log. A log that was never compacted has an
+    * empty rollup of generation zero.
+    *
+    * @param logPath the path of the score log
+    * @return the rollup of the log
+    * @throws IOException if the rollup cannot be read
+    * @throws IllegalArgumentException if the rollup file is invalid
+    */
+   public static ScoreRollup read(final Path logPath) throws IOException
+   {
+      final Path rollupPath;
+
+      rollupPath = pathOf(logPath);
+
+      if(Files.notExists(rollupPath))
+      {
+         return new ScoreRollup(0, NO_CUTOFF, List.of());
+      }
+
+      try(final FileChannel channel = FileChannel.open(rollupPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer header;
+         final ByteBuffer record;
+         final CRC32C crc;
+         final List<Summary> summaries;
+         final long count;
+
+         header = ByteBuffer.allocate(HEADER_SIZE);
+         record = ByteBuffer.allocate(RECORD_SIZE);
+         crc = new CRC32C();
+         summaries = new ArrayList<>();
+
+         readFully(channel, header, 0);
+
+         if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE)
+         {
+            throw new IllegalArgumentException("Invalid score rollup " + rollupPath.getFileName());
+         }
+
+         count = header.getLong(24);
+
+         if(channel.size() != HEADER_SIZE + count * RECORD_SIZE)
+         {
+            throw new IllegalArgumentException("Invalid score rollup " + rollupPath.getFileName());
+         }
+
+         for(long i = 0; i < count; i++)
+         {
+            readFully(channel, record, HEADER_SIZE + i * RECORD_SIZE);
+
+            if(record.getInt(CRC_POS) != checksum(crc, record))
+            {
+               throw new IllegalArgumentException("Corrupt summary " + i + " in " + rollupPath.getFileName());
+            }
+
+            summaries.add(Summary.decode(record));
+         }
+
+         return new ScoreRollup(header.getInt(12), header.getLong(16), summaries);
+      }
+   }
+
+   /**
+    * Writes the rollup of a score log. The rollup is written to a temporary
+    * file first and then moved into place in one step.
+    *
+    * @param logPath the path of the score log
+    * @throws IOException if the rollup cannot be written
+    */
+   public void write(final Path logPath) throws IOException
+   {
+      final Path rollupPath;
+      final Path tempPath;
+
+      rollupPath = pathOf(logPath);
+      tempPath = rollupPath.resolveSibling(rollupPath.getFileName() + ".tmp");
+
+      try(final FileChannel channel = FileChannel.open(tempPath,
+                                                       StandardOpenOption.CREATE,
+                                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                                       StandardOpenOption.WRITE))
+      {
+         final ByteBuffer buffer;
+         final CRC32C crc;
+
+         buffer = ByteBuffer.allocate(HEADER_SIZE + summaries.size() * RECORD_SIZE);
+         crc = new CRC32C();
+
+         buffer.putInt(0, MAGIC);
+         buffer.putInt(4, VERSION);
+         buffer.putInt(8, RECORD_SIZE);
+         buffer.putInt(12, generation);
+         buffer.putLong(16, cutoff);
+         buffer.putLong(24, summaries.size());
+
+         for(int i = 0; i < summaries.size(); i++)
+         {
+            final ByteBuffer record;
+
+            record = buffer.slice(HEADER_SIZE + i * RECORD_SIZE, RECORD_SIZE);
+            summaries.get(i).encode(record);
+            record.putInt(CRC_POS, checksum(crc, record));
+         }
+
+         while(buffer.hasRemaining())
+         {
+            channel.write(buffer);
+         }
+
+         channel.force(false);
+      }
+
+      Files.move(tempPath, rollupPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+   }
+
+   /**
+    * Returns the generation of the compaction that wrote the rollup.
+    *
+    * @return the compaction generation, zero if there was none
+    */
+   public int getGeneration()
+   {
+      return generation;
+   }
+
+   /**
+    * Returns the epoch second before which every record is summarized.
+    *
+    * @return the cutoff, or {@link Long#MIN_VALUE} if nothing is summarized
+    */
+   public long getCutoff()
+   {
+      return cutoff;
+   }
+
+   /**
+    * Returns the summaries of the rollup.
+    *
+    * @return the summaries
+    */
+   public List<Summary> getSummaries()
+   {
+      return summaries;
+   }
+
+   /**
+    * Returns the epoch second before which the raw records of a log must be
+    * skipped because the rollup already counts them: the cutoff if the log was
+    * left over by an interrupted compaction, and no cutoff otherwise.
+    *
+    * @param log the score log
+    * @return the epoch second raw records must not precede
+    */
+   public long skipBefore(final ScoreLog log)
+   {
+      return log.getGeneration() < generation ? cutoff : NO_CUTOFF;
+   }
+
+   /*
+    * Reads a whole buffer from a position of a file.
+    *
+    * @param channel the channel of the file
+    * @param buffer the buffer to fill
+    * @param position the file position
+    */
+   private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+           throws IOException
+   {
+      buffer.clear();
+
+      while(buffer.hasRemaining())
+      {
+         if(channel.read(buffer, position + buffer.position()) < 0)
+         {
+            throw new IOException("Unexpected end of score rollup");
+         }
+      }
+
+      buffer.flip();
+   }
+
+   /*
+    * Computes the checksum of a summary record, covering every byte before the checksum.
+    *
+    * @param crc the checksum to reuse
+    * @param record the summary record, from position 0
+    * @return the checksum
+    */
+   private static int checksum(final CRC32C crc, final ByteBuffer record)
+   {
+      crc.reset();
+      crc.update(record.slice(0, CRC_POS));
+
+      return (int) crc.getValue();
+   }
+
+   /**
+    * The summary of the scores of one game over one day or month.
+    */
+   public static final class Summary
+   {
+      private final ScoreNamespace namespace;
+      private final Granularity granularity;
+      private final LocalDate start;
+      private long count;
+      private long totalGames;
+      private long totalCorrectFirst;
+      private long totalCorrectSecond;
+      private long totalIncorrect;
+      private long totalAverage;
+      private int bestAverage;
+      private long bestEpochSecond;
+      private int bestGames;
+      private int bestCorrectFirst;
+      private int bestCorrectSecond;
+      private int bestIncorrect;
+
+      /**
+       * Constructs an empty summary.
+       *
+       * @param namespace the game summarized
+       * @param granularity the length of the period
+       * @param start the first day of the period
+       * @throws IllegalArgumentException if any argument is null
+       */
+      public Summary(final ScoreNamespace namespace, final Granularity granularity, final LocalDate start)
+      {
+         if(namespace == null || granularity == null || start == null)
+         {
+            throw new IllegalArgumentException("Namespace, granularity and start must not be null!");
+         }
+
+         this.namespace = namespace;
+         this.granularity = granularity;
+         this.start = start;
+         this.count = 0;
+         this.bestAverage = -1;
+      }
+
+      /**
+       * Returns the first day of the period holding a date.
+       *
+       * @param granularity the length of the period
+       * @param date the date
+       * @return the first day of its period
+       */
+      public static LocalDate startOf(final Granularity granularity, final LocalDate date)
+      {
+         return granularity == Granularity.DAY ? date : date.withDayOfMonth(1);
+      }
+
+      /**
+       * Adds a score to the summary. When scores tie for best, the earliest is kept.
+       *
+       * @param score the score, within the period
+       */
+      public void add(final GameScore score)
+      {
+         final int average;
+         final long epochSecond;
+
+         average = ScoreLog.averageOf(score);
+         epochSecond = score.getDateTime().toEpochSecond(ZoneOffset.UTC);
+
+         count++;
+         totalGames += score.getNumGamesPlayed();
+         totalCorrectFirst += score.getNumCorrectFirstAttempt();
+         totalCorrectSecond += score.getNumCorrectSecondAttempt();
+         totalIncorrect += score.getNumIncorrectTwoAttempts();
+         totalAverage += average;
+
+         if(average > bestAverage || (average == bestAverage && epochSecond < bestEpochSecond))
+         {
+            bestAverage = average;
+            bestEpochSecond = epochSecond;
+            bestGames = score.getNumGamesPlayed();
+            bestCorrectFirst = score.getNumCorrectFirstAttempt();
+            bestCorrectSecond = score.getNumCorrectSecondAttempt();
+            bestIncorrect = score.getNumIncorrectTwoAttempts();
+         }
+      }
+
+      /**
+       * Adds every score of another summary of the same game to this one.
+       *
+       * @param other the summary to merge, within the period
+       */
+      public void merge(final Summary other)
+      {
+         count += other.count;
+         totalGames += other.totalGames;
+         totalCorrectFirst += other.totalCorrectFirst;
+         totalCorrectSecond += other.totalCorrectSecond;
+         totalIncorrect += other.totalIncorrect;
+         totalAverage += other.totalAverage;
+
+         if(other.count > 0 &&
+            (other.bestAverage > bestAverage ||
+             (other.bestAverage == bestAverage && other.bestEpochSecond < bestEpochSecond)))
+         {
+            bestAverage = other.bestAverage;
+            bestEpochSecond = other.bestEpochSecond;
+            bestGames = other.bestGames;
+            bestCorrectFirst = other.bestCorrectFirst;
+            bestCorrectSecond = other.bestCorrectSecond;
+            bestIncorrect = other.bestIncorrect;
+         }
+      }
+
+      /**
+       * Returns the game summarized.
+       *
+       * @return the namespace
+       */
+      public ScoreNamespace getNamespace()
+      {
+         return namespace;
+      }
+
+      /**
+       * Returns the length of the period.
+       *
+       * @return the granularity
+       */
+      public Granularity getGranularity()
+      {
+         return granularity;
+      }
+
+      /**
+       * Returns the first day of the period.
+       *
+       * @return the start of the period
+       */
+      public LocalDate getStart()
+      {
+         return start;
+      }
+
+      /**
+       * Returns the number of scores summarized.
+       *
+       * @return the number of scores
+       */
+      public long getCount()
+      {
+         return count;
+      }
+
+      /**
+       * Returns the total of the first counter, the games played.
+       *
+       * @return the number of games
+       */
+      public long getTotalGames()
+      {
+         return totalGames;
+      }
+
+      /**
+       * Returns the total of the second counter.
+       *
+       * @return the number of correct first attempts
+       */
+      public long getTotalCorrectFirst()
+      {
+         return totalCorrectFirst;
+      }
+
+      /**
+       * Returns the total of the third counter.
+       *
+       * @return the number of correct second attempts
+       */
+      public long getTotalCorrectSecond()
+      {
+         return totalCorrectSecond;
+      }
+
+      /**
+       * Returns the total of the fourth counter.
+       *
+       * @return the number of incorrect attempts
+       */
+      public long getTotalIncorrect()
+      {
+         return totalIncorrect;
+      }
+
+      /**
+       * Returns the sum of the average points per game of every score.
+       *
+       * @return the sum of the averages
+       */
+      public long getTotalAverage()
+      {
+         return totalAverage;
+      }
+
+      /**
+       * Returns the best average points per game of the period.
+       *
+       * @return the best average
+       */
+      public int getBestAverage()
+      {
+         return bestAverage;
+      }
+
+      /**
+       * Returns the best word game score of the period.
+       *
+       * @return the best score
+       * @throws IllegalStateException if the summary is not of the word game or is empty
+       */
+      public Score getBestScore()
+      {
+         if(namespace != ScoreNamespace.WORD_GAME || count == 0)
+         {
+            throw new IllegalStateException("Only a word game summary has a best score!");
+         }
+
+         return new Score(LocalDateTime.ofEpochSecond(bestEpochSecond, 0, ZoneOffset.UTC),
+                          bestGames,
+                          bestCorrectFirst,
+                          bestCorrectSecond,
+                          bestIncorrect);
+      }
+
+      /**
+       * Returns the best score of the period, of whichever game.
+       *
+       * @return the best score
+       * @throws IllegalStateException if the summary is empty
+       */
+      public GameScore getBest()
+      {
+         if(count == 0)
+         {
+            throw new IllegalStateException("An empty summary has no best score!");
+         }
+
+         return ScoreLog.scoreOf(namespace,
+                                 LocalDateTime.ofEpochSecond(bestEpochSecond, 0, ZoneOffset.UTC),
+                                 bestGames,
+                                 bestCorrectFirst,
+                                 bestCorrectSecond,
+                                 bestIncorrect);
+      }
+
+      /*
+       * Writes the summary into a record, up to the checksum.
+       *
+       * @param record the record, from position 0
+       */
+      private void encode(final ByteBuffer record)
+      {
+         record.putInt(0, namespace.getId());
+         record.putInt(4, granularity.ordinal());
+         record.putInt(8, (int) start.toEpochDay());
+         record.putInt(12, bestAverage);
+         record.putLong(16, count);
+         record.putLong(24, totalGames);
+         record.putLong(32, totalCorrectFirst);
+         record.putLong(40, totalCorrectSecond);
+         record.putLong(48, totalIncorrect);
+         record.putLong(56, totalAverage);
+         record.putLong(64, bestEpochSecond);
+         record.putInt(72, bestGames);
+         record.putInt(76, bestCorrectFirst);
+         record.putInt(80, bestCorrectSecond);
+         record.putInt(84, bestIncorrect);
+      }
+
+      /*
+       * Reads a summary from a record.
+       *
+       * @param record the record, from position 0
+       * @return the summary
+       */
+      private static Summary decode(final ByteBuffer record)
+      {
+         final Summary summary;
+
+         summary = new Summary(ScoreNamespace.fromId(record.getInt(0)),
+                               Granularity.values()[record.getInt(4)],
+                               LocalDate.ofEpochDay(record.getInt(8)));
+         summary.bestAverage = record.getInt(12);
+         summary.count = record.getLong(16);
+         summary.totalGames = record.getLong(24);
+         summary.totalCorrectFirst = record.getLong(32);
+         summary.totalCorrectSecond = record.getLong(40);
+         summary.totalIncorrect = record.getLong(48);
+         summary.totalAverage = record.getLong(56);
+         summary.bestEpochSecond = record.getLong(64);
+         summary.bestGames = record.getInt(72);
+         summary.bestCorrectFirst = record.getInt(76);
+         summary.bestCorrectSecond = record.getInt(80);
+         summary.bestIncorrect = record.getInt(84);
+
+         return summary;
+      }
+   }
+}
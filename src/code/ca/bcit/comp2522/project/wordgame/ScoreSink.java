@@ -0,0 +1,696 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import ca.bcit.comp2522.project.util.ScoreTextScanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code ScoreSink} class is the one writer of a shared {@link ScoreLog}
+ * that every game in the process submits its scores to. Each score keeps the
+ * namespace of its game, so word game readers skip the records of other games.
+ *
+ * <p>Submitting never blocks and takes no lock: scores go on a lock-free
+ * queue, and a single writer thread drains it, appending everything it finds
+ * as one batch and flushing the log to the device at most once per sync
+ * interval. Closing the sink writes whatever is still queued.
+ *
+ * <p>A sink can also be given a {@link ScoreCompactor}, which the writer
+ * thread runs when the sink starts and once per compaction interval after
+ * that, so old scores are rolled up without a second writer on the log, and
+ * a {@link ScoreLeaderboard}, which the writer thread updates with every
+ * batch it appends.
+ *
+ * <p>Only one process can hold a log. A game that finds it held by a sink of
+ * another process spools its score next to the log with {@link #record}, and
+ * the writer thread of the holding sink imports the spool once per sync
+ * interval. A batch the writer thread fails to append is spooled the same way,
+ * so it is retried at the next interval instead of being lost.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class ScoreSink implements Closeable
+{
+   /**
+    * The log shared by the games of this process.
+    */
+   public static final Path SHARED_LOG_PATH = WordGame.SCORE_LOG_PATH;
+
+   /**
+    * The suffix of the spool next to a log, where scores wait while another
+    * process holds the log.
+    */
+   public static final String SPOOL_SUFFIX = ".spool";
+
+   private static final Duration SHARED_SYNC_INTERVAL    = Duration.ofSeconds(1);
+   private static final Duration SHARED_COMPACT_INTERVAL = Duration.ofDays(1);
+   private static final int      MAX_BATCH               = 4096;
+   private static final String   INVALID_SUFFIX          = ".invalid";
+
+   private static ScoreSink shared;
+
+   private final long syncIntervalNanos;
+   private final ScoreCompactor compactor;
+   private final long compactIntervalNanos;
+   private final ScoreLeaderboard leaderboard;
+   private final ConcurrentLinkedQueue<GameScore> queue;
+   private final AtomicLong submitted;
+   private final AtomicLong failed;
+   private final AtomicLong spooled;
+   private final Path spoolPath;
+   private Thread writer;
+   private ScoreLog log;
+   private volatile boolean isClosed;
+
+   /*
+    * Constructs a sink writing to an open score log, compacting it and keeping
+    * its leaderboard. The writer thread is started by the factory that opened
+    * the log, so nothing sees the sink before it is built.
+    *
+    * @param log the score log, owned by the sink from now on
+    * @param syncInterval how often the log is flushed to the device
+    * @param compactor the compactor of the log, or null to never compact
+    * @param compactInterval how often the log is compacted, ignored without a compactor
+    * @param leaderboard the leaderboard of the log, owned by the sink from now on
+    */
+   private ScoreSink(final ScoreLog log,
+                     final Duration syncInterval,
+                     final ScoreCompactor compactor,
+                     final Duration compactInterval,
+                     final ScoreLeaderboard leaderboard)
+   {
+      if(log == null || syncInterval == null)
+      {
+         throw new IllegalArgumentException("Log and sync interval must not be null!");
+      }
+
+      if(syncInterval.isNegative() || syncInterval.isZero())
+      {
+         throw new IllegalArgumentException("Sync interval must be positive!");
+      }
+
+      if(compactor != null && (compactInterval == null || compactInterval.isNegative() || compactInterval.isZero()))
+      {
+         throw new IllegalArgumentException("Compaction interval must be positive!");
+      }
+
+      this.log = log;
+      this.syncIntervalNanos = syncInterval.toNanos();
+      this.compactor = compactor;
+      this.compactIntervalNanos = compactor == null ? 0 : compactInterval.toNanos();
+      this.leaderboard = leaderboard;
+      this.queue = new ConcurrentLinkedQueue<>();
+      this.submitted = new AtomicLong();
+      this.failed = new AtomicLong();
+      this.spooled = new AtomicLong();
+      this.spoolPath = spoolPathOf(log.getPath());
+      this.isClosed = false;
+   }
+
+   /**
+    * Opens a sink over a score log file, keeping its leaderboard.
+    *
+    * @param logPath the path of the score log
+    * @param syncInterval how often the log is flushed to the device
+    * @return the open sink
+    * @throws IOException if the log or its leaderboard cannot be opened
+    * @throws IllegalArgumentException if the file is not a score log or the interval is invalid
+    */
+   public static ScoreSink open(final Path logPath, final Duration syncInterval) throws IOException
+   {
+      return open(logPath, syncInterval, null, null);
+   }
+
+   /**
+    * Opens a sink over a score log file, compacting it and keeping its
+    * leaderboard. The first compaction runs as soon as the writer starts.
+    *
+    * @param logPath the path of the score log
+    * @param syncInterval how often the log is flushed to the device
+    * @param compactor the compactor of the log, or null to never compact
+    * @param compactInterval how often the log is compacted
+    * @return the open sink
+    * @throws IOException if the log or its leaderboard cannot be opened
+    * @throws IllegalArgumentException if the file is not a score log or an interval is invalid
+    */
+   static ScoreSink open(final Path logPath,
+                         final Duration syncInterval,
+                         final ScoreCompactor compactor,
+                         final Duration compactInterval) throws IOException
+   {
+      final ScoreLog log;
+
+      log = ScoreLog.open(logPath);
+
+      try
+      {
+         final ScoreSink sink;
+
+         sink = new ScoreSink(log,
+                              syncInterval,
+                              compactor,
+                              compactInterval,
+                              ScoreLeaderboard.open(log, ScoreLeaderboard.DEFAULT_CAPACITY));
+         sink.start();
+
+         return sink;
+      } catch(final IOException | RuntimeException e)
+      {
+         log.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Returns the sink of the shared score log, opening it on first use. The
+    * shared log is compacted with the default policy once a day, and the
+    * shared sink is closed when the process shuts down.
+    *
+    * @return the shared sink
+    * @throws IOException if the shared log cannot be opened
+    */
+   public static synchronized ScoreSink shared() throws IOException
+   {
+      if(shared == null)
+      {
+         final ScoreSink sink;
+
+         sink = open(SHARED_LOG_PATH, SHARED_SYNC_INTERVAL, ScoreCompactor.DEFAULT, SHARED_COMPACT_INTERVAL);
+         Runtime.getRuntime().addShutdownHook(new Thread(() ->
+         {
+            try
+            {
+               sink.close();
+            } catch(final IOException e)
+            {
+               System.out.println("Error closing score sink " + e.getMessage());
+            }
+         }));
+
+         shared = sink;
+      }
+
+      return shared;
+   }
+
+   /**
+    * Records the score of any game in a score log from a process that does not
+    * keep a sink open. The score is written through a sink of its own when the
+    * log is free; when a sink elsewhere holds the log, such as the server's or
+    * another game's, the score is spooled next to the log instead, and that
+    * sink adds it to the log within a sync interval. Either way the score is
+    * on the device when this returns.
+    *
+    * @param logPath the path of the score log
+    * @param score the score to record
+    * @return true if the score was written to the log, false if it was spooled
+    * @throws IOException if the score can be neither written nor spooled
+    * @throws IllegalArgumentException if the score is null or the file is not a score log
+    */
+   public static boolean record(final Path logPath, final GameScore score) throws IOException
+   {
+      final ScoreSink sink;
+
+      if(score == null)
+      {
+         throw new IllegalArgumentException("Score must not be null!");
+      }
+
+      try
+      {
+         sink = open(logPath, SHARED_SYNC_INTERVAL);
+      } catch(final IOException e)
+      {
+         spool(spoolPathOf(logPath), List.of(score));
+         return false;
+      }
+
+      try(sink)
+      {
+         sink.submit(score);
+      }
+
+      if(sink.getFailed() > 0)
+      {
+         throw new IOException("Score could not be written to log " + logPath.getFileName());
+      }
+
+      return sink.getSpooled() == 0;
+   }
+
+   /**
+    * Queues a score to be written. Never blocks.
+    *
+    * @param score the score of any game
+    * @throws IllegalArgumentException if the score is null
+    * @throws IllegalStateException if the sink is closed
+    */
+   public void submit(final GameScore score)
+   {
+      if(score == null)
+      {
+         throw new IllegalArgumentException("Score must not be null!");
+      }
+
+      if(isClosed)
+      {
+         throw new IllegalStateException("Score sink is closed");
+      }
+
+      queue.offer(score);
+      submitted.incrementAndGet();
+      LockSupport.unpark(writer);
+   }
+
+   /**
+    * Returns the number of scores submitted.
+    *
+    * @return the number of scores submitted
+    */
+   public long getSubmitted()
+   {
+      return submitted.get();
+   }
+
+   /**
+    * Returns the number of scores that could be neither written nor spooled.
+    *
+    * @return the number of scores lost to write errors
+    */
+   public long getFailed()
+   {
+      return failed.get();
+   }
+
+   /**
+    * Returns the number of scores spooled because they could not be written.
+    *
+    * @return the number of scores left in the spool for the next interval
+    */
+   public long getSpooled()
+   {
+      return spooled.get();
+   }
+
+   /**
+    * Returns the leaderboard kept up to date by the sink.
+    *
+    * @return the leaderboard, or {@code empty} if the sink keeps none
+    */
+   public Optional<ScoreLeaderboard> getLeaderboard()
+   {
+      return Optional.ofNullable(leaderboard);
+   }
+
+   /**
+    * Stops accepting scores, writes every queued one, saves the leaderboard,
+    * flushes the log and closes it.
+    *
+    * @throws IOException if the leaderboard cannot be saved or the log cannot be closed
+    */
+   @Override
+   public void close() throws IOException
+   {
+      isClosed = true;
+      LockSupport.unpark(writer);
+
+      try
+      {
+         writer.join();
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      // A submit racing with close can queue a score after the writer's last look
+      if(!queue.isEmpty())
+      {
+         writeOrSpool(new ArrayList<>(queue));
+         queue.clear();
+      }
+
+      try
+      {
+         if(leaderboard != null)
+         {
+            leaderboard.close();
+         }
+      } finally
+      {
+         if(log.isOpen())
+         {
+            log.close();
+         }
+      }
+   }
+
+   /*
+    * Starts the writer thread.
+    */
+   private void start()
+   {
+      writer = new Thread(this::drain, "score-sink-writer");
+      writer.setDaemon(true);
+      writer.start();
+   }
+
+   /*
+    * Returns the path of the spool of a score log.
+    *
+    * @param logPath the path of the score log
+    * @return the path of its spool
+    */
+   private static Path spoolPathOf(final Path logPath)
+   {
+      return logPath.resolveSibling(logPath.getFileName() + SPOOL_SUFFIX);
+   }
+
+   /*
+    * Appends scores to a spool in the text score format and flushes it to the
+    * device, holding the lock of the spool so the sink that imports it never
+    * reads half a score.
+    *
+    * @param spoolPath the path of the spool
+    * @param scores the scores to spool
+    */
+   private static void spool(final Path spoolPath, final List<? extends GameScore> scores) throws IOException
+   {
+      try(final FileChannel channel = FileChannel.open(spoolPath,
+                                                       StandardOpenOption.CREATE,
+                                                       StandardOpenOption.WRITE,
+                                                       StandardOpenOption.APPEND))
+      {
+         final StringBuilder text;
+         final ByteBuffer bytes;
+
+         text = new StringBuilder();
+
+         for(final GameScore score : scores)
+         {
+            text.append(textOf(score)).append(System.lineSeparator());
+         }
+
+         // Released when the channel closes
+         channel.lock();
+         bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+
+         while(bytes.hasRemaining())
+         {
+            channel.write(bytes);
+         }
+
+         channel.force(true);
+      } catch(final OverlappingFileLockException e)
+      {
+         throw new IOException("Score spool " + spoolPath.getFileName() + " is being imported", e);
+      }
+   }
+
+   /*
+    * Returns a score in the text score format of its game, the one the
+    * ScoreReader reads back.
+    *
+    * @param score the score
+    * @return the text of the score
+    */
+   private static String textOf(final GameScore score)
+   {
+      final StringBuilder sb;
+
+      if(score.getNamespace() == ScoreNamespace.WORD_GAME)
+      {
+         return ScoreLog.scoreOf(ScoreNamespace.WORD_GAME,
+                                 score.getDateTime(),
+                                 score.getNumGamesPlayed(),
+                                 score.getNumCorrectFirstAttempt(),
+                                 score.getNumCorrectSecondAttempt(),
+                                 score.getNumIncorrectTwoAttempts()).toString();
+      }
+
+      sb = new StringBuilder();
+
+      sb.append("Date and Time: ").append(score.getDateTime().format(ScoreTextScanner.DATE_TIME_FORMAT)).append('\n');
+      sb.append("Rounds Played: ").append(score.getNumGamesPlayed()).append('\n');
+      sb.append("Highest Score: ").append(score.getNumCorrectFirstAttempt()).append('\n');
+      sb.append("Highest Win Streaks: ").append(score.getNumCorrectSecondAttempt()).append('\n');
+      sb.append("Number of Win Streaks: ").append(score.getNumIncorrectTwoAttempts()).append('\n');
+
+      return sb.toString();
+   }
+
+   /*
+    * Adds the scores other processes spooled while this sink held the log, and
+    * empties the spool once they are written. A spool that is locked is left
+    * for the next interval; one that cannot be parsed is set aside, so it is
+    * not retried forever.
+    */
+   private void importSpool()
+   {
+      if(Files.notExists(spoolPath))
+      {
+         return;
+      }
+
+      try(final FileChannel channel = FileChannel.open(spoolPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+          final FileLock lock = channel.tryLock())
+      {
+         final List<GameScore> scores;
+         final ScoreReader reader;
+
+         if(lock == null)
+         {
+            return;
+         }
+
+         scores = new ArrayList<>();
+         reader = new ScoreReader(channel, channel.size());
+
+         try
+         {
+            while(reader.hasNextRecord())
+            {
+               scores.add(reader.nextRecord());
+            }
+         } catch(final IllegalArgumentException e)
+         {
+            Files.move(spoolPath,
+                       spoolPath.resolveSibling(spoolPath.getFileName() + INVALID_SUFFIX),
+                       StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Error importing score spool " + spoolPath.getFileName() + ", " + e.getMessage());
+            return;
+         }
+
+         if(scores.isEmpty() || write(scores))
+         {
+            channel.truncate(0);
+         }
+      } catch(final IOException | UncheckedIOException | OverlappingFileLockException e)
+      {
+         System.out.println("Error importing score spool " + spoolPath.getFileName() + ", " + e.getMessage());
+      }
+   }
+
+   /*
+    * Runs the writer thread: appends queued scores in batches, flushes the log
+    * once per interval, imports the spool and compacts the log when due, and
+    * parks while there is nothing to do.
+    */
+   private void drain()
+   {
+      final List<GameScore> batch;
+      long lastSync;
+      long nextCompaction;
+
+      batch = new ArrayList<>();
+      lastSync = System.nanoTime();
+      nextCompaction = lastSync;
+      importSpool();
+
+      while(true)
+      {
+         final boolean isLast;
+         GameScore score;
+
+         // Read the flag before draining, so a score queued before close is never left behind
+         isLast = isClosed;
+
+         while(batch.size() < MAX_BATCH && (score = queue.poll()) != null)
+         {
+            batch.add(score);
+         }
+
+         if(!batch.isEmpty())
+         {
+            writeOrSpool(batch);
+            batch.clear();
+         }
+
+         if(System.nanoTime() - lastSync >= syncIntervalNanos)
+         {
+            importSpool();
+            sync();
+            lastSync = System.nanoTime();
+         }
+
+         if(compactor != null && !isLast && System.nanoTime() - nextCompaction >= 0)
+         {
+            compact();
+            nextCompaction = System.nanoTime() + compactIntervalNanos;
+         }
+
+         if(isLast && queue.isEmpty())
+         {
+            return;
+         }
+
+         if(queue.isEmpty())
+         {
+            LockSupport.parkNanos(this, syncIntervalNanos);
+         }
+      }
+   }
+
+   /*
+    * Appends a batch of scores, spooling it if the write fails so the next
+    * interval imports it again, and counting it as failed only if it cannot
+    * be spooled either.
+    *
+    * @param batch the scores to append
+    */
+   private void writeOrSpool(final List<? extends GameScore> batch)
+   {
+      if(write(batch))
+      {
+         return;
+      }
+
+      try
+      {
+         spool(spoolPath, batch);
+         spooled.addAndGet(batch.size());
+      } catch(final IOException e)
+      {
+         failed.addAndGet(batch.size());
+         System.out.println("Error spooling " + batch.size() + " scores " + e.getMessage());
+      }
+   }
+
+   /*
+    * Appends a batch of scores and adds them to the leaderboard. A leaderboard
+    * that cannot take them does not fail the batch, which is already in the log.
+    *
+    * @param batch the scores to append
+    * @return true if the scores were written
+    */
+   private boolean write(final List<? extends GameScore> batch)
+   {
+      try
+      {
+         reopen();
+         log.appendAll(batch);
+      } catch(final IOException | RuntimeException e)
+      {
+         System.out.println("Error writing " + batch.size() + " scores to log " + e.getMessage());
+         return false;
+      }
+
+      try
+      {
+         if(leaderboard != null)
+         {
+            leaderboard.addAll(batch);
+         }
+      } catch(final RuntimeException e)
+      {
+         System.out.println("Error adding " + batch.size() + " scores to leaderboard " + e.getMessage());
+      }
+
+      return true;
+   }
+
+   /*
+    * Compacts the log, switching to the rewritten one. The leaderboard holds
+    * every score appended so far, so it only follows the log to its new
+    * generation and is saved, to match the log on disk.
+    */
+   private void compact()
+   {
+      try
+      {
+         final ScoreLog compacted;
+
+         reopen();
+         compacted = compactor.compact(log, LocalDate.now());
+
+         if(compacted != log)
+         {
+            log = compacted;
+
+            if(leaderboard != null)
+            {
+               leaderboard.rebase(compacted);
+               leaderboard.flush();
+            }
+         }
+      } catch(final IOException | RuntimeException e)
+      {
+         System.out.println("Error compacting score log " + e.getMessage());
+      }
+   }
+
+   /*
+    * Flushes the log to the device.
+    */
+   private void sync()
+   {
+      try
+      {
+         reopen();
+         log.force();
+      } catch(final IOException e)
+      {
+         System.out.println("Error syncing score log " + e.getMessage());
+      }
+   }
+
+   /*
+    * Reopens the log if a compaction that failed part way left it closed, so
+    * the batches after it are still written. The leaderboard already holds
+    * every score written, so it only follows the log that is now on disk.
+    *
+    * @throws IOException if the log cannot be reopened; the next batch tries again
+    */
+   private void reopen() throws IOException
+   {
+      if(!log.isOpen())
+      {
+         log = ScoreLog.open(log.getPath());
+
+         if(leaderboard != null)
+         {
+            leaderboard.rebase(log);
+         }
+      }
+   }
+}
@@ -1,19 +1,20 @@
 package ca.bcit.comp2522.project.wordgame;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
+import ca.bcit.comp2522.project.util.RandomProvider;
+
 /**
  * The {@code WordGame} class implements the logic for a word guessing game where players
  * try to guess the country or capital city based on given clues. The game provides multiple
@@ -37,132 +38,76 @@ public class WordGame
    public static final int DATE_TIME_STR = 2;
    public static final String SCORE_FILE = "score.txt";
 
+   static final Path SCORE_LOG_PATH = Paths.get("src", "output", "score.log");
+
+   private static final Path QUESTION_BANK_PATH = Paths.get("src", "output", "questions.bank");
+
    /**
     * Main method to start and control the flow of the Word Game. It runs the game, tracks scores,
     * checks for new high scores, and writes the score history to a file.
     *
-    * @param args Command line arguments (not used in this implementation).
+    * @param args Command line arguments; an optional seed replays the same questions.
     */
    public static void main(final String[] args)
    {
       final World world;
-      final Map<String, Country> worldMap;
-      final List<Country> countryList;
-      final List<Score> scoreHistory;
-      final Optional<Score> prevMaxScore;
+      final RandomProvider randomProvider;
+      final RandomGenerator random;
+      final WordGameConsole console;
+      Optional<Score> prevMaxScore;
       String[] dateTimeStr;
       final Score score;
-      final Scanner scanner;
       final boolean isNewMax;
       final int date;
       final int time;
 
-      String continuePlaying;
-      int numGamesPlayed;
-      int numCorrectFirstGuess;
-      int numCorrectSecondGuess;
-      int numIncorrectGuessTwoAttempts;
-      String userAnswer;
-
-
       world = new World();
-      worldMap = world.getWorldMap();
-      countryList = world.getCountryList();
-      scanner = new Scanner(System.in);
+      randomProvider = randomProviderOf(args);
+      random = randomProvider.split();
+      console = new WordGameConsole(new WordGameSession(world,
+                                                        new FuzzyMatcher(world),
+                                                        random,
+                                                        new QuestionScheduler(world.size(), random),
+                                                        QuestionBank.readOrBuild(world, QUESTION_BANK_PATH)),
+                                    new BufferedReader(new InputStreamReader(System.in)),
+                                    new PrintWriter(System.out, true));
       dateTimeStr = new String[DATE_TIME_STR];
-      numGamesPlayed = 0;
-      numCorrectFirstGuess = 0;
-      numCorrectSecondGuess = 0;
-      numIncorrectGuessTwoAttempts = 0;
-
-      System.out.println("Welcome to Word Game!");
-      System.out.println("Here are the rules: ");
-      System.out.println("a) I will give you the name of a capital city," +
-              " and ask you to guess the name of the country.");
-      System.out.println("b) I will give you the name of a country, " +
-              "and ask you to guess the name of the capital city.");
-      System.out.println("c) I will give one of the three facts about a country, " +
-              "and ask you to guess the name of the country.");
-      System.out.println("Here is how your scores are determined:");
-      System.out.println("If your first guess is correct, you get 2 points. " +
-              "On second guess, 1 point. No point for incorrect guesses.");
-      System.out.println("Let's begin!");
-
-      do
-      {
-         boolean isCorrect;
-         int round;
-
-         round = 0;
-
-         numGamesPlayed++;
 
-         while(round < REPORT_CYCLE)
-         {
-            final Random rand;
-            final int option;
-            final Country country;
-
-            rand = new Random();
-            option = rand.nextInt(1, 4);
-            country = playGame(countryList, option);
-
-            System.out.println("Enter your answer:");
-            userAnswer = scanner.nextLine();
-            isCorrect  = checkAnswer(country, userAnswer, option);
-
-            if(isCorrect)
-            {
-               System.out.println("Correct! You earned 2 points.");
-               numCorrectFirstGuess++;
-            } else
-            {
-               System.out.println("Incorrect! You have one more guess...");
-               userAnswer = scanner.nextLine();
-
-               isCorrect = checkAnswer(country, userAnswer, option);
-
-               if(isCorrect)
-               {
-                  System.out.println("Correct! You earned 1 point.");
-                  numCorrectSecondGuess++;
-               } else
-               {
-                  System.out.println("The correct answer is " + answerForIncorrect(country, option));
-                  numIncorrectGuessTwoAttempts++;
-               }
-            }
-
-            round++;
-         }
+      try
+      {
+         score = console.play();
+      } catch(final IOException e)
+      {
+         System.out.println("Error reading answers " + e.getMessage());
+         return;
+      }
 
-         System.out.println(numGamesPlayed + " word game played");
-         System.out.println(numCorrectFirstGuess + " correct answer on the first attempt");
-         System.out.println(numCorrectSecondGuess + " correct answer on the second attempt");
-         System.out.println(numIncorrectGuessTwoAttempts + " incorrect answers on two attempts each");
+      prevMaxScore = Optional.empty();
 
-         System.out.println("Would you like to continue playing Word Game? [Yes/No]");
-         continuePlaying = scanner.nextLine();
+      // The server and the memory game hold the log while they run, so the history may be unreadable
+      try(final ScoreRepository scores = ScoreRepository.open(SCORE_LOG_PATH))
+      {
+         prevMaxScore = scores.highScore();
 
-         while(!continuePlaying.equalsIgnoreCase("yes") &&
-               !continuePlaying.equalsIgnoreCase("no"))
-         {
-            System.out.println("Please provide a 'Yes' or 'No'. " +
-                    "Would you like to continue playing Word Game?");
-            continuePlaying = scanner.nextLine();
-         }
+         System.out.println("Average over the " + scores.count() + " previous sessions: " +
+                            String.format("%.2f", scores.averagePointsPerGame()) + " points per game");
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Score history unavailable, " + e.getMessage());
+      }
 
-         if(continuePlaying.equalsIgnoreCase("no"))
+      try
+      {
+         if(!ScoreSink.record(SCORE_LOG_PATH, score))
          {
-            System.out.println("Thank you for playing. Bye!");
-            break;
+            System.out.println("Score log is in use by another game; your score will be added to it shortly");
          }
-      } while(continuePlaying.equalsIgnoreCase("yes"));
-
-      score = new Score(LocalDateTime.now(), numGamesPlayed, numCorrectFirstGuess, numCorrectSecondGuess, numIncorrectGuessTwoAttempts);
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Error recording score " + e.getMessage());
+      }
 
-      isNewMax = checkMaxScore(score);
-      prevMaxScore = getMaxScoreHistory();
+      isNewMax = checkMaxScore(score, prevMaxScore);
       date = 0;
       time = 1;
 
@@ -200,116 +145,6 @@ public class WordGame
          }
       }
 
-      try
-      {
-         Score.appendScoreToFile(score, SCORE_FILE);
-      } catch(final IOException e)
-      {
-         System.out.println("Error appending score to file " + e.getMessage());
-      }
-
-      scanner.close();
-   }
-
-   /*
-    * Plays a round of the game by selecting a random country and asking the player a question.
-    *
-    * @param countryList A list of available countries to choose from.
-    * @param option The type of question to ask (capital, country name, or fact).
-    * @return The randomly selected country for this round.
-    */
-   private static Country playGame(final List<Country> countryList, final int option)
-   {
-      final Random random;
-      final int countryIndex;
-      final int size;
-      final Country country;
-      final String countryName;
-      final String capitalCity;
-      final String fact;
-      final int randomFact;
-
-      random = new Random();
-      size = countryList.size();
-      countryIndex = random.nextInt(size);
-      country = countryList.get(countryIndex);
-      countryName = country.getName();
-      randomFact = random.nextInt(country.getFacts().length);
-      capitalCity = country.getCapitalCityName();
-      fact = country.getFacts()[randomFact];
-
-      if(countryList != null)
-      {
-         switch(option)
-         {
-            case OPTION_A -> System.out.println("Which country has this capital city? " + capitalCity);
-            case OPTION_B -> System.out.println("What is the name of this country's capital city? " +
-                    countryName);
-            case OPTION_C ->
-            {
-               System.out.println("Here is a fact about this country: " + fact);
-               System.out.println("What country is this?");
-            }
-            default -> System.out.println("Invalid option!");
-         }
-      }
-
-      return country;
-   }
-
-   /*
-    * Checks the player's answer against the correct answer for the given country and question type.
-    *
-    * @param country The country to compare against.
-    * @param answer The player's answer.
-    * @param option The type of question asked (capital, country name, or fact).
-    * @return {@code true} if the answer is correct, {@code false} otherwise.
-    */
-   private static boolean checkAnswer(final Country country, final String answer, final int option)
-   {
-      if(country != null)
-      {
-         switch(option)
-         {
-            case OPTION_A, OPTION_C ->
-            {
-               return answer.trim().equalsIgnoreCase(country.getName());
-            }
-            case OPTION_B ->
-            {
-               return answer.trim().equalsIgnoreCase(country.getCapitalCityName());
-            }
-            default -> System.out.println("Invalid option!");
-         }
-      }
-
-      return false;
-   }
-
-   /*
-    * Returns the correct answer for an incorrect guess.
-    *
-    * @param country The country being questioned.
-    * @param option The type of question asked.
-    * @return The correct answer based on the question type.
-    */
-   private static String answerForIncorrect(final Country country, final int option)
-   {
-      String result;
-
-      result = null;
-
-      if(country != null)
-      {
-         switch(option)
-         {
-            case OPTION_A, OPTION_C -> result = country.getName();
-            case OPTION_B -> result = country.getCapitalCityName();
-            default -> System.out.println("Invalid option!");
-         }
-      }
-
-      return result;
    }
 
    /*
@@ -359,66 +194,43 @@ public class WordGame
    }
 
    /*
-    * Checks whether the current score is greater than the highest score recorded in the file.
+    * Checks whether the current score is greater than the highest score recorded before it.
     *
     * @param currentScore The score to check against the high score.
+    * @param maxScore The highest score recorded before the current one, if any.
     * @return {@code true} if the current score is a new high score, {@code false} otherwise.
     */
-   private static boolean checkMaxScore(final Score currentScore)
+   private static boolean checkMaxScore(final Score currentScore, final Optional<Score> maxScore)
    {
-      List<Score> scoreList;
-      final Optional<Score> maxScore;
-      double max;
-
-      max = 0.0;
-      scoreList = new ArrayList<>();
-
-      try
-      {
-         scoreList = Score.readScoresFromFile(SCORE_FILE);
-      } catch(final IOException e)
-      {
-         System.out.println("Error reading scores from file " + e);
-      }
-
-      maxScore = scoreList.stream().max(Comparator.comparing(Score::getScore));
+      final double max;
 
-      if(currentScore == null)
-      {
-         System.out.println("Cannot compare due to invalid current score, " + currentScore);
-      }
-
-      if(maxScore.isPresent())
-      {
-         max = maxScore.get().getScore();
-      }
+      max = maxScore.map(Score::getScore).orElse(0);
 
       return max < currentScore.getScore();
    }
 
    /*
-    * Retrieves the highest score history stored in the score file.
+    * Returns the random provider of a game: one seeded from the first argument,
+    * so the same questions are replayed, or the shared one when there is no
+    * argument or it is not a whole number.
     *
-    * @return An {@code Optional} containing the highest score, or {@code empty} if no score exists.
+    * @param args The command line arguments.
+    * @return The random provider of the game.
     */
-   private static Optional<Score> getMaxScoreHistory()
+   private static RandomProvider randomProviderOf(final String[] args)
    {
-      List<Score> scoreList;
-      final Optional<Score> max;
-
-      scoreList = new ArrayList<>();
-
-      try
+      if(args.length > 0)
       {
-         scoreList = Score.readScoresFromFile(SCORE_FILE);
-      } catch(final IOException e)
-      {
-         System.out.println("Error reading scores from file " + e);
+         try
+         {
+            return new RandomProvider(Long.parseLong(args[0]));
+         } catch(final NumberFormatException e)
+         {
+            System.out.println("Usage: WordGame [seed], where seed is a whole number. Playing without a seed.");
+         }
       }
 
-      max = scoreList.stream().max(Comparator.comparing(Score::getScore));
-
-      return max;
+      return RandomProvider.shared();
    }
 
    /*
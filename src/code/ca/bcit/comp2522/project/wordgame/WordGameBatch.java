@@ -0,0 +1,343 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code WordGameBatch} class grades recorded word game sessions without a
+ * console. Every round is stored as the seed of its question and the answers
+ * given, so the question is rebuilt with {@link Question#fromSeed(World, long)}
+ * and graded exactly as the interactive game would.
+ *
+ * <p>An answer file has one round per line, with tab-separated fields:
+ * <pre>
+ * sessionId	seed	firstAnswer	[secondAnswer]
+ * </pre>
+ * The second answer is only used when the first one is wrong. Blank lines and
+ * lines starting with {@code #} are ignored. Rounds of the same session do not
+ * have to be adjacent. Sessions are graded in parallel and each produces one
+ * {@link Score}, counting a game for every {@link WordGame#REPORT_CYCLE} rounds.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class WordGameBatch
+{
+   private static final String FIELD_SEPARATOR = "\t";
+   private static final String COMMENT         = "#";
+   private static final int    SESSION_FIELD   = 0;
+   private static final int    SEED_FIELD      = 1;
+   private static final int    FIRST_FIELD     = 2;
+   private static final int    SECOND_FIELD    = 3;
+   private static final int    MIN_FIELDS      = 3;
+   private static final int    MAX_FIELDS      = 4;
+   private static final long   NANOS_PER_MS    = 1_000_000L;
+   private static final double MS_PER_SECOND   = 1000.0;
+
+   private final World world;
+   private final FuzzyMatcher matcher;
+
+   /**
+    * Constructs a new {@code WordGameBatch} grading against the given world.
+    *
+    * @param world the world the questions are drawn from
+    * @param matcher the fuzzy matcher used for answers that are not exact
+    * @throws IllegalArgumentException if the world or matcher is null
+    */
+   public WordGameBatch(final World world, final FuzzyMatcher matcher)
+   {
+      if(world == null || matcher == null)
+      {
+         throw new IllegalArgumentException("World and matcher must not be null!");
+      }
+
+      this.world = world;
+      this.matcher = matcher;
+   }
+
+   /**
+    * Grades every session of an answer file.
+    *
+    * @param answerFile the answer file
+    * @param threads the number of threads grading sessions
+    * @return the score of every session, in the order sessions first appear
+    * @throws IOException if the file cannot be read
+    * @throws IllegalArgumentException if threads is lower than 1
+    */
+   public Map<String, Score> grade(final Path answerFile, final int threads) throws IOException
+   {
+      return grade(readSessions(answerFile), threads);
+   }
+
+   /**
+    * Grades sessions that were already read.
+    *
+    * @param sessions the rounds of every session, keyed by session id
+    * @param threads the number of threads grading sessions
+    * @return the score of every session, in the iteration order of the sessions
+    * @throws IllegalArgumentException if threads is lower than 1
+    */
+   public Map<String, Score> grade(final Map<String, List<Round>> sessions, final int threads)
+   {
+      if(threads < 1)
+      {
+         throw new IllegalArgumentException("At least one thread is required!");
+      }
+
+      final LocalDateTime gradedAt;
+      final List<String> ids;
+      final List<Score> scores;
+      final Map<String, Score> results;
+      final ForkJoinPool pool;
+
+      gradedAt = LocalDateTime.now();
+      ids = new ArrayList<>(sessions.keySet());
+      results = new LinkedHashMap<>();
+      pool = new ForkJoinPool(threads);
+
+      try
+      {
+         scores = pool.submit(() -> ids.parallelStream()
+                                       .map(id -> gradeSession(sessions.get(id), gradedAt))
+                                       .toList())
+                      .get();
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Grading was interrupted", e);
+      } catch(final ExecutionException e)
+      {
+         throw new IllegalStateException("Error grading sessions, " + e.getCause().getMessage(), e.getCause());
+      } finally
+      {
+         pool.shutdown();
+      }
+
+      for(int i = 0; i < ids.size(); i++)
+      {
+         results.put(ids.get(i), scores.get(i));
+      }
+
+      return results;
+   }
+
+   /**
+    * Grades the rounds of one session.
+    *
+    * @param rounds the rounds of the session
+    * @param gradedAt the date and time recorded in the score
+    * @return the score of the session
+    */
+   public Score gradeSession(final List<Round> rounds, final LocalDateTime gradedAt)
+   {
+      final int numGamesPlayed;
+      int numCorrectFirstGuess;
+      int numCorrectSecondGuess;
+      int numIncorrectGuessTwoAttempts;
+
+      numGamesPlayed = Math.max(1, (rounds.size() + WordGame.REPORT_CYCLE - 1) / WordGame.REPORT_CYCLE);
+      numCorrectFirstGuess = 0;
+      numCorrectSecondGuess = 0;
+      numIncorrectGuessTwoAttempts = 0;
+
+      for(final Round round : rounds)
+      {
+         final Question question;
+
+         question = Question.fromSeed(world, round.seed);
+
+         if(question.isCorrect(world, matcher, round.firstAnswer))
+         {
+            numCorrectFirstGuess++;
+         } else if(question.isCorrect(world, matcher, round.secondAnswer))
+         {
+            numCorrectSecondGuess++;
+         } else
+         {
+            numIncorrectGuessTwoAttempts++;
+         }
+      }
+
+      return new Score(gradedAt,
+                       numGamesPlayed,
+                       numCorrectFirstGuess,
+                       numCorrectSecondGuess,
+                       numIncorrectGuessTwoAttempts);
+   }
+
+   /**
+    * Reads an answer file and groups its rounds by session. Malformed lines are
+    * reported and skipped.
+    *
+    * @param answerFile the answer file
+    * @return the rounds of every session, in the order sessions first appear
+    * @throws IOException if the file cannot be read
+    */
+   public static Map<String, List<Round>> readSessions(final Path answerFile) throws IOException
+   {
+      final Map<String, List<Round>> sessions;
+
+      sessions = new LinkedHashMap<>();
+
+      try(final BufferedReader reader = Files.newBufferedReader(answerFile, StandardCharsets.UTF_8))
+      {
+         String line;
+         int lineNumber;
+
+         lineNumber = 0;
+
+         while((line = reader.readLine()) != null)
+         {
+            final String[] fields;
+
+            lineNumber++;
+
+            if(line.isBlank() || line.startsWith(COMMENT))
+            {
+               continue;
+            }
+
+            fields = line.split(FIELD_SEPARATOR, MAX_FIELDS);
+
+            if(fields.length < MIN_FIELDS || fields[SESSION_FIELD].isBlank())
+            {
+               System.out.println("Skipping invalid answer line " + lineNumber);
+               continue;
+            }
+
+            try
+            {
+               final Round round;
+
+               round = new Round(Long.parseLong(fields[SEED_FIELD].trim()),
+                                 fields[FIRST_FIELD],
+                                 fields.length > SECOND_FIELD ? fields[SECOND_FIELD] : null);
+
+               sessions.computeIfAbsent(fields[SESSION_FIELD].trim(), id -> new ArrayList<>()).add(round);
+            } catch(final NumberFormatException e)
+            {
+               System.out.println("Skipping invalid answer line " + lineNumber + ", " + e.getMessage());
+            }
+         }
+      }
+
+      sessions.replaceAll((id, rounds) -> Collections.unmodifiableList(rounds));
+
+      return sessions;
+   }
+
+   /**
+    * Grades an answer file from the command line and prints the score of every
+    * session. When an output file name is given, the scores are also appended to
+    * it in the "src/output" directory.
+    *
+    * @param args the answer file, then optionally the number of threads and an output file name
+    */
+   public static void main(final String[] args)
+   {
+      if(args.length < 1)
+      {
+         System.out.println("Usage: WordGameBatch <answerFile> [threads] [outputFile]");
+         return;
+      }
+
+      final World world;
+      final WordGameBatch batch;
+      final int threads;
+      final Map<String, List<Round>> sessions;
+      final Map<String, Score> scores;
+      final long start;
+      final long elapsedMs;
+      int rounds;
+
+      world = new World();
+      batch = new WordGameBatch(world, new FuzzyMatcher(world));
+      threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+      try
+      {
+         sessions = readSessions(Paths.get(args[0]));
+      } catch(final IOException e)
+      {
+         System.out.println("Error reading answer file " + args[0] + ", " + e.getMessage());
+         return;
+      }
+
+      start = System.nanoTime();
+      scores = batch.grade(sessions, threads);
+      elapsedMs = (System.nanoTime() - start) / NANOS_PER_MS;
+      rounds = 0;
+
+      for(final List<Round> session : sessions.values())
+      {
+         rounds += session.size();
+      }
+
+      scores.forEach((id, score) -> System.out.println("Session " + id + System.lineSeparator() + score));
+
+      if(args.length > 2)
+      {
+         for(final Score score : scores.values())
+         {
+            try
+            {
+               Score.appendScoreToFile(score, args[2]);
+            } catch(final IOException e)
+            {
+               System.out.println("Error appending score to file " + e.getMessage());
+            }
+         }
+      }
+
+      System.out.println("Graded " + rounds + " rounds in " + scores.size() + " sessions in " +
+                         elapsedMs + " ms (" +
+                         Math.round(rounds * MS_PER_SECOND / Math.max(1, elapsedMs)) + " rounds/s)");
+   }
+
+   /**
+    * The {@code Round} class is one recorded round: the seed of its question and
+    * the answers given.
+    */
+   public static final class Round
+   {
+      private final long seed;
+      private final String firstAnswer;
+      private final String secondAnswer;
+
+      /**
+       * Constructs a new {@code Round}.
+       *
+       * @param seed the seed of the question
+       * @param firstAnswer the first answer given
+       * @param secondAnswer the second answer given, or null if there was none
+       */
+      public Round(final long seed, final String firstAnswer, final String secondAnswer)
+      {
+         this.seed = seed;
+         this.firstAnswer = firstAnswer;
+         this.secondAnswer = secondAnswer;
+      }
+
+      /**
+       * Returns the seed of the question.
+       *
+       * @return the seed
+       */
+      public long getSeed()
+      {
+         return seed;
+      }
+   }
+}
@@ -0,0 +1,177 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * The {@code WordGameConsole} class drives a {@link WordGameSession} over a
+ * line-based text interface. The reader and writer are supplied by the caller,
+ * so the same driver serves the terminal, a network connection or a test.
+ *
+ * <p>The player is asked ten questions per game and may then choose to keep
+ * playing. If the input ends, the session ends as if the player had quit.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class WordGameConsole
+{
+   private static final String YES = "yes";
+   private static final String NO  = "no";
+
+   private final WordGameSession session;
+   private final BufferedReader in;
+   private final PrintWriter out;
+
+   /**
+    * Constructs a new {@code WordGameConsole}.
+    *
+    * @param session the session to play
+    * @param in the reader the player's lines are read from
+    * @param out the writer the game's lines are written to
+    * @throws IllegalArgumentException if any argument is null
+    */
+   public WordGameConsole(final WordGameSession session, final BufferedReader in, final PrintWriter out)
+   {
+      if(session == null || in == null || out == null)
+      {
+         throw new IllegalArgumentException("Session, input and output must not be null!");
+      }
+
+      this.session = session;
+      this.in = in;
+      this.out = out;
+   }
+
+   /**
+    * Plays games until the player declines to continue or the input ends.
+    *
+    * @return the score of the session
+    * @throws IOException if reading or writing fails
+    */
+   public Score play() throws IOException
+   {
+      String continuePlaying;
+
+      printRules();
+
+      do
+      {
+         if(!playGame())
+         {
+            break;
+         }
+
+         out.println(session.getNumGamesPlayed() + " word game played");
+         out.println(session.getNumCorrectFirstAttempt() + " correct answer on the first attempt");
+         out.println(session.getNumCorrectSecondAttempt() + " correct answer on the second attempt");
+         out.println(session.getNumIncorrectTwoAttempts() + " incorrect answers on two attempts each");
+
+         out.println("Would you like to continue playing Word Game? [Yes/No]");
+         continuePlaying = readLine();
+
+         while(continuePlaying != null &&
+               !continuePlaying.equalsIgnoreCase(YES) &&
+               !continuePlaying.equalsIgnoreCase(NO))
+         {
+            out.println("Please provide a 'Yes' or 'No'. " +
+                    "Would you like to continue playing Word Game?");
+            continuePlaying = readLine();
+         }
+
+         if(continuePlaying == null || continuePlaying.equalsIgnoreCase(NO))
+         {
+            out.println("Thank you for playing. Bye!");
+            break;
+         }
+      } while(true);
+
+      out.flush();
+
+      return session.summary();
+   }
+
+   /*
+    * Prints the welcome message and the rules.
+    */
+   private void printRules()
+   {
+      out.println("Welcome to Word Game!");
+      out.println("Here are the rules: ");
+      out.println("a) I will give you the name of a capital city," +
+              " and ask you to guess the name of the country.");
+      out.println("b) I will give you the name of a country, " +
+              "and ask you to guess the name of the capital city.");
+      out.println("c) I will give one of the three facts about a country, " +
+              "and ask you to guess the name of the country.");
+      out.println("Here is how your scores are determined:");
+      out.println("If your first guess is correct, you get 2 points. " +
+              "On second guess, 1 point. No point for incorrect guesses.");
+      out.println("Let's begin!");
+   }
+
+   /*
+    * Plays the questions of one game.
+    *
+    * @return true if the game was completed, false if the input ended
+    * @throws IOException if reading fails
+    */
+   private boolean playGame() throws IOException
+   {
+      do
+      {
+         final Question question;
+         WordGameSession.AnswerResult result;
+         String userAnswer;
+
+         question = session.nextQuestion();
+         out.println(question.getPrompt());
+         out.println("Enter your answer:");
+
+         userAnswer = readLine();
+
+         if(userAnswer == null)
+         {
+            return false;
+         }
+
+         result = session.submitAnswer(userAnswer);
+
+         if(result == WordGameSession.AnswerResult.TRY_AGAIN)
+         {
+            out.println("Incorrect! You have one more guess...");
+            userAnswer = readLine();
+
+            if(userAnswer == null)
+            {
+               return false;
+            }
+
+            result = session.submitAnswer(userAnswer);
+         }
+
+         switch(result)
+         {
+            case CORRECT_FIRST_ATTEMPT -> out.println("Correct! You earned 2 points.");
+            case CORRECT_SECOND_ATTEMPT -> out.println("Correct! You earned 1 point.");
+            default -> out.println("The correct answer is " + question.getAnswer());
+         }
+      } while(!session.isGameComplete());
+
+      return true;
+   }
+
+   /*
+    * Flushes pending output so the player sees the prompt, then reads a line.
+    *
+    * @return the line read, or null if the input ended
+    * @throws IOException if reading fails
+    */
+   private String readLine() throws IOException
+   {
+      out.flush();
+
+      return in.readLine();
+   }
+}
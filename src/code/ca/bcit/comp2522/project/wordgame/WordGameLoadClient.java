@@ -0,0 +1,253 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code WordGameLoadClient} class is a load generator for
+ * {@link WordGameServer}. It opens many connections at once, plays one game on
+ * each with deliberately wrong answers, and reports the latency between
+ * submitting an answer and receiving the server's reply.
+ *
+ * <p>Every connection runs on its own virtual thread, so the client scales
+ * the same way the server does. Start the server first, then run for example:
+ * <pre>
+ * WordGameLoadClient localhost 5522 10000
+ * </pre>
+ * The operating system's limit on open files must allow two sockets per
+ * session when client and server share a machine.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class WordGameLoadClient
+{
+   private static final String ANSWER_PROMPT   = "Enter your answer:";
+   private static final String CONTINUE_PROMPT = "Would you like to continue playing Word Game?";
+   private static final String WRONG_ANSWER    = "?";
+   private static final String QUIT            = "No";
+   private static final int    DEFAULT_SESSIONS = 1000;
+   private static final int    ANSWERS_PER_GAME = 2 * WordGame.REPORT_CYCLE;
+   private static final double NANOS_PER_MS     = 1_000_000.0;
+   private static final double P50              = 0.50;
+   private static final double P99              = 0.99;
+
+   /**
+    * Runs the load test.
+    *
+    * @param args the host, the port and the number of concurrent sessions
+    */
+   public static void main(final String[] args)
+   {
+      final String host;
+      final int port;
+      final int sessions;
+      final long[][] latencies;
+      final CountDownLatch ready;
+      final CountDownLatch go;
+      final CountDownLatch done;
+      final AtomicInteger failures;
+      final ExecutorService executor;
+      final long start;
+      final long elapsed;
+      final long[] merged;
+      int count;
+
+      host = args.length > 0 ? args[0] : "localhost";
+      port = args.length > 1 ? Integer.parseInt(args[1]) : WordGameServer.DEFAULT_PORT;
+      sessions = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SESSIONS;
+      latencies = new long[sessions][];
+      ready = new CountDownLatch(sessions);
+      go = new CountDownLatch(1);
+      done = new CountDownLatch(sessions);
+      failures = new AtomicInteger();
+
+      executor = Executors.newVirtualThreadPerTaskExecutor();
+
+      for(int i = 0; i < sessions; i++)
+      {
+         final int session;
+
+         session = i;
+         executor.execute(() -> latencies[session] = runSession(host, port, ready, go, done, failures));
+      }
+
+      try
+      {
+         ready.await();
+         System.out.println(sessions + " sessions connected, starting");
+
+         start = System.nanoTime();
+         go.countDown();
+         done.await();
+         elapsed = System.nanoTime() - start;
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         return;
+      } finally
+      {
+         executor.shutdownNow();
+      }
+
+      merged = new long[sessions * ANSWERS_PER_GAME];
+      count = 0;
+
+      for(final long[] session : latencies)
+      {
+         if(session != null)
+         {
+            System.arraycopy(session, 0, merged, count, session.length);
+            count += session.length;
+         }
+      }
+
+      Arrays.sort(merged, 0, count);
+
+      System.out.println("Sessions: " + sessions + ", failed: " + failures.get());
+      System.out.println("Answers: " + count + " in " + Math.round(elapsed / NANOS_PER_MS) + " ms");
+
+      if(count > 0)
+      {
+         System.out.printf("Latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+                           merged[percentileIndex(count, P50)] / NANOS_PER_MS,
+                           merged[percentileIndex(count, P99)] / NANOS_PER_MS,
+                           merged[count - 1] / NANOS_PER_MS);
+      }
+   }
+
+   /*
+    * Connects one session, waits for every session to be connected, then plays it.
+    *
+    * @param host the server host
+    * @param port the server port
+    * @param ready the latch counting connected sessions
+    * @param go the latch released when every session is connected
+    * @param done the latch counting finished sessions
+    * @param failures the number of sessions that failed
+    * @return the latency of every answer in nanoseconds, or null if the session failed
+    */
+   private static long[] runSession(final String host,
+                                    final int port,
+                                    final CountDownLatch ready,
+                                    final CountDownLatch go,
+                                    final CountDownLatch done,
+                                    final AtomicInteger failures)
+   {
+      Socket socket;
+
+      socket = null;
+
+      try
+      {
+         socket = new Socket(host, port);
+         socket.setTcpNoDelay(true);
+      } catch(final IOException e)
+      {
+         failures.incrementAndGet();
+      } finally
+      {
+         ready.countDown();
+      }
+
+      try(final Socket connection = socket)
+      {
+         if(connection == null)
+         {
+            return null;
+         }
+
+         go.await();
+         return playSession(connection);
+      } catch(final IOException e)
+      {
+         failures.incrementAndGet();
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      } finally
+      {
+         done.countDown();
+      }
+
+      return null;
+   }
+
+   /*
+    * Plays one game with wrong answers, timing each answer until the server's
+    * first reply line, then declines to continue.
+    *
+    * @param socket the connection to the server
+    * @return the latency of every answer in nanoseconds
+    * @throws IOException if the connection fails or closes early
+    */
+   private static long[] playSession(final Socket socket) throws IOException
+   {
+      final BufferedReader in;
+      final PrintWriter out;
+      final long[] latencies;
+      int answers;
+      String line;
+
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      out = new PrintWriter(new BufferedWriter(
+              new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)));
+      latencies = new long[ANSWERS_PER_GAME];
+      answers = 0;
+
+      while((line = in.readLine()) != null)
+      {
+         if(line.startsWith(CONTINUE_PROMPT))
+         {
+            out.println(QUIT);
+            out.flush();
+            break;
+         }
+
+         if(line.equals(ANSWER_PROMPT))
+         {
+            // A wrong answer asks for a second guess, which is answered wrong too
+            for(int attempt = 0; attempt < 2 && answers < latencies.length; attempt++)
+            {
+               final long sent;
+
+               sent = System.nanoTime();
+               out.println(WRONG_ANSWER);
+               out.flush();
+
+               if(in.readLine() == null)
+               {
+                  throw new IOException("Connection closed by server");
+               }
+
+               latencies[answers++] = System.nanoTime() - sent;
+            }
+         }
+      }
+
+      return Arrays.copyOf(latencies, answers);
+   }
+
+   /*
+    * Returns the index of a percentile in a sorted array.
+    *
+    * @param count the number of values
+    * @param percentile the percentile as a fraction
+    * @return the index of the value at the percentile
+    */
+   private static int percentileIndex(final int count, final double percentile)
+   {
+      return Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+   }
+}
@@ -0,0 +1,273 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import ca.bcit.comp2522.project.util.RandomProvider;
+
+/**
+ * The {@code WordGameServer} class serves the word game to many players at once
+ * over TCP. Every connection gets its own {@link WordGameSession}, driven by a
+ * {@link WordGameConsole} with the same line protocol as the terminal game, and
+ * the finished session's {@link Score} is handed to a shared score sink.
+ *
+ * <p>All sessions share one {@link World}, {@link FuzzyMatcher} and
+ * {@link QuestionBank}, which are read-only once built. Each connection runs on
+ * its own virtual thread.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class WordGameServer implements Closeable
+{
+   public static final int DEFAULT_PORT = 5522;
+
+   private static final int  BACKLOG            = 10_000;
+   private static final long SHUTDOWN_TIMEOUT_S = 5;
+
+   private final World world;
+   private final FuzzyMatcher matcher;
+   private final Consumer<Score> scoreSink;
+   private final RandomProvider randomProvider;
+   private final QuestionBank bank;
+   private final ServerSocket serverSocket;
+   private final ExecutorService executor;
+   private final AtomicInteger activeSessions;
+   private final Thread acceptor;
+
+   /**
+    * Constructs a new {@code WordGameServer} listening on the given port, with
+    * questions drawn from the shared random provider. The server does not
+    * accept connections until it is started.
+    *
+    * @param world the world shared by every session
+    * @param matcher the fuzzy matcher shared by every session
+    * @param port the port to listen on, or 0 for any free port
+    * @param scoreSink the consumer receiving the score of every finished session
+    *                  that answered a question; it is called from many threads at once
+    * @throws IOException if the port cannot be bound
+    * @throws IllegalArgumentException if the world, matcher or score sink is null
+    */
+   public WordGameServer(final World world,
+                         final FuzzyMatcher matcher,
+                         final int port,
+                         final Consumer<Score> scoreSink) throws IOException
+   {
+      this(world, matcher, port, scoreSink, RandomProvider.shared());
+   }
+
+   /**
+    * Constructs a new {@code WordGameServer} listening on the given port. The
+    * server does not accept connections until it is started.
+    *
+    * @param world the world shared by every session
+    * @param matcher the fuzzy matcher shared by every session
+    * @param port the port to listen on, or 0 for any free port
+    * @param scoreSink the consumer receiving the score of every finished session
+    *                  that answered a question; it is called from many threads at once
+    * @param randomProvider the provider of every session's random generator
+    * @throws IOException if the port cannot be bound
+    * @throws IllegalArgumentException if the world, matcher, score sink or random provider is null
+    */
+   public WordGameServer(final World world,
+                         final FuzzyMatcher matcher,
+                         final int port,
+                         final Consumer<Score> scoreSink,
+                         final RandomProvider randomProvider) throws IOException
+   {
+      if(world == null || matcher == null || scoreSink == null || randomProvider == null)
+      {
+         throw new IllegalArgumentException("World, matcher, score sink and random provider must not be null!");
+      }
+
+      this.world = world;
+      this.matcher = matcher;
+      this.scoreSink = scoreSink;
+      this.randomProvider = randomProvider;
+      this.bank = QuestionBank.build(world);
+      this.serverSocket = new ServerSocket(port, BACKLOG);
+      this.executor = Executors.newVirtualThreadPerTaskExecutor();
+      this.activeSessions = new AtomicInteger();
+      this.acceptor = new Thread(this::acceptConnections, "word-game-acceptor");
+   }
+
+   /**
+    * Starts accepting connections in the background.
+    */
+   public void start()
+   {
+      acceptor.start();
+   }
+
+   /**
+    * Returns the port the server listens on.
+    *
+    * @return the local port
+    */
+   public int getPort()
+   {
+      return serverSocket.getLocalPort();
+   }
+
+   /**
+    * Returns the number of sessions currently being played.
+    *
+    * @return the number of open sessions
+    */
+   public int getActiveSessions()
+   {
+      return activeSessions.get();
+   }
+
+   /**
+    * Stops accepting connections and waits briefly for open sessions to end.
+    *
+    * @throws IOException if the server socket cannot be closed
+    */
+   @Override
+   public void close() throws IOException
+   {
+      serverSocket.close();
+      executor.shutdown();
+
+      try
+      {
+         if(!executor.awaitTermination(SHUTDOWN_TIMEOUT_S, TimeUnit.SECONDS))
+         {
+            executor.shutdownNow();
+         }
+      } catch(final InterruptedException e)
+      {
+         executor.shutdownNow();
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /*
+    * Accepts connections until the server socket is closed, handing each one
+    * to the executor.
+    */
+   private void acceptConnections()
+   {
+      while(!serverSocket.isClosed())
+      {
+         try
+         {
+            final Socket socket;
+
+            socket = serverSocket.accept();
+            executor.execute(() -> serve(socket));
+         } catch(final SocketException e)
+         {
+            // The server socket was closed
+            return;
+         } catch(final IOException e)
+         {
+            System.out.println("Error accepting connection " + e.getMessage());
+         }
+      }
+   }
+
+   /*
+    * Plays one session over a connection and reports its score, unless the
+    * player left before answering any question.
+    *
+    * @param socket the player's connection
+    */
+   private void serve(final Socket socket)
+   {
+      activeSessions.incrementAndGet();
+
+      try(socket;
+          final BufferedReader in = new BufferedReader(
+                  new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+          final PrintWriter out = new PrintWriter(new BufferedWriter(
+                  new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))))
+      {
+         final WordGameSession session;
+         final Score score;
+
+         socket.setTcpNoDelay(true);
+         session = new WordGameSession(world, matcher, randomProvider.split(), null, bank);
+         score = new WordGameConsole(session, in, out).play();
+
+         // A session dropped before its first answer would only add an all-zero score
+         if(score.getNumCorrectFirstAttempt() +
+            score.getNumCorrectSecondAttempt() +
+            score.getNumIncorrectTwoAttempts() > 0)
+         {
+            scoreSink.accept(score);
+         }
+      } catch(final IOException e)
+      {
+         System.out.println("Error serving " + socket.getRemoteSocketAddress() + ", " + e.getMessage());
+      } finally
+      {
+         activeSessions.decrementAndGet();
+      }
+   }
+
+   /**
+    * Starts a server on the given port, or {@link #DEFAULT_PORT}, submitting the
+    * score of every finished session to the shared {@link ScoreSink}, which
+    * appends it to the score log.
+    *
+    * @param args optionally the port to listen on
+    */
+   public static void main(final String[] args)
+   {
+      final World world;
+      final int port;
+      final ScoreSink scoreSink;
+      final WordGameServer server;
+
+      world = new World();
+      port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+      try
+      {
+         scoreSink = ScoreSink.shared();
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Error opening score log " + e.getMessage());
+         return;
+      }
+
+      try
+      {
+         server = new WordGameServer(world, new FuzzyMatcher(world), port, scoreSink::submit);
+      } catch(final IOException e)
+      {
+         System.out.println("Error starting server on port " + port + ", " + e.getMessage());
+         return;
+      }
+
+      Runtime.getRuntime().addShutdownHook(new Thread(() ->
+      {
+         try
+         {
+            server.close();
+         } catch(final IOException e)
+         {
+            System.out.println("Error stopping server " + e.getMessage());
+         }
+      }));
+
+      server.start();
+      System.out.println("Word Game server listening on port " + server.getPort());
+   }
+}
@@ -0,0 +1,278 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import java.time.LocalDateTime;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code WordGameSession} class holds the state of one player's word game
+ * without doing any input or output. A caller asks for the next question,
+ * submits up to two answers for it, and finally asks for the summary score.
+ * Every {@link WordGame#REPORT_CYCLE} questions make one game.
+ *
+ * <p>A session is used by one player at a time and is not thread-safe, but
+ * many sessions can share the same {@link World} and {@link FuzzyMatcher}, so
+ * any number of players can be hosted in one process.
+ *
+ * @author Linh Hoang
+ * @version 1.0
+ */
+public class WordGameSession
+{
+   /**
+    * The outcome of a submitted answer.
+    */
+   public enum AnswerResult
+   {
+      CORRECT_FIRST_ATTEMPT,
+      TRY_AGAIN,
+      CORRECT_SECOND_ATTEMPT,
+      INCORRECT
+   }
+
+   private final World world;
+   private final FuzzyMatcher matcher;
+   private final RandomGenerator random;
+   private final QuestionScheduler scheduler;
+   private final QuestionBank bank;
+
+   private Question question;
+   private boolean isSecondAttempt;
+   private int round;
+   private int numGamesPlayed;
+   private int numCorrectFirstGuess;
+   private int numCorrectSecondGuess;
+   private int numIncorrectGuessTwoAttempts;
+
+   /**
+    * Constructs a new {@code WordGameSession} asking about uniformly random countries.
+    *
+    * @param world the world the questions are drawn from
+    * @param matcher the fuzzy matcher used for answers that are not exact
+    * @param random the random generator picking the questions
+    * @throws IllegalArgumentException if any argument is null
+    */
+   public WordGameSession(final World world, final FuzzyMatcher matcher, final RandomGenerator random)
+   {
+      this(world, matcher, random, null);
+   }
+
+   /**
+    * Constructs a new {@code WordGameSession} asking about the countries chosen
+    * by a scheduler, which is told the outcome of every question.
+    *
+    * @param world the world the questions are drawn from
+    * @param matcher the fuzzy matcher used for answers that are not exact
+    * @param random the random generator picking the type of each question
+    * @param scheduler the scheduler choosing the countries, or null for uniformly random countries
+    * @throws IllegalArgumentException if the world, matcher or random is null, or if the
+    *                                  scheduler does not cover every country of the world
+    */
+   public WordGameSession(final World world,
+                          final FuzzyMatcher matcher,
+                          final RandomGenerator random,
+                          final QuestionScheduler scheduler)
+   {
+      this(world, matcher, random, scheduler, null);
+   }
+
+   /**
+    * Constructs a new {@code WordGameSession} serving questions with prebuilt
+    * prompts from a question bank.
+    *
+    * @param world the world the questions are drawn from
+    * @param matcher the fuzzy matcher used for answers that are not exact
+    * @param random the random generator picking the questions
+    * @param scheduler the scheduler choosing the countries, or null for uniformly random countries
+    * @param bank the bank of prebuilt questions of the world, or null to build prompts on demand
+    * @throws IllegalArgumentException if the world, matcher or random is null, or if the
+    *                                  scheduler does not cover every country of the world
+    */
+   public WordGameSession(final World world,
+                          final FuzzyMatcher matcher,
+                          final RandomGenerator random,
+                          final QuestionScheduler scheduler,
+                          final QuestionBank bank)
+   {
+      if(world == null || matcher == null || random == null)
+      {
+         throw new IllegalArgumentException("World, matcher and random must not be null!");
+      }
+
+      if(scheduler != null && scheduler.size() != world.size())
+      {
+         throw new IllegalArgumentException("Scheduler must cover every country of the world!");
+      }
+
+      this.world = world;
+      this.matcher = matcher;
+      this.random = random;
+      this.scheduler = scheduler;
+      this.bank = bank;
+      this.question = null;
+      this.isSecondAttempt = false;
+      this.round = 0;
+      this.numGamesPlayed = 0;
+      this.numCorrectFirstGuess = 0;
+      this.numCorrectSecondGuess = 0;
+      this.numIncorrectGuessTwoAttempts = 0;
+   }
+
+   /**
+    * Returns the question waiting for an answer, or picks a new one. Asking for
+    * a question after a game is complete starts the next game.
+    *
+    * @return the current question
+    */
+   public Question nextQuestion()
+   {
+      if(question == null)
+      {
+         if(round == 0 || round == WordGame.REPORT_CYCLE)
+         {
+            round = 0;
+            numGamesPlayed++;
+         }
+
+         if(scheduler == null)
+         {
+            question = bank == null ? Question.random(world, random) : bank.random(random);
+         } else
+         {
+            final Country country;
+
+            country = world.getCountry(scheduler.next());
+            question = bank == null ? Question.about(country, random) : bank.about(country, random);
+         }
+
+         isSecondAttempt = false;
+      }
+
+      return question;
+   }
+
+   /**
+    * Submits an answer to the current question. A wrong first answer leaves the
+    * question open for a second attempt; any other outcome closes it.
+    *
+    * @param answer the player's answer
+    * @return the outcome of the answer
+    * @throws IllegalStateException if there is no open question
+    */
+   public AnswerResult submitAnswer(final String answer)
+   {
+      final boolean isCorrect;
+
+      if(question == null)
+      {
+         throw new IllegalStateException("No question is waiting for an answer!");
+      }
+
+      isCorrect = question.isCorrect(world, matcher, answer);
+
+      if(!isSecondAttempt)
+      {
+         if(isCorrect)
+         {
+            numCorrectFirstGuess++;
+            return closeQuestion(AnswerResult.CORRECT_FIRST_ATTEMPT);
+         }
+
+         isSecondAttempt = true;
+         return AnswerResult.TRY_AGAIN;
+      }
+
+      if(isCorrect)
+      {
+         numCorrectSecondGuess++;
+         return closeQuestion(AnswerResult.CORRECT_SECOND_ATTEMPT);
+      }
+
+      numIncorrectGuessTwoAttempts++;
+      return closeQuestion(AnswerResult.INCORRECT);
+   }
+
+   /**
+    * Checks whether the current game has had all of its questions answered.
+    *
+    * @return {@code true} if the game is complete
+    */
+   public boolean isGameComplete()
+   {
+      return question == null && round == WordGame.REPORT_CYCLE;
+   }
+
+   /**
+    * Returns the number of games started.
+    *
+    * @return the number of games played
+    */
+   public int getNumGamesPlayed()
+   {
+      return numGamesPlayed;
+   }
+
+   /**
+    * Returns the number of questions answered correctly on the first attempt.
+    *
+    * @return the number of correct first attempts
+    */
+   public int getNumCorrectFirstAttempt()
+   {
+      return numCorrectFirstGuess;
+   }
+
+   /**
+    * Returns the number of questions answered correctly on the second attempt.
+    *
+    * @return the number of correct second attempts
+    */
+   public int getNumCorrectSecondAttempt()
+   {
+      return numCorrectSecondGuess;
+   }
+
+   /**
+    * Returns the number of questions answered incorrectly twice.
+    *
+    * @return the number of incorrect answers
+    */
+   public int getNumIncorrectTwoAttempts()
+   {
+      return numIncorrectGuessTwoAttempts;
+   }
+
+   /**
+    * Summarizes the session as a score dated now.
+    *
+    * @return the score of the session
+    */
+   public Score summary()
+   {
+      return new Score(LocalDateTime.now(),
+                       numGamesPlayed,
+                       numCorrectFirstGuess,
+                       numCorrectSecondGuess,
+                       numIncorrectGuessTwoAttempts);
+   }
+
+   /*
+    * Closes the current question, reports its outcome to the scheduler and
+    * counts the round.
+    *
+    * @param result the final outcome of the question
+    * @return the outcome
+    */
+   private AnswerResult closeQuestion(final AnswerResult result)
+   {
+      if(scheduler != null)
+      {
+         scheduler.record(question.getCountry().getIndex(), result);
+      }
+
+      question = null;
+      isSecondAttempt = false;
+      round++;
+
+      return result;
+   }
+}
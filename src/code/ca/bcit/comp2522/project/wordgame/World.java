@@ -1,15 +1,25 @@
 package ca.bcit.comp2522.project.wordgame;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
 /**
@@ -31,37 +41,99 @@ import java.util.stream.Stream;
  */
 public class World
 {
+   private static final byte NEW_LINE         = '\n';
+   private static final int  LINE_BUFFER_SIZE = 256;
+
+   private static final Path DEFAULT_SOURCE_PATH   = Paths.get("src", "resources");
+   private static final Path DEFAULT_SNAPSHOT_PATH = Paths.get("src", "output", "world.snapshot");
+
    final Map<String, Country> worldMap;
+   private final Country[] countries;
+   private final List<Country> countryList;
+   private final Map<String, Country> nameIndex;
+   private final Map<String, Country> capitalIndex;
+   private final Map<String, Country> factIndex;
+   private final char[][] foldedNames;
+   private final char[][] foldedCapitals;
 
    /**
-    * Constructs a {@code World} object by reading country data from files in
-    * the "src/resources" directory and storing the countries in the.
+    * Constructs a {@code World} object from the precompiled country snapshot in
+    * "src/output", rebuilding the snapshot from the files in "src/resources"
+    * when it is missing or older than them.
     */
    public World()
    {
-      final Path srcPath;
-      final List<String> fileContent;
-      final List<Country> countryList;
+      this(DEFAULT_SOURCE_PATH, DEFAULT_SNAPSHOT_PATH);
+   }
+
+   /**
+    * Constructs a {@code World} object by reading country data from every file
+    * under the given directory. Each file is memory-mapped and parsed on the
+    * common fork-join pool; the parsed countries are then merged into the map
+    * in file name order so the result does not depend on thread scheduling.
+    *
+    * @param srcPath the directory containing the country files
+    */
+   public World(final Path srcPath)
+   {
+      this(loadTextFiles(srcPath));
+   }
 
+   /**
+    * Constructs a {@code World} object from a binary country snapshot. The text
+    * files under the source directory are only parsed when the snapshot is
+    * missing or unreadable, or was built from other files than the ones there
+    * now, in which case the snapshot is rewritten for the next start.
+    *
+    * @param srcPath the directory containing the country files
+    * @param snapshotPath the path of the binary snapshot
+    */
+   public World(final Path srcPath, final Path snapshotPath)
+   {
+      this(loadStore(srcPath, snapshotPath));
+   }
+
+   /*
+    * Constructs a {@code World} object over a frozen country store. Every
+    * country is a view of the store, and the dense array, the list and the map
+    * are all built once here. The index of a country in the array is its record
+    * index in the store.
+    *
+    * @param store the store holding every country
+    */
+   private World(final CountryStore store)
+   {
+      countries = createViews(store).toArray(new Country[0]);
+      countryList = Collections.unmodifiableList(Arrays.asList(countries));
       worldMap = new HashMap<>();
+      nameIndex = new HashMap<>();
+      capitalIndex = new HashMap<>();
+      factIndex = new HashMap<>();
+      foldedNames = new char[countries.length][];
+      foldedCapitals = new char[countries.length][];
 
-      srcPath = Paths.get("src", "resources");
-      fileContent = new ArrayList<>();
+      putCountryToMap(countryList, worldMap);
 
-      try(final Stream<Path> filePath = Files.walk(srcPath))
+      for(final Country country : countries)
       {
-         filePath.filter(Files::isRegularFile)     // Filter only regular files, not directories
-                    .forEach(path -> addFileContentToList(path, fileContent));
-      } catch(final IOException e)
-      {
-         System.out.println("File not found! " + e.getMessage());
-      }
+         final String name;
+         final String capital;
 
+         name = fold(country.getName());
+         capital = fold(country.getCapitalCityName());
 
-      if(fileContent != null)
-      {
-         countryList = instantiateCountry(fileContent);
-         putCountryToMap(countryList, worldMap);
+         nameIndex.putIfAbsent(name, country);
+         capitalIndex.putIfAbsent(capital, country);
+         foldedNames[country.getIndex()] = name.toCharArray();
+         foldedCapitals[country.getIndex()] = capital.toCharArray();
+
+         for(final String fact : country.getFacts())
+         {
+            if(fact != null && !fact.isBlank())
+            {
+               factIndex.putIfAbsent(fold(fact), country);
+            }
+         }
       }
    }
 
@@ -77,129 +149,335 @@ public class World
    }
 
    /**
-    * Retrieves a list of all countries contained in the world map.
+    * Retrieves a list of all countries contained in the world map. The list is
+    * built once when the world is loaded and cannot be modified.
     *
-    * @return a list of all {@link Country} objects in the world map
+    * @return an unmodifiable list of all {@link Country} objects in the world map
     */
    public List<Country> getCountryList()
    {
-      final List<Country> result;
-      final Set<String> keySet;
+      return countryList;
+   }
+
+   /**
+    * Returns the number of countries in the world.
+    *
+    * @return the number of countries
+    */
+   public int size()
+   {
+      return countries.length;
+   }
+
+   /**
+    * Returns the country at the given index. Indices are dense, start at zero
+    * and stay stable for the lifetime of this world.
+    *
+    * @param index the index of the country
+    * @return the country at that index
+    * @throws IndexOutOfBoundsException if the index is out of range
+    */
+   public Country getCountry(final int index)
+   {
+      return countries[index];
+   }
+
+   /**
+    * Picks a country uniformly at random without allocating.
+    *
+    * @param random the random generator to draw from
+    * @return a random country
+    * @throws IllegalStateException if the world has no countries
+    */
+   public Country randomCountry(final RandomGenerator random)
+   {
+      if(countries.length == 0)
+      {
+         throw new IllegalStateException("World has no countries!");
+      }
+
+      return countries[random.nextInt(countries.length)];
+   }
+
+   /**
+    * Looks up a country by name, ignoring case and surrounding whitespace.
+    *
+    * @param name the name of the country
+    * @return the country, or {@code empty} if no country has that name
+    */
+   public Optional<Country> findByName(final String name)
+   {
+      return lookup(nameIndex, name);
+   }
+
+   /**
+    * Looks up a country by its capital city, ignoring case and surrounding whitespace.
+    *
+    * @param capitalCityName the name of the capital city
+    * @return the country, or {@code empty} if no country has that capital
+    */
+   public Optional<Country> findByCapital(final String capitalCityName)
+   {
+      return lookup(capitalIndex, capitalCityName);
+   }
+
+   /**
+    * Looks up a country by one of its facts, ignoring case and surrounding
+    * whitespace. When several countries share a fact, the first one loaded is
+    * returned.
+    *
+    * @param fact the fact about the country
+    * @return the country, or {@code empty} if no country has that fact
+    */
+   public Optional<Country> findByFact(final String fact)
+   {
+      return lookup(factIndex, fact);
+   }
+
+   /**
+    * Checks whether an answer is the name of the country at the given index,
+    * ignoring case and surrounding whitespace. The answer is compared in place
+    * against the name folded at load time, so no string is created.
+    *
+    * @param index the index of the country
+    * @param answer the answer to check
+    * @return {@code true} if the answer is the country's name
+    */
+   public boolean isName(final int index, final CharSequence answer)
+   {
+      return matchesFolded(foldedNames[index], answer);
+   }
+
+   /**
+    * Checks whether an answer is the capital of the country at the given index,
+    * ignoring case and surrounding whitespace. The answer is compared in place
+    * against the capital folded at load time, so no string is created.
+    *
+    * @param index the index of the country
+    * @param answer the answer to check
+    * @return {@code true} if the answer is the country's capital
+    */
+   public boolean isCapital(final int index, final CharSequence answer)
+   {
+      return matchesFolded(foldedCapitals[index], answer);
+   }
+
+   /**
+    * Parses every regular file under the given directory into a country store.
+    * Files are parsed in parallel and merged in file name order; when a name
+    * appears twice, the later record replaces the earlier one.
+    *
+    * @param srcPath the directory containing the country files
+    * @return a frozen store holding the countries of all files
+    */
+   static CountryStore loadTextFiles(final Path srcPath)
+   {
+      final List<Path> files;
+      final Map<String, Country> countries;
+      final CountryStore store;
+
+      files = new ArrayList<>();
+      countries = new LinkedHashMap<>();
+      store = new CountryStore();
+
+      try(final Stream<Path> filePath = Files.walk(srcPath))
+      {
+         filePath.filter(Files::isRegularFile)     // Filter only regular files, not directories
+                    .sorted()
+                    .forEach(files::add);
+      } catch(final IOException e)
+      {
+         System.out.println("File not found! " + e.getMessage());
+      }
+
+      // Parallel streams keep encounter order, so the merge below is deterministic
+      files.parallelStream()
+           .map(World::loadCountryFile)
+           .toList()
+           .forEach(countryList -> putCountryToMap(countryList, countries));
+
+      countries.values().forEach(country -> store.add(country.getName(),
+                                                      country.getCapitalCityName(),
+                                                      country.getFacts()));
+      store.compact();
+
+      return store;
+   }
+
+   /**
+    * Creates a view for every country of a store, in record order.
+    *
+    * @param store the store holding the countries
+    * @return the views of the countries
+    */
+   static List<Country> createViews(final CountryStore store)
+   {
+      final List<Country> views;
+
+      views = new ArrayList<>(store.size());
 
-      result = new ArrayList<>();
-      keySet = worldMap.keySet();
-      keySet.forEach(key -> result.add(worldMap.get((key))));
+      for(int i = 0; i < store.size(); i++)
+      {
+         views.add(new Country(store, i));
+      }
 
-      return  result;
+      return views;
+   }
+
+   /*
+    * Loads the country store from the snapshot, or from the text files when the
+    * snapshot is stale or unreadable, rewriting the snapshot in that case.
+    *
+    * @param srcPath the directory containing the country files
+    * @param snapshotPath the path of the binary snapshot
+    * @return a frozen store holding every country
+    */
+   private static CountryStore loadStore(final Path srcPath, final Path snapshotPath)
+   {
+      CountryStore store;
+
+      store = null;
+
+      if(!CountrySnapshot.isStale(snapshotPath, srcPath))
+      {
+         try
+         {
+            store = CountrySnapshot.readStore(snapshotPath);
+         } catch(final IOException | IllegalArgumentException e)
+         {
+            System.out.println("Error reading snapshot " + snapshotPath.getFileName() + ", " + e.getMessage());
+         }
+      }
+
+      if(store == null)
+      {
+         final int sourceFingerprint;
+
+         try
+         {
+            // Taken before parsing, so a file edited meanwhile leaves the snapshot stale rather than wrong
+            sourceFingerprint = CountrySnapshot.fingerprint(srcPath);
+         } catch(final IOException e)
+         {
+            System.out.println("Error reading country files " + srcPath + ", " + e.getMessage());
+            return loadTextFiles(srcPath);
+         }
+
+         store = loadTextFiles(srcPath);
+
+         try
+         {
+            CountrySnapshot.write(snapshotPath, sourceFingerprint, createViews(store));
+         } catch(final IOException e)
+         {
+            System.out.println("Error writing snapshot " + snapshotPath.getFileName() + ", " + e.getMessage());
+         }
+      }
+
+      return store;
    }
 
    /**
-    * Instantiates {@link Country} objects by parsing the provided file content.
-    * Each country is initialized with its name, capital, and up to three facts.
+    * Memory-maps a country file and parses its countries.
     *
-    * @param parsedFileContent a list of strings representing the content of the files
-    * @return a list of {@link Country} objects
+    * @param path the path to the file to read
+    * @return the countries in the file, or an empty list if it cannot be read
     */
-   private static List<Country> instantiateCountry(final List<String> parsedFileContent)
+   private static List<Country> loadCountryFile(final Path path)
    {
       final List<Country> countryList;
-      final int size;
-      final int skipToNextCountry;
-      final int skipToFacts;
-      final int firstSplit;
-      final int secondSplit;
-      int nextCountryIndex;
+      final CountryParser parser;
 
       countryList = new ArrayList<>();
-      size = parsedFileContent.size();
-      skipToNextCountry = 4;
-      nextCountryIndex = 0;
-      skipToFacts = 1;
-      firstSplit = 0;
-      secondSplit = 1;
+      parser = new CountryParser(countryList::add);
 
-      for(int i = 0; i < size; i += skipToNextCountry)
+      try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
       {
-         nextCountryIndex += skipToNextCountry;
+         final MappedByteBuffer buffer;
+
+         buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         parseMappedLines(buffer, parser);
+      } catch(final IOException e)
+      {
+         System.out.println("Error reading file " + path.getFileName() + ", " + e.getMessage());
+      }
+
+      parser.finish();
+
+      return countryList;
+   }
+
+   /**
+    * Splits a mapped file into lines directly from its bytes, trimming each line,
+    * and feeds them to the parser as they are found. Only the non-blank part of
+    * a line is decoded; blank lines are passed on as empty strings since they
+    * separate records.
+    *
+    * @param buffer the mapped file content
+    * @param parser the parser receiving the trimmed lines
+    */
+   private static void parseMappedLines(final ByteBuffer buffer, final CountryParser parser)
+   {
+      final int limit;
+      byte[] lineBytes;
+      int lineStart;
 
-         if(parsedFileContent.get(i) != null && !parsedFileContent.get(i).isBlank())
+      limit = buffer.limit();
+      lineBytes = new byte[LINE_BUFFER_SIZE];
+      lineStart = 0;
+
+      for(int i = 0; i <= limit; i++)
+      {
+         if(i == limit || buffer.get(i) == NEW_LINE)
          {
-            final Country country;
-            final String[] splitByColon;
-            String countryName;
-            String capital;
-            final String fact1;
-            final String fact2;
-            final String fact3;
-            int factLine;
-
-            countryName = "";
-            capital = "";
-            factLine = i + skipToFacts;
-
-            if(parsedFileContent.get(i).contains(":"))
-            {
-               splitByColon = parsedFileContent.get(i).split(":");
+            int start;
+            int end;
 
-               if(splitByColon.length == 2)
-               {
-                  countryName = splitByColon[firstSplit].trim();
-                  capital = splitByColon[secondSplit].trim();
-               }
-            }
+            start = lineStart;
+            end = i;
 
-            if(factLine < size && parsedFileContent.get(factLine) != null &&
-                                 !parsedFileContent.get(factLine).isBlank())
-            {
-               fact1 = parsedFileContent.get(factLine++).trim();
-            } else
+            while(start < end && isWhitespace(buffer.get(start)))
             {
-               fact1 = "";
+               start++;
             }
 
-            if(factLine < size && parsedFileContent.get(factLine) != null &&
-                                       !parsedFileContent.get(factLine).isBlank())
+            while(end > start && isWhitespace(buffer.get(end - 1)))
             {
-               fact2 = parsedFileContent.get(factLine++).trim();
-            } else
-            {
-               fact2 = "";
+               end--;
             }
 
-            if(factLine < size && parsedFileContent.get(factLine) != null &&
-                                 !parsedFileContent.get(factLine).isBlank())
+            if(end > start)
             {
-               fact3 = parsedFileContent.get(factLine).trim();
+               final int length;
+
+               length = end - start;
+
+               if(length > lineBytes.length)
+               {
+                  lineBytes = new byte[length];
+               }
+
+               buffer.get(start, lineBytes, 0, length);
+               parser.accept(new String(lineBytes, 0, length, StandardCharsets.UTF_8));
             } else
             {
-               fact3 = "";
+               parser.accept("");
             }
 
-            country = new Country(countryName, capital, fact1, fact2, fact3);
-            countryList.add(country);
+            lineStart = i + 1;
          }
       }
-
-      return countryList;
    }
 
-   /**
-    * Reads the content of a file and adds it to the provided list.
+   /*
+    * Checks whether a byte is whitespace in the same sense as String.trim().
     *
-    * @param path the path to the file to read
-    * @param list the list to store the file content
+    * @param b the byte to check
+    * @return true if the byte is a control character or a space
     */
-   private static void addFileContentToList(final Path path, final List<String> list)
+   private static boolean isWhitespace(final byte b)
    {
-      try(final Stream<String> content = Files.lines(path))
-      {
-         content.filter(s -> s != null)
-                 .filter(s -> !s.isBlank())
-                 .forEach(list::add);
-      } catch(final IOException e)
-      {
-         System.out.println("Error reading file " + path.getFileName() + ", " + e.getMessage());
-      }
+      return b >= 0 && b <= ' ';
    }
 
    /**
@@ -231,6 +509,82 @@ public class World
       }
    }
 
+   /*
+    * Looks up a case-folded key in one of the reverse indexes.
+    *
+    * @param index the index to search
+    * @param key the key to look up
+    * @return the country, or {@code empty} if the key is not indexed
+    */
+   private static Optional<Country> lookup(final Map<String, Country> index, final String key)
+   {
+      if(key == null)
+      {
+         return Optional.empty();
+      }
+
+      return Optional.ofNullable(index.get(fold(key)));
+   }
+
+   /*
+    * Compares an answer against a folded name without copying it: surrounding
+    * whitespace is skipped by index and each character is lower-cased as it is
+    * compared.
+    *
+    * @param folded the folded name
+    * @param answer the answer to compare
+    * @return true if the trimmed, lower-cased answer equals the folded name
+    */
+   private static boolean matchesFolded(final char[] folded, final CharSequence answer)
+   {
+      int start;
+      int end;
+
+      if(answer == null)
+      {
+         return false;
+      }
+
+      start = 0;
+      end = answer.length();
+
+      while(start < end && answer.charAt(start) <= ' ')
+      {
+         start++;
+      }
+
+      while(end > start && answer.charAt(end - 1) <= ' ')
+      {
+         end--;
+      }
+
+      if(end - start != folded.length)
+      {
+         return false;
+      }
+
+      for(int i = 0; i < folded.length; i++)
+      {
+         if(Character.toLowerCase(answer.charAt(start + i)) != folded[i])
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /*
+    * Folds a string into its index key: trimmed and lower-cased.
+    *
+    * @param str the string to fold
+    * @return the folded key
+    */
+   private static String fold(final String str)
+   {
+      return str.trim().toLowerCase(Locale.ROOT);
+   }
+
    /**
     * The main method, which creates an instance of the {@code World} class.
     *
@@ -0,0 +1,36 @@
+package ca.bcit.comp2522.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RandomProviderTest {
+
+   @Test
+   void testSeededProvidersReplayTheSameGenerators() {
+      final RandomGenerator first = new RandomProvider(2522L).split();
+      final RandomGenerator second = new RandomProvider(2522L).split();
+
+      for (int i = 0; i < 100; i++) {
+         assertEquals(first.nextLong(), second.nextLong(), "Equal seeds should give equal sequences.");
+      }
+   }
+
+   @Test
+   void testEachThreadGetsItsOwnGenerator() throws InterruptedException {
+      final RandomProvider provider = new RandomProvider(7L);
+      final AtomicReference<RandomGenerator> other = new AtomicReference<>();
+      final Thread thread = new Thread(() -> other.set(provider.get()));
+
+      thread.start();
+      thread.join();
+
+      assertSame(provider.get(), provider.get(), "A thread should keep its generator.");
+      assertNotSame(provider.get(), other.get(), "Threads should not share a generator.");
+   }
+}
@@ -0,0 +1,38 @@
+package ca.bcit.comp2522.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreTextScannerTest {
+
+   @Test
+   void testParseInt() {
+      assertEquals(12, ScoreTextScanner.parseInt("Correct First Attempts: 12"));
+      assertEquals(0, ScoreTextScanner.parseInt("Games Played: 0"));
+      assertEquals(ScoreTextScanner.NO_NUMBER, ScoreTextScanner.parseInt("Games Played: "));
+      assertEquals(34, ScoreTextScanner.parseInt("xx12 34", 4, 7));
+      assertThrows(NumberFormatException.class, () -> ScoreTextScanner.parseInt("Score: 99999999999"));
+   }
+
+   @Test
+   void testParseDateTime() {
+      assertEquals(LocalDateTime.of(2024, 12, 1, 19, 54, 8),
+                   ScoreTextScanner.parseDateTime("Date and Time: 2024-12-01 19:54:08"));
+      assertNull(ScoreTextScanner.parseDateTime("Date and Time: 2024-12-01"));
+      assertNull(ScoreTextScanner.parseDateTime("Date and Time: 2024-12-01 19:54:08", 20, 34));
+   }
+
+   @Test
+   void testContains() {
+      final String text = "Games Played: 3\nScore: 12 points";
+      assertTrue(ScoreTextScanner.contains(text, 16, text.length(), "Score:"));
+      assertFalse(ScoreTextScanner.contains(text, 0, 15, "Score:"));
+   }
+}
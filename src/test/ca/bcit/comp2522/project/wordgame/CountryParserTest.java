@@ -0,0 +1,69 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountryParserTest {
+
+   private List<Country> countries;
+   private CountryParser parser;
+
+   @BeforeEach
+   void setUp() {
+      countries = new ArrayList<>();
+      parser = new CountryParser(countries::add);
+   }
+
+   private void feed(String... lines) {
+      for (String line : lines) {
+         parser.accept(line);
+      }
+      parser.finish();
+   }
+
+   @Test
+   void testParsesStandardRecords() {
+      feed("Canada:Ottawa", "Fact 1", "Fact 2", "Fact 3", "", "Chile:Santiago", "Fact A", "Fact B", "Fact C");
+
+      assertEquals(2, countries.size(), "Two countries should be parsed.");
+      assertEquals("Canada", countries.get(0).getName());
+      assertEquals("Ottawa", countries.get(0).getCapitalCityName());
+      assertArrayEquals(new String[] {"Fact A", "Fact B", "Fact C"}, countries.get(1).getFacts());
+   }
+
+   @Test
+   void testMissingFactDoesNotShiftFollowingRecords() {
+      // The first record is missing a fact line; the second must still parse correctly
+      feed("Canada:Ottawa", "Fact 1", "Fact 2", "", "Chile:Santiago", "Fact A", "Fact B", "Fact C");
+
+      assertEquals(2, countries.size(), "Two countries should be parsed.");
+      assertEquals(2, countries.get(0).getFacts().length, "Canada should have two facts.");
+      assertEquals("Chile", countries.get(1).getName());
+      assertEquals("Santiago", countries.get(1).getCapitalCityName());
+   }
+
+   @Test
+   void testVariableNumberOfFactsAndColonsInFacts() {
+      feed("  United Kingdom : London  ", "Made up of four countries: England, Scotland, Wales, and Northern Ireland.",
+           "Fact 2", "Fact 3", "Fact 4", "Fact 5");
+
+      assertEquals(1, countries.size(), "One country should be parsed.");
+      assertEquals("United Kingdom", countries.get(0).getName());
+      assertEquals("London", countries.get(0).getCapitalCityName());
+      assertEquals(5, countries.get(0).getFacts().length, "All five facts should be kept.");
+   }
+
+   @Test
+   void testStrayLinesBeforeHeaderAreSkipped() {
+      feed("Stray fact without a header", "", "Peru:Lima", "Fact 1");
+
+      assertEquals(1, countries.size(), "Only the valid record should be parsed.");
+      assertEquals("Peru", countries.get(0).getName());
+   }
+}
@@ -0,0 +1,80 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountrySnapshotTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testDeletedRenamedAndRestoredFilesMakeTheSnapshotStale() throws IOException {
+      final Path srcPath = writeSources();
+      final Path snapshotPath = tempDir.resolve("world.snapshot");
+
+      assertEquals(3, new World(srcPath, snapshotPath).size());
+      assertFalse(CountrySnapshot.isStale(snapshotPath, srcPath));
+
+      final FileTime modified = Files.getLastModifiedTime(srcPath.resolve("a.txt"));
+      Files.setLastModifiedTime(srcPath.resolve("a.txt"), FileTime.fromMillis(modified.toMillis() - 60_000));
+      assertTrue(CountrySnapshot.isStale(snapshotPath, srcPath), "An older copy should be noticed.");
+      Files.setLastModifiedTime(srcPath.resolve("a.txt"), modified);
+      assertFalse(CountrySnapshot.isStale(snapshotPath, srcPath));
+
+      Files.move(srcPath.resolve("b.txt"), srcPath.resolve("d.txt"));
+      assertTrue(CountrySnapshot.isStale(snapshotPath, srcPath), "A renamed file should be noticed.");
+
+      Files.delete(srcPath.resolve("d.txt"));
+      assertTrue(CountrySnapshot.isStale(snapshotPath, srcPath), "A deleted file should be noticed.");
+      assertEquals(2, new World(srcPath, snapshotPath).size());
+      assertFalse(CountrySnapshot.isStale(snapshotPath, srcPath));
+   }
+
+   @Test
+   void testDamagedOffsetsAreRejectedAndRebuilt() throws IOException {
+      final Path srcPath = writeSources();
+      final Path snapshotPath = tempDir.resolve("world.snapshot");
+      new World(srcPath, snapshotPath);
+
+      // The first field of the table, right after the seven header ints and four record offsets
+      overwriteInt(snapshotPath, (7 + 4) * Integer.BYTES, Integer.MAX_VALUE);
+      assertFalse(CountrySnapshot.isStale(snapshotPath, srcPath), "The header alone still matches.");
+      assertThrows(IllegalArgumentException.class, () -> CountrySnapshot.readStore(snapshotPath));
+
+      final World world = new World(srcPath, snapshotPath);
+      assertEquals("Ottawa", world.findByName("Canada").orElseThrow().getCapitalCityName());
+      assertEquals(3, CountrySnapshot.readStore(snapshotPath).size());
+
+      // A record offset running backwards
+      overwriteInt(snapshotPath, (7 + 1) * Integer.BYTES, -1);
+      assertThrows(IllegalArgumentException.class, () -> CountrySnapshot.readStore(snapshotPath));
+   }
+
+   private Path writeSources() throws IOException {
+      final Path srcPath = Files.createDirectories(tempDir.resolve("resources"));
+      Files.writeString(srcPath.resolve("a.txt"), "Argentina:Buenos Aires\nF1\nF2\nF3\n");
+      Files.writeString(srcPath.resolve("b.txt"), "Brazil:Brasilia\nF1\nF2\nF3\n");
+      Files.writeString(srcPath.resolve("c.txt"), "Canada:Ottawa\nF1\nF2\nF3\n");
+      return srcPath;
+   }
+
+   private static void overwriteInt(Path path, long position, int value) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+         channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+      }
+   }
+}
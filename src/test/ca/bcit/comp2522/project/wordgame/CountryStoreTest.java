@@ -0,0 +1,45 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountryStoreTest {
+
+   // A million countries in the old layout retain half a gigabyte; WordGameBenchmark measures that size
+   private static final int CORPUS_SIZE = 100_000;
+
+   @Test
+   void testViewsReadBackStoredValues() {
+      CountryStore store = new CountryStore();
+      store.add("Canada", "Ottawa", new String[] {"Fact 1", "Fact 2", "Fact 3"});
+      store.add("Côte d'Ivoire", "Yamoussoukro", new String[] {"Fact 1"});
+      store.compact();
+
+      Country canada = new Country(store, 0);
+      Country ivoryCoast = new Country(store, 1);
+
+      assertEquals("Canada", canada.getName());
+      assertEquals("Ottawa", canada.getCapitalCityName());
+      assertArrayEquals(new String[] {"Fact 1", "Fact 2", "Fact 3"}, canada.getFacts());
+      assertEquals("Côte d'Ivoire", ivoryCoast.getName(), "Non-ASCII names should round-trip.");
+      assertEquals(1, ivoryCoast.getFacts().length);
+      assertEquals(store.stringId(0, CountryStore.FIRST_FACT), store.stringId(1, CountryStore.FIRST_FACT),
+                   "Equal facts should share one string in the arena.");
+   }
+
+   @Test
+   void testRetainsLessHeapThanStringPerField() {
+      final long legacyBytes = WordGameBenchmark.retainedBytes(() -> WordGameBenchmark.legacyCorpus(CORPUS_SIZE));
+      final long packedBytes = WordGameBenchmark.retainedBytes(() -> {
+         final Country[] countries = WordGameBenchmark.packedCorpus(CORPUS_SIZE);
+         assertEquals("Capital 99999", countries[CORPUS_SIZE - 1].getCapitalCityName());
+         return countries;
+      });
+
+      assertTrue(legacyBytes > 0, "Building the old layout should retain heap.");
+      assertTrue(packedBytes < legacyBytes, "The packed store should retain less heap per country.");
+   }
+}
@@ -0,0 +1,96 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyWorldTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testLoadsShardsOnlyWhenAsked() throws IOException {
+      final LazyWorld world = new LazyWorld(writeShards(), 2);
+
+      assertEquals(Set.of('a', 'b', 'c'), world.getShardLetters());
+      assertEquals(0, world.getResidentShardCount(), "Nothing should be parsed up front.");
+
+      assertEquals("Buenos Aires", world.getCountry("Argentina").orElseThrow().getCapitalCityName());
+      assertEquals(1, world.getResidentShardCount());
+      assertEquals(2, world.getShard('A').size());
+      assertTrue(world.getCountry("Atlantis").isEmpty());
+      assertEquals(1, world.getResidentShardCount());
+   }
+
+   @Test
+   void testEvictsTheLeastRecentlyUsedShardAtTheBound() throws IOException {
+      final LazyWorld world = new LazyWorld(writeShards(), 2);
+      final Map<String, Country> a = world.getShard('a');
+      final Map<String, Country> b = world.getShard('b');
+
+      // Touch a, so b is the eldest when c comes in
+      assertSame(a, world.getShard('a'));
+      world.getShard('c');
+
+      assertEquals(2, world.getResidentShardCount());
+      assertSame(a, world.getShard('a'), "The recently used shard should stay resident.");
+      assertNotSame(b, world.getShard('b'), "The evicted shard should be parsed again.");
+      assertEquals(2, world.getResidentShardCount());
+   }
+
+   @Test
+   void testUnknownLettersAreNotCached() throws IOException {
+      final LazyWorld world = new LazyWorld(writeShards(), 1);
+      final Map<String, Country> a = world.getShard('a');
+
+      assertTrue(world.getShard('z').isEmpty());
+      assertTrue(world.getCountry("Zanzibar").isEmpty());
+      assertEquals(1, world.getResidentShardCount());
+      assertSame(a, world.getShard('a'), "An unknown letter should not evict a real shard.");
+   }
+
+   @Test
+   void testConcurrentLookupsShareOneLoad() throws Exception {
+      final LazyWorld world = new LazyWorld(writeShards(), 3);
+      final ExecutorService executor = Executors.newFixedThreadPool(8);
+      final List<Callable<Map<String, Country>>> lookups = new ArrayList<>();
+
+      for (int i = 0; i < 64; i++) {
+         lookups.add(() -> world.getShard('b'));
+      }
+      try {
+         final List<Future<Map<String, Country>>> shards = executor.invokeAll(lookups);
+         for (Future<Map<String, Country>> shard : shards) {
+            assertSame(shards.get(0).get(), shard.get());
+         }
+      } finally {
+         executor.shutdown();
+      }
+      assertEquals(1, world.getResidentShardCount());
+   }
+
+   private Path writeShards() throws IOException {
+      Files.writeString(tempDir.resolve("a.txt"),
+                        "Argentina:Buenos Aires\nF1\nF2\nF3\n\nAustria:Vienna\nF1\nF2\nF3\n");
+      Files.writeString(tempDir.resolve("b.txt"), "Brazil:Brasilia\nF1\nF2\nF3\n");
+      Files.writeString(tempDir.resolve("c.txt"), "Canada:Ottawa\nF1\nF2\nF3\n");
+      return tempDir;
+   }
+}
@@ -0,0 +1,124 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionBankTest {
+
+   @TempDir
+   Path tempDir;
+
+   private World world;
+
+   @BeforeEach
+   void setUp() throws IOException {
+      final Path resources = Files.createDirectories(tempDir.resolve("resources"));
+      Files.writeString(resources.resolve("a.txt"),
+                        "Canada:Ottawa\nMaple syrup\nHockey\nCold\n\nChile:Santiago\nLong\n\nNauru:Yaren\n");
+      world = new World(resources);
+   }
+
+   @Test
+   void testBankServesTheSameQuestionsAsOnDemandPrompts() {
+      final QuestionBank bank = QuestionBank.build(world);
+      final SplittableRandom onDemand = new SplittableRandom(9);
+      final SplittableRandom banked = new SplittableRandom(9);
+
+      assertEquals(3 * 2 + 3 + 1, bank.size(), "Two questions per country plus one per fact.");
+
+      for (int i = 0; i < 200; i++) {
+         final Question expected = Question.random(world, onDemand);
+         final Question actual = bank.random(banked);
+         assertEquals(expected.getPrompt(), actual.getPrompt());
+         assertEquals(expected.getAnswer(), actual.getAnswer());
+      }
+   }
+
+   @Test
+   void testPersistedBankRoundTrips() throws IOException {
+      final QuestionBank bank = QuestionBank.build(world);
+      final Path bankPath = tempDir.resolve("questions.bank");
+      bank.write(bankPath);
+
+      final QuestionBank read = QuestionBank.read(world, bankPath);
+
+      assertEquals(bank.size(), read.size());
+      for (int i = 0; i < bank.size(); i++) {
+         assertEquals(bank.prompt(i), read.prompt(i));
+      }
+   }
+
+   @Test
+   void testPersistedBankOfAnotherWorldIsRejected() throws IOException {
+      final Path bankPath = tempDir.resolve("questions.bank");
+      QuestionBank.build(world).write(bankPath);
+
+      final Path other = Files.createDirectories(tempDir.resolve("other"));
+      Files.writeString(other.resolve("a.txt"), "Peru:Lima\nFact\n");
+
+      assertThrows(IllegalArgumentException.class, () -> QuestionBank.read(new World(other), bankPath));
+   }
+
+   @Test
+   void testPersistedBankOfEditedCountriesIsRebuilt() throws IOException {
+      final Path bankPath = tempDir.resolve("questions.bank");
+      QuestionBank.build(world).write(bankPath);
+
+      // Same countries and fact counts as the bank, but different names and facts
+      final Path edited = Files.createDirectories(tempDir.resolve("edited"));
+      Files.writeString(edited.resolve("a.txt"),
+                        "Bolivia:Sucre\nF1\nF2\nF3\n\nChile:Santiago\nShort\n\nNauru:Yaren\n");
+      final World editedWorld = new World(edited);
+
+      assertThrows(IllegalArgumentException.class, () -> QuestionBank.read(editedWorld, bankPath));
+
+      final QuestionBank rebuilt = QuestionBank.readOrBuild(editedWorld, bankPath);
+      final SplittableRandom onDemand = new SplittableRandom(3);
+      final SplittableRandom banked = new SplittableRandom(3);
+      for (int i = 0; i < 100; i++) {
+         assertEquals(Question.random(editedWorld, onDemand).getPrompt(), rebuilt.random(banked).getPrompt());
+      }
+      assertEquals(rebuilt.size(), QuestionBank.read(editedWorld, bankPath).size());
+   }
+
+   @Test
+   void testPersistedBankWithDamagedOffsetsIsRebuilt() throws IOException {
+      final QuestionBank bank = QuestionBank.build(world);
+      final Path bankPath = tempDir.resolve("questions.bank");
+      bank.write(bankPath);
+
+      // The second prompt offset, after the six header ints and four first question ids
+      overwriteInt(bankPath, (6 + 4 + 1) * Integer.BYTES, Integer.MAX_VALUE);
+      assertThrows(IllegalArgumentException.class, () -> QuestionBank.read(world, bankPath));
+
+      // An offset running backwards
+      bank.write(bankPath);
+      overwriteInt(bankPath, (6 + 4 + 2) * Integer.BYTES, 0);
+      overwriteInt(bankPath, (6 + 4 + 1) * Integer.BYTES, 5);
+      assertThrows(IllegalArgumentException.class, () -> QuestionBank.read(world, bankPath));
+
+      final QuestionBank rebuilt = QuestionBank.readOrBuild(world, bankPath);
+      for (int i = 0; i < bank.size(); i++) {
+         assertEquals(bank.prompt(i), rebuilt.prompt(i));
+      }
+      assertEquals(bank.size(), QuestionBank.read(world, bankPath).size());
+   }
+
+   private static void overwriteInt(Path path, long position, int value) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+         channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+      }
+   }
+}
@@ -0,0 +1,74 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionSchedulerTest {
+
+   @Test
+   void testEveryCountryIsServedBeforeAnyRepeat() {
+      final QuestionScheduler scheduler = new QuestionScheduler(50, new SplittableRandom(1));
+      final Set<Integer> served = new HashSet<>();
+
+      for (int i = 0; i < 50; i++) {
+         final int country = scheduler.next();
+         scheduler.record(country, WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT);
+         served.add(country);
+      }
+
+      assertEquals(50, served.size(), "The first round should visit every country once.");
+   }
+
+   @Test
+   void testMissedCountryComesBackSoonButNotBackToBack() {
+      final QuestionScheduler scheduler = new QuestionScheduler(1000, new SplittableRandom(2));
+      final int missed = scheduler.next();
+      scheduler.record(missed, WordGameSession.AnswerResult.INCORRECT);
+
+      int seenAfter = -1;
+      for (int i = 1; i <= 10 && seenAfter < 0; i++) {
+         final int country = scheduler.next();
+         scheduler.record(country, WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT);
+         if (country == missed) {
+            seenAfter = i;
+         }
+      }
+
+      assertTrue(seenAfter > 1, "A missed country should not be asked again immediately.");
+      assertTrue(seenAfter <= QuestionScheduler.REVIEW_GAP + 1, "A missed country should come back soon.");
+   }
+
+   @Test
+   void testNoBackToBackRepeatWithTwoCountries() {
+      final QuestionScheduler scheduler = new QuestionScheduler(2, new SplittableRandom(3));
+      int previous = scheduler.next();
+
+      for (int i = 0; i < 100; i++) {
+         scheduler.record(previous, i % 2 == 0 ? WordGameSession.AnswerResult.INCORRECT
+                                               : WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT);
+         final int country = scheduler.next();
+         assertNotEquals(previous, country);
+         previous = country;
+      }
+   }
+
+   @Test
+   void testMillionCountries() {
+      final QuestionScheduler scheduler = new QuestionScheduler(1_000_000, new SplittableRandom(4));
+
+      for (int i = 0; i < 1_000_000; i++) {
+         final int country = scheduler.next();
+         scheduler.record(country, i % 3 == 0 ? WordGameSession.AnswerResult.INCORRECT
+                                              : WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT);
+      }
+
+      assertEquals(1_000_000, scheduler.size());
+   }
+}
@@ -0,0 +1,93 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.mygame.MyScore;
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreColumnsTest {
+
+   private static final LocalDateTime TIME = LocalDateTime.of(2024, 12, 1, 19, 54, 8);
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testRoundTripsEveryColumn() throws IOException {
+      final List<GameScore> scores = history(5_000);
+      final ScoreColumns columns = ScoreColumns.of(scores.iterator());
+
+      for (boolean isCompressed : new boolean[] {false, true}) {
+         final Path columnPath = tempDir.resolve("scores" + isCompressed + ScoreColumns.FILE_SUFFIX);
+         columns.write(columnPath, isCompressed);
+
+         final ScoreColumns read = ScoreColumns.read(columnPath, EnumSet.allOf(ScoreColumns.Column.class));
+         assertEquals(scores.size(), read.size());
+         assertArrayEquals(columns.getNamespaceIds(), read.getNamespaceIds());
+         assertArrayEquals(columns.getEpochSeconds(), read.getEpochSeconds());
+         for (ScoreColumns.Column counter : EnumSet.range(ScoreColumns.Column.GAMES_PLAYED,
+                                                          ScoreColumns.Column.INCORRECT)) {
+            assertArrayEquals(columns.getCounter(counter), read.getCounter(counter));
+         }
+         assertEquals(scores.get(4_999).getDateTime().toEpochSecond(ZoneOffset.UTC), read.getEpochSeconds()[4_999]);
+      }
+
+      assertTrue(Files.size(tempDir.resolve("scorestrue" + ScoreColumns.FILE_SUFFIX))
+              < Files.size(tempDir.resolve("scoresfalse" + ScoreColumns.FILE_SUFFIX)));
+   }
+
+   @Test
+   void testReadsOnlyTheColumnsAsked() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final Path columnPath = tempDir.resolve("score.log" + ScoreColumns.FILE_SUFFIX);
+
+      try (ScoreRepository repository = ScoreRepository.open(logPath)) {
+         repository.append(new Score(TIME, 1, 5, 2, 3));
+         repository.append(new Score(TIME.plusHours(1), 3, 20, 5, 5));
+      }
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.appendAll(List.of(new MyScore(TIME, 4, 30, 6, 2)));
+         ScoreColumns.of(log).write(columnPath, true);
+      }
+
+      final ScoreColumns read = ScoreColumns.read(columnPath, EnumSet.of(ScoreColumns.Column.NAMESPACE,
+                                                                         ScoreColumns.Column.GAMES_PLAYED,
+                                                                         ScoreColumns.Column.CORRECT_FIRST,
+                                                                         ScoreColumns.Column.CORRECT_SECOND));
+      assertEquals(3, read.size());
+      assertEquals(2, read.count(ScoreNamespace.WORD_GAME));
+      assertEquals(4, read.total(ScoreColumns.Column.GAMES_PLAYED, ScoreNamespace.WORD_GAME));
+      assertEquals(4, read.total(ScoreColumns.Column.GAMES_PLAYED, ScoreNamespace.MEMORY_GAME));
+      assertEquals((2.0 * 25 + 7) / 4, read.averagePointsPerGame(ScoreNamespace.WORD_GAME), 1e-9);
+      assertEquals((2.0 * 30 + 6) / 4, read.averagePointsPerGame(ScoreNamespace.MEMORY_GAME), 1e-9);
+      assertThrows(IllegalStateException.class, read::getEpochSeconds);
+      assertThrows(IllegalStateException.class, () -> read.write(columnPath, false));
+   }
+
+   private static List<GameScore> history(final int size) {
+      final List<GameScore> scores = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+         // Mostly increasing times, with the odd step back to exercise negative deltas
+         final LocalDateTime time = TIME.plusMinutes(i * 7L - (i % 13 == 0 ? 500 : 0));
+         scores.add(i % 3 == 0
+                 ? new MyScore(time, 1 + i % 4, i % 50, i % 7, i % 5)
+                 : new Score(time, 1 + i % 5, i % 10, i % 3, i % 4));
+      }
+      return scores;
+   }
+}
@@ -0,0 +1,122 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.mygame.MyScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreCompactorTest {
+
+   private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+   private final ScoreCompactor compactor = new ScoreCompactor(Period.ofDays(7), Period.ofMonths(1));
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testKeepsRecentRecordsAndAggregates() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      fill(logPath);
+
+      try (ScoreLog log = compactor.compact(ScoreLog.open(logPath), TODAY)) {
+         assertEquals(2, log.size());
+         assertEquals(1, log.getGeneration());
+         assertEquals(ScoreNamespace.MEMORY_GAME, log.readAny(1).getNamespace());
+      }
+
+      final ScoreRollup rollup = ScoreRollup.read(logPath);
+      assertEquals(1, rollup.getGeneration());
+      assertEquals(3, rollup.getSummaries().size());
+      assertTrue(rollup.getSummaries().stream()
+              .anyMatch(summary -> summary.getGranularity() == ScoreRollup.Granularity.MONTH
+                      && summary.getStart().equals(LocalDate.of(2025, 1, 1))
+                      && summary.getCount() == 2));
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertAggregates(scores);
+         assertEquals(20, scores.bestOfDay(LocalDate.of(2025, 6, 1)).orElseThrow().getScore());
+         assertTrue(scores.bestOfDay(LocalDate.of(2025, 1, 3)).isEmpty());
+      }
+   }
+
+   @Test
+   void testRollsDaysIntoMonthsAsTheyAge() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      fill(logPath);
+
+      ScoreLog log = compactor.compact(ScoreLog.open(logPath), TODAY);
+      assertSame(log, compactor.compact(log, TODAY));
+      log = compactor.compact(log, TODAY.plusMonths(2));
+      assertEquals(0, log.size());
+      log.close();
+
+      assertTrue(ScoreRollup.read(logPath).getSummaries().stream()
+              .allMatch(summary -> summary.getGranularity() == ScoreRollup.Granularity.MONTH));
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertEquals(0, scores.bestIndexByDay().size());
+         assertAggregates(scores);
+      }
+   }
+
+   @Test
+   void testSkipsRolledUpRecordsOfAnInterruptedCompaction() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final Path oldPath = tempDir.resolve("old.log");
+      fill(logPath);
+      Files.copy(logPath, oldPath);
+
+      compactor.compact(ScoreLog.open(logPath), TODAY).close();
+
+      // The rollup was moved into place but the rewritten log was not
+      Files.move(oldPath, logPath, StandardCopyOption.REPLACE_EXISTING);
+      Files.deleteIfExists(tempDir.resolve("score.log" + ScoreRepository.SIDECAR_SUFFIX));
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertAggregates(scores);
+      }
+
+      try (ScoreLog log = compactor.compact(ScoreLog.open(logPath), TODAY)) {
+         assertEquals(2, log.size());
+         assertEquals(2, log.getGeneration());
+      }
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertAggregates(scores);
+      }
+   }
+
+   private static void fill(final Path logPath) throws IOException {
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.append(new Score(LocalDateTime.of(2025, 1, 3, 10, 0), 1, 10, 0, 0));
+         log.append(new Score(LocalDateTime.of(2025, 1, 20, 10, 0), 2, 9, 1, 0));
+         log.append(new Score(LocalDateTime.of(2025, 6, 1, 10, 0), 1, 10, 0, 0));
+         log.append(new Score(LocalDateTime.of(2025, 6, 1, 11, 0), 1, 5, 2, 3));
+         log.appendAll(List.of(new MyScore(LocalDateTime.of(2025, 6, 2, 9, 0), 3, 99, 7, 2)));
+         log.append(new Score(LocalDateTime.of(2025, 6, 14, 10, 0), 1, 6, 2, 2));
+         log.appendAll(List.of(new MyScore(LocalDateTime.of(2025, 6, 14, 9, 0), 3, 99, 7, 2)));
+      }
+   }
+
+   private static void assertAggregates(final ScoreRepository scores) throws IOException {
+      assertEquals(5, scores.count());
+      assertEquals(6, scores.totalGames());
+      assertEquals(5, scores.totalIncorrect());
+      assertEquals((20.0 + 9.0 + 20.0 + 12.0 + 14.0) / 5, scores.averageScore(), 1e-9);
+      assertEquals(LocalDateTime.of(2025, 1, 3, 10, 0), scores.highScore().orElseThrow().getDateTime());
+   }
+}
@@ -0,0 +1,63 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreHistoryReaderTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testParallelReadMatchesSequentialRead() throws IOException {
+      final Path filePath = tempDir.resolve("score.txt");
+      final LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+      try (BufferedWriter writer = Files.newBufferedWriter(filePath)) {
+         for (int i = 0; i < 40_000; i++) {
+            writer.write(new Score(time.plusSeconds(i), 1 + i % 3, i % 11, i % 5, i % 7).toString());
+            writer.newLine();
+         }
+      }
+
+      final long[] bounds = ScoreHistoryReader.segmentBounds(filePath, 16);
+      assertTrue(bounds.length > 2, "A multi-megabyte file should be cut into several ranges.");
+      try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+         for (int i = 1; i < bounds.length - 1; i++) {
+            final ByteBuffer label = ByteBuffer.allocate("Date and Time:".length());
+            channel.read(label, bounds[i]);
+            assertEquals("Date and Time:", new String(label.array()), "Every cut should start a record.");
+         }
+      }
+
+      final List<Score> parallel = ScoreHistoryReader.readAll(filePath, 4);
+      try (Stream<Score> sequential = Score.streamScoresFromFile(filePath)) {
+         assertEquals(sequential.map(Score::toString).toList(),
+                      parallel.stream().map(Score::toString).toList());
+      }
+      assertEquals(40_000, parallel.size());
+   }
+
+   @Test
+   void testSmallFileIsOneRange() throws IOException {
+      final Path filePath = tempDir.resolve("score.txt");
+      Files.writeString(filePath, new Score(LocalDateTime.now(), 1, 1, 1, 1) + "\n");
+
+      assertEquals(2, ScoreHistoryReader.segmentBounds(filePath, 8).length);
+      assertEquals(1, ScoreHistoryReader.readAll(filePath, 2).size());
+   }
+}
@@ -0,0 +1,96 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.mygame.MyScore;
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreLeaderboardTest {
+
+   private static final LocalDateTime TIME = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testKeepsTheBestScoresOfEachGameAndDay() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+
+      try (ScoreLog log = ScoreLog.open(logPath);
+           ScoreLeaderboard leaderboard = ScoreLeaderboard.open(log, 3)) {
+         final List<GameScore> scores = new ArrayList<>();
+         for (int i = 0; i < 10; i++) {
+            scores.add(new Score(TIME.plusHours(i * 6), 1, i % 5, 0, 0));
+         }
+         scores.add(new MyScore(TIME, 1, 50, 0, 0));
+         log.appendAll(scores);
+         leaderboard.addAll(scores);
+
+         final List<GameScore> top = leaderboard.top(ScoreNamespace.WORD_GAME);
+         assertEquals(3, top.size());
+         assertEquals(TIME.plusHours(24), top.get(0).getDateTime());
+         assertEquals(TIME.plusHours(54), top.get(1).getDateTime());
+         assertEquals(TIME.plusHours(18), top.get(2).getDateTime());
+         assertEquals(1, leaderboard.top(ScoreNamespace.MEMORY_GAME).size());
+
+         final List<GameScore> day = leaderboard.topOfDay(ScoreNamespace.WORD_GAME, LocalDate.of(2025, 3, 2));
+         assertEquals(3, day.size());
+         assertEquals(TIME.plusHours(24), day.get(0).getDateTime());
+         assertTrue(leaderboard.topOfDay(ScoreNamespace.WORD_GAME, LocalDate.of(2025, 4, 1)).isEmpty());
+
+         assertEquals(OptionalInt.of(1), leaderboard.rank(top.get(0)));
+         assertEquals(OptionalInt.of(3), leaderboard.rank(top.get(2)));
+         assertEquals(OptionalInt.of(2), leaderboard.rank(new Score(TIME.plusHours(30), 1, 4, 0, 0)));
+         assertTrue(leaderboard.rank(new Score(TIME, 1, 1, 0, 0)).isEmpty());
+      }
+   }
+
+   @Test
+   void testCatchesUpAndSurvivesCompaction() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         scores.append(new Score(TIME, 1, 3, 0, 0));
+         scores.append(new Score(TIME.plusDays(1), 1, 7, 0, 0));
+      }
+      assertTrue(Files.exists(ScoreLeaderboard.pathOf(logPath)));
+
+      // Appended without the leaderboard, so its file is one record behind
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.append(new Score(TIME.plusDays(2), 1, 5, 0, 0));
+      }
+
+      try (ScoreSink sink = ScoreSink.open(logPath, Duration.ofSeconds(1))) {
+         final ScoreLeaderboard leaderboard = sink.getLeaderboard().orElseThrow();
+         assertEquals(3, leaderboard.top(ScoreNamespace.WORD_GAME).size());
+         assertEquals(TIME.plusDays(2), leaderboard.top(ScoreNamespace.WORD_GAME).get(1).getDateTime());
+      }
+
+      new ScoreCompactor(Period.ofDays(1), Period.ofDays(1))
+              .compact(ScoreLog.open(logPath), LocalDate.of(2025, 6, 1))
+              .close();
+
+      // The file belongs to the old generation, so the board is rebuilt from the rollup
+      try (ScoreLog log = ScoreLog.open(logPath);
+           ScoreLeaderboard leaderboard = ScoreLeaderboard.open(log, ScoreLeaderboard.DEFAULT_CAPACITY)) {
+         assertEquals(0, log.size());
+         assertEquals(1, leaderboard.top(ScoreNamespace.WORD_GAME).size());
+         assertEquals(14, ((Score) leaderboard.top(ScoreNamespace.WORD_GAME).get(0)).getScore());
+      }
+   }
+}
@@ -0,0 +1,135 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreLogTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testAppendTracksHighScoreAndSurvivesReopen() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final LocalDateTime time = LocalDateTime.of(2024, 12, 1, 19, 54, 8);
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertTrue(log.highScore().isEmpty(), "A new log should have no high score.");
+         log.append(new Score(time, 1, 5, 2, 3));
+         log.append(new Score(time.plusHours(1), 1, 9, 1, 0));
+         log.append(new Score(time.plusHours(2), 2, 9, 1, 0));
+      }
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(3, log.size());
+         assertEquals(19, log.highScore().orElseThrow().getScore());
+         assertEquals("2024-12-01 20:54:08", log.highScore().orElseThrow().getDateTimePlayed());
+         assertEquals(3, log.read(0).getNumIncorrectTwoAttempts());
+      }
+   }
+
+   @Test
+   void testUncountedTailIsDropped() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.append(new Score(LocalDateTime.now(), 1, 5, 2, 3));
+      }
+
+      // Simulate a crash after a partial record write
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+         channel.write(java.nio.ByteBuffer.wrap(new byte[ScoreLog.RECORD_SIZE - 5]));
+      }
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(1, log.size());
+         log.append(new Score(LocalDateTime.now(), 1, 1, 1, 1));
+         assertEquals(2, log.readAll().size());
+      }
+      assertEquals(ScoreLog.HEADER_SIZE + 2L * ScoreLog.RECORD_SIZE, Files.size(logPath));
+   }
+
+   @Test
+   void testRecordsFromAChecksumMismatchOnAreDropped() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final java.nio.ByteBuffer last = java.nio.ByteBuffer.allocate(ScoreLog.RECORD_SIZE);
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.append(new Score(LocalDateTime.now(), 1, 5, 2, 3));
+         log.append(new Score(LocalDateTime.now(), 1, 9, 1, 0));
+      }
+
+      // Simulate whole records past the durable count, the first of them with a damaged field
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+         channel.read(last, ScoreLog.HEADER_SIZE + ScoreLog.RECORD_SIZE);
+         final java.nio.ByteBuffer damaged = java.nio.ByteBuffer.allocate(ScoreLog.RECORD_SIZE).put(last.array());
+         damaged.putInt(12, damaged.getInt(12) + 1).flip();
+         channel.write(damaged, channel.size());
+         channel.write(last.flip(), channel.size());
+      }
+      assertEquals(ScoreLog.HEADER_SIZE + 4L * ScoreLog.RECORD_SIZE, Files.size(logPath));
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(2, log.size(), "Records from the first checksum mismatch on should be cut off.");
+         assertEquals(9, log.read(1).getNumCorrectFirstAttempt());
+      }
+      assertEquals(ScoreLog.HEADER_SIZE + 2L * ScoreLog.RECORD_SIZE, Files.size(logPath));
+   }
+
+   @Test
+   void testImportText() throws IOException {
+      final Path textPath = tempDir.resolve("score.txt");
+      final Score first = new Score(LocalDateTime.of(2024, 1, 2, 3, 4, 5), 1, 6, 2, 2);
+      final Score second = new Score(LocalDateTime.of(2024, 1, 3, 3, 4, 5), 2, 12, 4, 4);
+      Files.writeString(textPath, first + System.lineSeparator() + second + System.lineSeparator());
+
+      try (ScoreLog log = ScoreLog.open(tempDir.resolve("score.log"))) {
+         assertEquals(2, ScoreLog.importText(textPath, log));
+         final List<Score> scores = log.readAll();
+         assertEquals(first.toString(), scores.get(0).toString());
+         assertEquals(second.toString(), scores.get(1).toString());
+      }
+   }
+
+   @Test
+   void testImportTextKeepsMemoryGameRecords() throws IOException {
+      final Path textPath = tempDir.resolve("score.txt");
+      final Score word = new Score(LocalDateTime.of(2024, 12, 2, 9, 0), 2, 7, 1, 2);
+      // The layout of the memory game records in src/output/score.txt
+      Files.writeString(textPath, """
+              Date and Time: 2024-12-01 19:54:08
+              Rounds Played: 6
+              Highest Score: 6
+              Highest Win Streaks: 6
+              Number of Win Streaks: 1
+
+              Date and Time: 2024-12-01 19:55:37
+              Rounds Played: 2
+              Highest Score: 0
+              Highest Win Streaks: 0
+              Number of Win Streaks: 0
+
+              """ + word + System.lineSeparator());
+
+      try (ScoreLog log = ScoreLog.open(tempDir.resolve("score.log"))) {
+         assertEquals(3, ScoreLog.importText(textPath, log));
+         assertEquals(3, log.size());
+         assertEquals(ScoreNamespace.MEMORY_GAME, log.readAny(0).getNamespace());
+         assertEquals(6, log.readAny(0).getNumCorrectFirstAttempt());
+         assertEquals(LocalDateTime.of(2024, 12, 1, 19, 55, 37), log.readAny(1).getDateTime());
+         assertEquals(List.of(word.toString()), log.readAll().stream().map(Score::toString).toList());
+      }
+   }
+}
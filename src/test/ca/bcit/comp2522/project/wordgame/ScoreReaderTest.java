@@ -0,0 +1,97 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.mygame.MyScore;
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoreReaderTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testStreamMatchesListParsing() throws IOException {
+      final Path filePath = tempDir.resolve("score.txt");
+      final StringBuilder text = new StringBuilder();
+      final List<String> lines = new ArrayList<>();
+      final List<Score> expected = new ArrayList<>();
+
+      for (int i = 0; i < 1000; i++) {
+         text.append(new Score(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i), 1 + i % 3, i % 11, i % 5, i % 7))
+             .append(System.lineSeparator());
+      }
+      Files.writeString(filePath, text.toString().replace("\n", "\r\n"));
+      Files.readAllLines(filePath).stream().filter(line -> !line.isBlank()).forEach(lines::add);
+      Score.addScoreToList(expected, lines);
+
+      try (Stream<Score> scores = Score.streamScoresFromFile(filePath)) {
+         assertEquals(expected.stream().map(Score::toString).toList(),
+                      scores.map(Score::toString).toList());
+      }
+   }
+
+   @Test
+   void testEarlyTerminationAndPartialRecord() throws IOException {
+      final Path filePath = tempDir.resolve("score.txt");
+      final Score first = new Score(LocalDateTime.of(2024, 1, 2, 3, 4, 5), 1, 6, 2, 2);
+      Files.writeString(filePath, first + "\n" + first + "\nDate and Time: 2024-01-03 00:00:00\nGames Played: 1\n");
+
+      try (Stream<Score> scores = Score.streamScoresFromFile(filePath)) {
+         assertEquals(first.toString(), scores.findFirst().orElseThrow().toString());
+      }
+      try (Stream<Score> scores = Score.streamScoresFromFile(filePath)) {
+         assertEquals(2, scores.count(), "A record cut short should be dropped.");
+      }
+
+      Files.writeString(filePath, "Not a score\n");
+      try (Stream<Score> scores = Score.streamScoresFromFile(filePath)) {
+         assertThrows(IllegalArgumentException.class, scores::count);
+      }
+   }
+
+   @Test
+   void testSkipsMemoryGameRecords() throws IOException {
+      final Path filePath = tempDir.resolve("score.txt");
+      final LocalDateTime time = LocalDateTime.of(2024, 12, 1, 19, 54, 8);
+      final StringBuilder text = new StringBuilder();
+
+      for (int i = 0; i < 6; i++) {
+         final GameScore score = i % 3 == 0
+                 ? new Score(time.plusMinutes(i), 2, i, 1, 1)
+                 : new MyScore(time.plusMinutes(i), 6, 6 + i, 6, 1);
+         text.append(score).append(System.lineSeparator());
+      }
+      Files.writeString(filePath, text.toString());
+
+      try (Stream<Score> scores = Score.streamScoresFromFile(filePath)) {
+         assertEquals(List.of(time, time.plusMinutes(3)), scores.map(Score::getDateTime).toList());
+      }
+      assertEquals(2, ScoreHistoryReader.readAll(filePath, 2).size());
+
+      try (ScoreReader reader = ScoreReader.open(filePath)) {
+         final List<GameScore> records = new ArrayList<>();
+         while (reader.hasNextRecord()) {
+            records.add(reader.nextRecord());
+         }
+         assertEquals(6, records.size());
+         assertEquals(ScoreNamespace.MEMORY_GAME, records.get(1).getNamespace());
+         assertEquals(6, records.get(1).getNumGamesPlayed());
+         assertEquals(7, records.get(1).getNumCorrectFirstAttempt());
+         assertEquals(1, records.get(5).getNumIncorrectTwoAttempts());
+         assertEquals(ScoreNamespace.WORD_GAME, records.get(3).getNamespace());
+      }
+   }
+}
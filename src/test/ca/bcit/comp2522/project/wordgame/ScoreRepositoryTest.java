@@ -0,0 +1,68 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreRepositoryTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testAggregatesSurviveReopen() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final LocalDateTime time = LocalDateTime.of(2024, 12, 1, 19, 54, 8);
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         scores.append(new Score(time, 1, 5, 2, 3));
+         scores.append(new Score(time.plusHours(1), 1, 9, 1, 0));
+         scores.append(new Score(time.plusDays(1), 2, 9, 1, 0));
+      }
+      assertTrue(Files.exists(tempDir.resolve("score.log" + ScoreRepository.SIDECAR_SUFFIX)));
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertEquals(3, scores.count());
+         assertEquals(4, scores.totalGames());
+         assertEquals((12.0 + 19.0 + 19.0) / 4, scores.averagePointsPerGame(), 1e-9);
+         assertEquals(19, scores.highScore().orElseThrow().getScore());
+         assertEquals(19, scores.bestOfDay(time.toLocalDate()).orElseThrow().getScore());
+         assertEquals(2L, scores.bestIndexByDay().get(time.toLocalDate().plusDays(1)));
+         assertTrue(scores.bestOfDay(time.toLocalDate().minusDays(1)).isEmpty());
+      }
+   }
+
+   @Test
+   void testCatchesUpOnRecordsMissingFromSidecar() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+      final LocalDateTime time = LocalDateTime.of(2024, 12, 1, 19, 54, 8);
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         scores.append(new Score(time, 1, 5, 2, 3));
+      }
+
+      // Appended without the repository, so the sidecar is one record behind
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         log.append(new Score(time.plusHours(1), 1, 10, 0, 0));
+      }
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertEquals(2, scores.count());
+         assertEquals(20, scores.bestOfDay(time.toLocalDate()).orElseThrow().getScore());
+      }
+
+      Files.writeString(tempDir.resolve("score.log" + ScoreRepository.SIDECAR_SUFFIX), "garbage");
+
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertEquals(2, scores.count());
+         assertEquals(2, scores.totalGames());
+      }
+   }
+}
@@ -0,0 +1,201 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.mygame.MyScore;
+import ca.bcit.comp2522.project.util.GameScore;
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreSinkTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testGamesShareTheLogWithoutSeeingEachOther() throws Exception {
+      final Path logPath = tempDir.resolve("score.log");
+      final ScoreSink sink = ScoreSink.open(logPath, Duration.ofMillis(10));
+      final List<Thread> threads = new ArrayList<>();
+
+      for (int t = 0; t < 8; t++) {
+         final boolean isWordGame = t % 2 == 0;
+         final Thread thread = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+               if (isWordGame) {
+                  sink.submit(new Score(LocalDateTime.now(), 1, i % 10, 0, 0));
+               } else {
+                  sink.submit(new MyScore(LocalDateTime.now(), 3, 99, 7, 2));
+               }
+            }
+         });
+         threads.add(thread);
+         thread.start();
+      }
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      sink.close();
+
+      assertEquals(8000, sink.getSubmitted());
+      assertEquals(0, sink.getFailed());
+      assertThrows(IllegalStateException.class, () -> sink.submit(new Score(LocalDateTime.now(), 1, 1, 1, 1)));
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(8000, log.size());
+         assertEquals(4000, log.readAll().size(), "Memory game records should be skipped.");
+         assertEquals(18, log.highScore().orElseThrow().getScore());
+      }
+      try (ScoreRepository scores = ScoreRepository.open(logPath)) {
+         assertEquals(4000, scores.count());
+      }
+   }
+
+   @Test
+   void testLogHasOneWriter() throws IOException {
+      final Path logPath = tempDir.resolve("score.log");
+
+      try (ScoreSink sink = ScoreSink.open(logPath, Duration.ofSeconds(1))) {
+         assertThrows(IOException.class, () -> ScoreLog.open(logPath));
+         sink.submit(new Score(LocalDateTime.now(), 1, 1, 1, 1));
+      }
+   }
+
+   @Test
+   void testScoresOfAnotherWriterAreSpooledForTheHolder() throws Exception {
+      final Path logPath = tempDir.resolve("score.log");
+      final LocalDateTime time = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+
+      assertTrue(ScoreSink.record(logPath, new Score(time, 1, 2, 0, 0)));
+
+      try (ScoreSink sink = ScoreSink.open(logPath, Duration.ofMillis(10))) {
+         assertFalse(ScoreSink.record(logPath, new Score(time.plusDays(1), 2, 5, 1, 0)));
+         assertFalse(ScoreSink.record(logPath, new Score(time.plusDays(2), 1, 1, 0, 0)));
+         assertFalse(ScoreSink.record(logPath, new MyScore(time.plusDays(3), 4, 80, 6, 1)));
+         sink.submit(new MyScore(time, 3, 99, 7, 2));
+
+         final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+         while (Files.size(logPath.resolveSibling("score.log" + ScoreSink.SPOOL_SUFFIX)) > 0
+                 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+         }
+      }
+
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         final List<Score> scores = log.readAll();
+         assertEquals(5, log.size());
+         assertEquals(3, scores.size());
+         assertEquals(time.plusDays(1), scores.get(1).getDateTime());
+         assertEquals(11, scores.get(1).getNumCorrectFirstAttempt() * 2 + scores.get(1).getNumCorrectSecondAttempt());
+
+         // The spool is imported on a sync tick, so its records can land after the submitted one
+         GameScore spooled = null;
+         for (long i = 0; i < log.size(); i++) {
+            if (log.readAny(i).getDateTime().equals(time.plusDays(3))) {
+               spooled = log.readAny(i);
+            }
+         }
+         assertNotNull(spooled, "The spooled memory game score should be imported.");
+         assertEquals(ScoreNamespace.MEMORY_GAME, spooled.getNamespace());
+         assertEquals(80, spooled.getNumCorrectFirstAttempt());
+      }
+      assertEquals(0, Files.size(logPath.resolveSibling("score.log" + ScoreSink.SPOOL_SUFFIX)));
+   }
+
+   @Test
+   void testSinkReopensTheLogAfterAFailedCompaction() throws Exception {
+      final Path logPath = tempDir.resolve("score.log");
+      final AtomicInteger compactions = new AtomicInteger();
+      // Fails after giving up the old log, as a compaction whose reopen throws would
+      final ScoreCompactor failing = new ScoreCompactor(Period.ZERO, Period.ZERO) {
+         @Override
+         public ScoreLog compact(final ScoreLog log, final LocalDate today) throws IOException {
+            compactions.incrementAndGet();
+            log.close();
+            throw new IOException("Injected reopen failure");
+         }
+      };
+      final ScoreSink sink = ScoreSink.open(logPath, Duration.ofMillis(10), failing, Duration.ofMillis(5));
+
+      for (int i = 0; i < 200; i++) {
+         sink.submit(new Score(LocalDateTime.now(), 1, i % 10, 0, 0));
+         if (i % 20 == 0) {
+            Thread.sleep(10);
+         }
+      }
+      sink.close();
+
+      assertTrue(compactions.get() > 1);
+      assertEquals(0, sink.getFailed());
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(200, log.size());
+      }
+   }
+
+   @Test
+   void testFailedBatchesAreSpooledAndWrittenLater() throws Exception {
+      final Path logPath = tempDir.resolve("score.log");
+      final Path spoolPath = logPath.resolveSibling("score.log" + ScoreSink.SPOOL_SUFFIX);
+      final AtomicInteger compactions = new AtomicInteger();
+      final AtomicReference<ScoreLog> holder = new AtomicReference<>();
+      // Gives up the log once and lets another writer take it, so every batch after fails
+      final ScoreCompactor stealing = new ScoreCompactor(Period.ZERO, Period.ZERO) {
+         @Override
+         public ScoreLog compact(final ScoreLog log, final LocalDate today) throws IOException {
+            if (compactions.incrementAndGet() == 1) {
+               log.close();
+               holder.set(ScoreLog.open(logPath));
+               throw new IOException("Injected lost log");
+            }
+            return log;
+         }
+      };
+      final ScoreSink sink = ScoreSink.open(logPath, Duration.ofMillis(10), stealing, Duration.ofMillis(5));
+
+      waitUntil(() -> holder.get() != null);
+      for (int i = 0; i < 100; i++) {
+         sink.submit(new Score(LocalDateTime.now(), 1, i % 10, 0, 0));
+      }
+      waitUntil(() -> sink.getSpooled() == 100);
+      assertTrue(Files.size(spoolPath) > 0);
+
+      holder.get().close();
+      waitUntil(() -> Files.size(spoolPath) == 0);
+      sink.close();
+
+      assertEquals(100, sink.getSpooled());
+      assertEquals(0, sink.getFailed());
+      try (ScoreLog log = ScoreLog.open(logPath)) {
+         assertEquals(100, log.size());
+      }
+   }
+
+   private interface Condition {
+      boolean holds() throws IOException;
+   }
+
+   private static void waitUntil(final Condition condition) throws Exception {
+      final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+      while (!condition.holds()) {
+         assertTrue(System.nanoTime() < deadline, "Timed out waiting for the writer.");
+         Thread.sleep(10);
+      }
+   }
+}
@@ -0,0 +1,69 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WordGameBatchTest {
+
+   @TempDir
+   Path tempDir;
+
+   private World world;
+   private WordGameBatch batch;
+
+   @BeforeEach
+   void setUp() throws IOException {
+      final Path resources = Files.createDirectories(tempDir.resolve("resources"));
+      Files.writeString(resources.resolve("a.txt"),
+                        "Canada:Ottawa\nMaple syrup\nHockey\nCold\n\nChile:Santiago\nLong\nNarrow\nAndes\n");
+      world = new World(resources);
+      batch = new WordGameBatch(world, new FuzzyMatcher(world));
+   }
+
+   @Test
+   void testGradesFirstSecondAndIncorrectAnswers() throws IOException {
+      final List<String> lines = new ArrayList<>();
+      lines.add("# session, seed, first answer, second answer");
+      lines.add("s1\t1\t" + Question.fromSeed(world, 1).getAnswer());
+      lines.add("s1\t2\twrong\t" + Question.fromSeed(world, 2).getAnswer());
+      lines.add("s1\t3\twrong\twrong again");
+      lines.add("s2\t4\t" + Question.fromSeed(world, 4).getAnswer().toUpperCase());
+      lines.add("bad line");
+      final Path answers = Files.write(tempDir.resolve("answers.tsv"), lines);
+
+      final Map<String, Score> scores = batch.grade(answers, 2);
+
+      assertEquals(List.of("s1", "s2"), new ArrayList<>(scores.keySet()));
+      assertEquals(1, scores.get("s1").getNumGamesPlayed());
+      assertEquals(1, scores.get("s1").getNumCorrectFirstAttempt());
+      assertEquals(1, scores.get("s1").getNumCorrectSecondAttempt());
+      assertEquals(1, scores.get("s1").getNumIncorrectTwoAttempts());
+      assertEquals(1, scores.get("s2").getNumCorrectFirstAttempt());
+   }
+
+   @Test
+   void testParallelGradingMatchesSingleThread() throws IOException {
+      final List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+         lines.add("s" + (i % 17) + "\t" + i + "\t" + (i % 3 == 0 ? "wrong" : Question.fromSeed(world, i).getAnswer()));
+      }
+      final Path answers = Files.write(tempDir.resolve("answers.tsv"), lines);
+
+      final Map<String, Score> single = batch.grade(answers, 1);
+      final Map<String, Score> parallel = batch.grade(answers, 4);
+
+      assertEquals(single.keySet(), parallel.keySet());
+      single.forEach((id, score) -> assertEquals(score.getTotalScore(), parallel.get(id).getTotalScore()));
+      assertEquals(3, single.get("s0").getNumGamesPlayed(), "30 rounds make three games.");
+   }
+}
@@ -0,0 +1,397 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import ca.bcit.comp2522.project.util.ScoreNamespace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Micro-benchmarks for the word game hot paths. Each benchmark warms up the
+ * code under test before timing it, and prints its throughput.
+ *
+ * <p>Run from the project root with {@code java ... WordGameBenchmark}.
+ */
+public class WordGameBenchmark {
+
+   private static final int WARMUP_ROUNDS = 5;
+   private static final int ROUNDS = 5;
+   private static final int OPS_PER_ROUND = 1_000_000;
+   private static final int SYNTHETIC_COUNTRIES = 100_000;
+   private static final int SCHEDULED_COUNTRIES = 1_000_000;
+   private static final int SCORE_RECORDS = 1_000_000;
+   private static final int FOOTPRINT_COUNTRIES = 1_000_000;
+   private static final int SCORE_ROUNDS = 3;
+   private static final int LINES_PER_SCORE = 6;
+
+   // Keeps results alive so the JIT cannot remove the benchmarked calls
+   private static long sink;
+
+   public static void main(String[] args) throws IOException {
+      World world = new World(Paths.get("src", "resources"));
+
+      benchmarkCapitalLookup(world);
+      benchmarkScheduler(SCHEDULED_COUNTRIES);
+      benchmarkQuestionServing(world);
+      benchmarkCountryFootprint(FOOTPRINT_COUNTRIES);
+
+      Path corpus = writeSyntheticCorpus(SYNTHETIC_COUNTRIES);
+      try {
+         benchmarkFuzzyMatch(new World(corpus));
+      } finally {
+         deleteRecursively(corpus);
+      }
+
+      Path scores = writeScoreFile(SCORE_RECORDS);
+      try {
+         benchmarkScoreParsing(scores);
+      } finally {
+         Files.delete(scores);
+      }
+   }
+
+   static void benchmarkCapitalLookup(World world) {
+      List<Country> countries = world.getCountryList();
+      String[] capitals = new String[countries.size()];
+      for (int i = 0; i < capitals.length; i++) {
+         capitals[i] = countries.get(i).getCapitalCityName().toUpperCase();
+      }
+
+      run("capital lookup, linear scan", i -> {
+         String capital = capitals[i % capitals.length];
+         for (Country country : countries) {
+            if (country.getCapitalCityName().equalsIgnoreCase(capital)) {
+               return country.getIndex();
+            }
+         }
+         return -1;
+      });
+
+      run("capital lookup, hash index", i -> {
+         Optional<Country> country = world.findByCapital(capitals[i % capitals.length]);
+         return country.map(Country::getIndex).orElse(-1);
+      });
+   }
+
+   static void benchmarkScheduler(int countries) {
+      QuestionScheduler scheduler = new QuestionScheduler(countries, new SplittableRandom(42));
+
+      run("scheduler next + record, " + countries + " countries", i -> {
+         int country = scheduler.next();
+         scheduler.record(country, i % 4 == 0 ? WordGameSession.AnswerResult.INCORRECT
+                                              : WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT);
+         return country;
+      });
+   }
+
+   static void benchmarkQuestionServing(World world) {
+      QuestionBank bank = QuestionBank.build(world);
+      SplittableRandom random = new SplittableRandom(42);
+
+      run("question serving, prompt built per question", i ->
+              Question.random(world, random).getPrompt().length());
+
+      run("question serving, question bank", i ->
+              bank.random(random).getPrompt().length());
+   }
+
+   static void benchmarkCountryFootprint(int countries) {
+      long legacy = retainedBytes(() -> legacyCorpus(countries));
+      long packed = retainedBytes(() -> packedCorpus(countries));
+
+      System.out.printf("%-45s %,15d bytes/country%n", "country heap, string per field", legacy / countries);
+      System.out.printf("%-45s %,15d bytes/country%n", "country heap, packed store", packed / countries);
+   }
+
+   // Heap still in use after building a value and collecting, while the value is reachable
+   static long retainedBytes(Supplier<?> build) {
+      MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      collect();
+      long before = memory.getHeapMemoryUsage().getUsed();
+      Object built = build.get();
+      collect();
+      long after = memory.getHeapMemoryUsage().getUsed();
+      Reference.reachabilityFence(built);
+      return after - before;
+   }
+
+   private static void collect() {
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+   }
+
+   // Unique names, capitals and facts, the worst case for the packed store's deduplication
+   static String[] syntheticFields(int i) {
+      return new String[] {
+              "Country " + i,
+              "Capital " + i,
+              "Country " + i + " is known for its long coastline and mountain ranges.",
+              "Country " + i + " has a national dish made with rice and beans.",
+              "Country " + i + " hosts a famous festival every summer."
+      };
+   }
+
+   // The layout Country had before CountryStore: one String per field and a fact array per country
+   static List<LegacyCountry> legacyCorpus(int countries) {
+      List<LegacyCountry> corpus = new ArrayList<>(countries);
+      for (int i = 0; i < countries; i++) {
+         String[] fields = syntheticFields(i);
+         corpus.add(new LegacyCountry(fields[0], fields[1], Arrays.copyOfRange(fields, 2, fields.length)));
+      }
+      return corpus;
+   }
+
+   // The store and one view per country, as World holds them
+   static Country[] packedCorpus(int countries) {
+      CountryStore store = new CountryStore();
+      for (int i = 0; i < countries; i++) {
+         String[] fields = syntheticFields(i);
+         store.add(fields[0], fields[1], Arrays.copyOfRange(fields, 2, fields.length));
+      }
+      store.compact();
+      Country[] views = new Country[countries];
+      for (int i = 0; i < countries; i++) {
+         views[i] = new Country(store, i);
+      }
+      return views;
+   }
+
+   record LegacyCountry(String name, String capitalCityName, String[] facts) {
+   }
+
+   static void benchmarkFuzzyMatch(World world) {
+      FuzzyMatcher matcher = new FuzzyMatcher(world);
+      int size = world.size();
+      String[] typos = new String[size];
+      for (int i = 0; i < size; i++) {
+         // Swap two letters in the middle of each name
+         char[] name = world.getCountry(i).getName().toCharArray();
+         int middle = name.length / 2;
+         char c = name[middle];
+         name[middle] = name[middle - 1];
+         name[middle - 1] = c;
+         typos[i] = new String(name);
+      }
+
+      run("fuzzy match, " + size + " names, exact", i -> {
+         Country country = world.getCountry(i % size);
+         return matcher.matchesName(country, country.getName()) ? 1 : 0;
+      });
+
+      run("fuzzy match, " + size + " names, one typo", i ->
+              matcher.matchesName(world.getCountry(i % size), typos[i % size]) ? 1 : 0);
+   }
+
+   static void benchmarkScoreParsing(Path scores) throws IOException {
+      parseScores("score parsing, regex per line", scores, WordGameBenchmark::parseScoreWithRegex);
+      parseScores("score parsing, text scanner", scores, lines -> {
+         List<Score> parsed = new ArrayList<>(1);
+         Score.addScoreToList(parsed, lines);
+         return parsed.get(0).getTotalScore();
+      });
+
+      int threads = Runtime.getRuntime().availableProcessors();
+      readHistory("history read, streaming", () -> {
+         try (Stream<Score> stream = Score.streamScoresFromFile(scores)) {
+            return stream.toList().size();
+         }
+      });
+      readHistory("history read, " + threads + " segments in parallel", () ->
+              ScoreHistoryReader.readAll(scores, threads).size());
+
+      Path columns = scores.resolveSibling(scores.getFileName() + ScoreColumns.FILE_SUFFIX);
+      Set<ScoreColumns.Column> needed = EnumSet.of(ScoreColumns.Column.NAMESPACE,
+                                                   ScoreColumns.Column.GAMES_PLAYED,
+                                                   ScoreColumns.Column.CORRECT_FIRST,
+                                                   ScoreColumns.Column.CORRECT_SECOND);
+      try (Stream<Score> stream = Score.streamScoresFromFile(scores)) {
+         ScoreColumns.of(stream.iterator()).write(columns, true);
+      }
+      try {
+         readHistory("average points per game, text history", () -> {
+            try (Stream<Score> stream = Score.streamScoresFromFile(scores)) {
+               long[] totals = new long[2];
+               stream.forEach(score -> {
+                  totals[0] += score.getNumGamesPlayed();
+                  totals[1] += 2L * score.getNumCorrectFirstAttempt() + score.getNumCorrectSecondAttempt();
+               });
+               return totals[1] / Math.max(1, totals[0]);
+            }
+         });
+         readHistory("average points per game, xz columns", () ->
+                 (long) ScoreColumns.read(columns, needed).averagePointsPerGame(ScoreNamespace.WORD_GAME));
+      } finally {
+         Files.delete(columns);
+      }
+   }
+
+   private static void readHistory(String name, HistoryRead read) throws IOException {
+      double best = Double.MAX_VALUE;
+      for (int round = 0; round < SCORE_ROUNDS + 1; round++) {
+         long start = System.nanoTime();
+         sink += read.count();
+         double seconds = (System.nanoTime() - start) / 1e9;
+         if (round > 0) {
+            best = Math.min(best, seconds);
+         }
+      }
+      System.out.printf("%-45s %,15.0f records/s%n", name, SCORE_RECORDS / best);
+   }
+
+   // Streams the file one record at a time, so both parsers pay the same I/O cost
+   private static void parseScores(String name, Path scores, ScoreParser parser) throws IOException {
+      double best = Double.MAX_VALUE;
+      for (int round = 0; round < SCORE_ROUNDS + 1; round++) {
+         long start = System.nanoTime();
+         try (BufferedReader reader = Files.newBufferedReader(scores)) {
+            List<String> record = new ArrayList<>(LINES_PER_SCORE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+               if (line.isBlank()) {
+                  continue;
+               }
+               record.add(line);
+               if (record.size() == LINES_PER_SCORE) {
+                  sink += parser.parse(record);
+                  record.clear();
+               }
+            }
+         }
+         double seconds = (System.nanoTime() - start) / 1e9;
+         if (round > 0) {
+            best = Math.min(best, seconds);
+         }
+      }
+      System.out.printf("%-45s %,15.0f records/s%n", name, SCORE_RECORDS / best);
+   }
+
+   // The parsing Score used before ScoreTextScanner: a fresh Pattern and formatter per line
+   private static int parseScoreWithRegex(List<String> lines) {
+      LocalDateTime dateTime = null;
+      int[] stats = new int[4];
+      int stat = 0;
+      for (String line : lines) {
+         if (line.contains("Date and Time:")) {
+            Matcher matcher = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}").matcher(line);
+            if (matcher.find()) {
+               DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+               String formatted = LocalDateTime.parse(matcher.group(), formatter).format(formatter);
+               dateTime = LocalDateTime.parse(formatted, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            }
+         } else if (!line.contains("Score:")) {
+            Matcher matcher = Pattern.compile("\\d+").matcher(line);
+            stats[stat++] = matcher.find() ? Integer.parseInt(matcher.group()) : -1;
+         }
+      }
+      return new Score(dateTime, stats[0], stats[1], stats[2], stats[3]).getTotalScore();
+   }
+
+   static Path writeScoreFile(int records) throws IOException {
+      Path file = Files.createTempFile("score", ".txt");
+      SplittableRandom random = new SplittableRandom(42);
+      LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+      try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+         for (int i = 0; i < records; i++) {
+            int games = random.nextInt(1, 5);
+            writer.write(new Score(time.plusSeconds(37L * i),
+                                   games,
+                                   random.nextInt(10 * games),
+                                   random.nextInt(5),
+                                   random.nextInt(5)).toString());
+            writer.newLine();
+         }
+      }
+      return file;
+   }
+
+   // Writes a corpus of random pronounceable names in the resource file format
+   static Path writeSyntheticCorpus(int countries) throws IOException {
+      Path dir = Files.createTempDirectory("world");
+      SplittableRandom random = new SplittableRandom(42);
+      try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve("synthetic.txt"))) {
+         for (int i = 0; i < countries; i++) {
+            writer.write(randomName(random) + i + ":" + randomName(random) + i);
+            writer.newLine();
+            for (int fact = 0; fact < Country.DEFAULT_LENGTH; fact++) {
+               writer.write("Fact " + fact + " about country " + i + ".");
+               writer.newLine();
+            }
+            writer.newLine();
+         }
+      }
+      return dir;
+   }
+
+   private static String randomName(SplittableRandom random) {
+      String consonants = "bcdfghjklmnprstvz";
+      String vowels = "aeiou";
+      StringBuilder sb = new StringBuilder();
+      int syllables = random.nextInt(2, 5);
+      for (int i = 0; i < syllables; i++) {
+         sb.append(consonants.charAt(random.nextInt(consonants.length())));
+         sb.append(vowels.charAt(random.nextInt(vowels.length())));
+      }
+      sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+      return sb.toString();
+   }
+
+   static void deleteRecursively(Path dir) throws IOException {
+      try (Stream<Path> paths = Files.walk(dir)) {
+         for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+            Files.delete(path);
+         }
+      }
+   }
+
+   interface Op {
+      int apply(int i);
+   }
+
+   interface ScoreParser {
+      int parse(List<String> lines);
+   }
+
+   interface HistoryRead {
+      long count() throws IOException;
+   }
+
+   static void run(String name, Op op) {
+      for (int round = 0; round < WARMUP_ROUNDS; round++) {
+         time(op);
+      }
+      double best = Double.MAX_VALUE;
+      for (int round = 0; round < ROUNDS; round++) {
+         best = Math.min(best, time(op));
+      }
+      System.out.printf("%-45s %,15.0f ops/s%n", name, OPS_PER_ROUND / best);
+   }
+
+   private static double time(Op op) {
+      long start = System.nanoTime();
+      for (int i = 0; i < OPS_PER_ROUND; i++) {
+         sink += op.apply(i);
+      }
+      return (System.nanoTime() - start) / 1e9;
+   }
+}
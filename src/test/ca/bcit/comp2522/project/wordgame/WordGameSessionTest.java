@@ -0,0 +1,83 @@
+package ca.bcit.comp2522.project.wordgame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordGameSessionTest {
+
+   @TempDir
+   Path tempDir;
+
+   private World world;
+   private WordGameSession session;
+
+   @BeforeEach
+   void setUp() throws IOException {
+      final Path resources = Files.createDirectories(tempDir.resolve("resources"));
+      Files.writeString(resources.resolve("a.txt"),
+                        "Canada:Ottawa\nMaple syrup\nHockey\nCold\n\nChile:Santiago\nLong\nNarrow\nAndes\n");
+      world = new World(resources);
+      session = new WordGameSession(world, new FuzzyMatcher(world), new SplittableRandom(42));
+   }
+
+   @Test
+   void testAnswerOutcomesAndSummary() {
+      Question question = session.nextQuestion();
+      assertSame(question, session.nextQuestion(), "An open question should be returned again.");
+      assertEquals(WordGameSession.AnswerResult.CORRECT_FIRST_ATTEMPT, session.submitAnswer(question.getAnswer()));
+
+      question = session.nextQuestion();
+      assertEquals(WordGameSession.AnswerResult.TRY_AGAIN, session.submitAnswer("wrong"));
+      assertEquals(WordGameSession.AnswerResult.CORRECT_SECOND_ATTEMPT, session.submitAnswer(question.getAnswer()));
+
+      session.nextQuestion();
+      assertEquals(WordGameSession.AnswerResult.TRY_AGAIN, session.submitAnswer("wrong"));
+      assertEquals(WordGameSession.AnswerResult.INCORRECT, session.submitAnswer("wrong"));
+
+      final Score score = session.summary();
+      assertEquals(1, score.getNumGamesPlayed());
+      assertEquals(3, score.getTotalScore());
+      assertThrows(IllegalStateException.class, () -> session.submitAnswer("late"));
+   }
+
+   @Test
+   void testGamesAreCountedEveryReportCycle() {
+      for (int i = 0; i < WordGame.REPORT_CYCLE; i++) {
+         assertFalse(session.isGameComplete());
+         session.submitAnswer(session.nextQuestion().getAnswer());
+      }
+      assertTrue(session.isGameComplete());
+
+      session.nextQuestion();
+      assertEquals(2, session.getNumGamesPlayed(), "The next question should start a new game.");
+   }
+
+   @Test
+   void testConsoleEndsWhenInputEnds() throws IOException {
+      final StringWriter output = new StringWriter();
+      final WordGameConsole console = new WordGameConsole(session,
+                                                          new BufferedReader(new StringReader("wrong\nwrong\n")),
+                                                          new PrintWriter(output));
+
+      final Score score = console.play();
+
+      assertEquals(1, score.getNumIncorrectTwoAttempts());
+      assertTrue(output.toString().contains("The correct answer is"));
+   }
+}